@@ -0,0 +1,36 @@
+package com.fullstack.station_manager.configuration;
+
+import com.fullstack.station_manager.utility.StopTimesCodec;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+@Configuration
+public class MongoConfig {
+
+  @Bean
+  public MongoCustomConversions mongoCustomConversions() {
+    return new MongoCustomConversions(
+        List.of(new StopTimesCodec.Writer(), new StopTimesCodec.Reader()));
+  }
+
+  /**
+   * With virtual threads the request thread pool no longer bounds concurrent Mongo calls, so the
+   * connection pool does: callers beyond {@code max-size} wait at most {@code max-wait} for a
+   * connection and then fail instead of queueing without limit.
+   */
+  @Bean
+  public MongoClientSettingsBuilderCustomizer mongoConnectionPoolCustomizer(
+      @Value("${station.mongo.pool.max-size:100}") int maxSize,
+      @Value("${station.mongo.pool.max-wait:5s}") Duration maxWait) {
+    return settings ->
+        settings.applyToConnectionPoolSettings(
+            pool ->
+                pool.maxSize(maxSize).maxWaitTime(maxWait.toMillis(), TimeUnit.MILLISECONDS));
+  }
+}
@@ -0,0 +1,42 @@
+package com.fullstack.station_manager.configuration;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary encodings offered next to JSON through {@code Accept}: CBOR ({@code application/cbor})
+ * and Smile ({@code application/x-jackson-smile}). Both mappers come from Boot's builder, so they
+ * share every Jackson setting of the JSON mapper. Smile back-references repeated names and short
+ * string values, which covers most of a stations payload.
+ */
+@Configuration
+public class PayloadFormatsConfig {
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(cborFactory()).build());
+  }
+
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(builder.factory(smileFactory()).build());
+  }
+
+  public static CBORFactory cborFactory() {
+    return new CBORFactory();
+  }
+
+  public static SmileFactory smileFactory() {
+    return SmileFactory.builder()
+        .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+        .build();
+  }
+}
@@ -0,0 +1,48 @@
+package com.fullstack.station_manager.configuration;
+
+import java.util.Set;
+import org.springframework.boot.autoconfigure.AutoConfigurationImportFilter;
+import org.springframework.boot.autoconfigure.AutoConfigurationMetadata;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+/**
+ * Skips the reactive Mongo client, template and repositories unless {@code
+ * station.reactive.enabled} is set. Blocking mode would otherwise open a second client with its
+ * own pool and monitor threads that no request uses. A filter rather than an exclusion, because
+ * Spring Boot applies exclusions to every auto-configuration import, including a conditional
+ * {@code @ImportAutoConfiguration} meant to bring them back.
+ */
+public class ReactiveMongoFilter implements AutoConfigurationImportFilter, EnvironmentAware {
+
+  private static final Set<String> REACTIVE =
+      Set.of(
+          MongoReactiveAutoConfiguration.class.getName(),
+          MongoReactiveDataAutoConfiguration.class.getName(),
+          MongoReactiveRepositoriesAutoConfiguration.class.getName());
+
+  private Environment environment;
+
+  @Override
+  public void setEnvironment(Environment environment) {
+    this.environment = environment;
+  }
+
+  @Override
+  public boolean[] match(
+      String[] autoConfigurationClasses, AutoConfigurationMetadata autoConfigurationMetadata) {
+    boolean reactive = environment.getProperty("station.reactive.enabled", Boolean.class, false);
+    var matches = new boolean[autoConfigurationClasses.length];
+
+    // Entries an earlier filter skipped are null
+    for (int i = 0; i < autoConfigurationClasses.length; i++) {
+      var name = autoConfigurationClasses[i];
+      matches[i] = reactive || name == null || !REACTIVE.contains(name);
+    }
+
+    return matches;
+  }
+}
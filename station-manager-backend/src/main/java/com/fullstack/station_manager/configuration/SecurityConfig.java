@@ -2,6 +2,7 @@ package com.fullstack.station_manager.configuration;
 
 import com.fullstack.station_manager.service.UsersService;
 import com.fullstack.station_manager.utility.JwtUtil;
+import jakarta.servlet.DispatcherType;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -37,7 +38,15 @@ public class SecurityConfig {
         .authorizeHttpRequests(
             authorizeRequests ->
                 authorizeRequests
-                    .requestMatchers("/api/authentication/**", "/api/test/**")
+                    // Async dispatches resume a request that was already authorized; the JWT
+                    // filter does not run for them, so they would otherwise be anonymous
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC)
+                    .permitAll()
+                    // /error renders the status of failed public requests (401, 429, 503)
+                    .requestMatchers("/api/authentication/**", "/api/test/**", "/error")
+                    .permitAll()
+                    // Scraped by Prometheus, which cannot present a JWT
+                    .requestMatchers("/actuator/health", "/actuator/prometheus")
                     .permitAll()
                     .anyRequest()
                     .authenticated())
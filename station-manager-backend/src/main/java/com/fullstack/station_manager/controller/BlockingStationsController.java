@@ -0,0 +1,98 @@
+package com.fullstack.station_manager.controller;
+
+import com.fullstack.station_manager.dto.request.StationsSearchRequest;
+import com.fullstack.station_manager.dto.response.SuccessResponse;
+import com.fullstack.station_manager.service.StationsExportService;
+import com.fullstack.station_manager.service.StationsHistoryService;
+import com.fullstack.station_manager.service.StationsService;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Station endpoints that wait on Mongo or the feeds, on the blocking repository and with the
+ * request thread held until the work is done. The default mode.
+ */
+@Slf4j
+@RestController
+@RequestMapping("api/stations")
+@RequiredArgsConstructor
+@ConditionalOnProperty(
+    name = "station.reactive.enabled",
+    havingValue = "false",
+    matchIfMissing = true)
+public class BlockingStationsController {
+
+  private final StationsService stationsService;
+  private final StationsExportService stationsExportService;
+  private final StationsHistoryService stationsHistoryService;
+
+  @GetMapping
+  public ResponseEntity<SuccessResponse> search(StationsSearchRequest search) {
+    var response = stationsService.searchStations(search);
+
+    return ResponseEntity.ok(response);
+  }
+
+  @GetMapping("export")
+  public ResponseEntity<StreamingResponseBody> export(
+      @RequestParam(required = false) String q,
+      @RequestParam(required = false) List<String> agency,
+      @RequestParam(required = false) List<String> fields) {
+    var body = stationsExportService.export(q, agency, fields);
+
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  @GetMapping("{uri}/history")
+  public ResponseEntity<SuccessResponse> history(
+      @PathVariable String uri,
+      @RequestParam(required = false) String route,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate to) {
+    var response = stationsHistoryService.history(uri, route, from, to);
+
+    return ResponseEntity.ok(response);
+  }
+
+  @GetMapping("{uri}/trends")
+  public ResponseEntity<SuccessResponse> trends(
+      @PathVariable String uri,
+      @RequestParam(required = false) String route,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate to,
+      @RequestParam(required = false) String unit) {
+    var response = stationsHistoryService.trends(uri, route, from, to, unit);
+
+    return ResponseEntity.ok(response);
+  }
+
+  @PostMapping("save")
+  public ResponseEntity<SuccessResponse> saveStations() {
+    log.info("BlockingStationsController: POST /stations/save endpoint called");
+    log.info(
+        "BlockingStationsController: Authentication context: {}",
+        SecurityContextHolder.getContext().getAuthentication());
+
+    var response = stationsService.saveStations();
+
+    return ResponseEntity.ok(response);
+  }
+}
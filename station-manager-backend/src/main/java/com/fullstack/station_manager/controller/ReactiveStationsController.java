@@ -0,0 +1,89 @@
+package com.fullstack.station_manager.controller;
+
+import com.fullstack.station_manager.dto.request.StationsSearchRequest;
+import com.fullstack.station_manager.dto.response.SuccessResponse;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.service.ReactiveStationsService;
+import com.fullstack.station_manager.service.StationsHistoryService;
+import com.fullstack.station_manager.service.StationsService;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Station endpoints that wait on Mongo or the feeds, with {@code station.reactive.enabled=true}.
+ * Spring MVC subscribes to the returned {@code Mono} or {@code Flux} and releases the request
+ * thread until the result is ready, so neither a slow Mongo nor a slow feed holds it. The JWT
+ * filter chain is the same as in the blocking mode.
+ */
+@Slf4j
+@RestController
+@RequestMapping("api/stations")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "station.reactive.enabled", havingValue = "true")
+public class ReactiveStationsController {
+
+  private final ReactiveStationsService reactiveStationsService;
+  private final StationsService stationsService;
+  private final StationsHistoryService stationsHistoryService;
+
+  @GetMapping
+  public Mono<SuccessResponse> search(StationsSearchRequest search) {
+    return reactiveStationsService.searchStations(search);
+  }
+
+  @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<Stations> export(
+      @RequestParam(required = false) String q,
+      @RequestParam(required = false) List<String> agency,
+      @RequestParam(required = false) List<String> fields) {
+    return reactiveStationsService.export(q, agency, fields);
+  }
+
+  // The aggregation runs on a bounded elastic worker instead of the request thread
+  @GetMapping("{uri}/history")
+  public Mono<SuccessResponse> history(
+      @PathVariable String uri,
+      @RequestParam(required = false) String route,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate to) {
+    return Mono.fromCallable(() -> stationsHistoryService.history(uri, route, from, to))
+        .subscribeOn(Schedulers.boundedElastic());
+  }
+
+  @GetMapping("{uri}/trends")
+  public Mono<SuccessResponse> trends(
+      @PathVariable String uri,
+      @RequestParam(required = false) String route,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate to,
+      @RequestParam(required = false) String unit) {
+    return Mono.fromCallable(() -> stationsHistoryService.trends(uri, route, from, to, unit))
+        .subscribeOn(Schedulers.boundedElastic());
+  }
+
+  // The refresh itself still parses and writes on its own thread; the request only waits for it
+  @PostMapping("save")
+  public Mono<SuccessResponse> saveStations() {
+    log.info("ReactiveStationsController: POST /stations/save endpoint called");
+
+    return Mono.fromFuture(stationsService::saveStationsAsync);
+  }
+}
@@ -1,15 +1,28 @@
 package com.fullstack.station_manager.controller;
 
 import com.fullstack.station_manager.dto.response.SuccessResponse;
-import com.fullstack.station_manager.service.StationsService;
+import com.fullstack.station_manager.service.AutocompleteService;
+import com.fullstack.station_manager.service.DeparturesService;
+import com.fullstack.station_manager.service.HeadwayStatsService;
+import com.fullstack.station_manager.service.StationsEventsService;
+import com.fullstack.station_manager.service.StationsSnapshotService;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Slf4j
 @RestController
@@ -17,24 +30,139 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class StationsController {
 
-  private final StationsService stationsService;
+  // Resume token of the snapshot a full list was served from, for GET /api/stations/events
+  private static final String STATIONS_VERSION = "X-Stations-Version";
 
-  @GetMapping
-  public ResponseEntity<SuccessResponse> stations() {
-    var response = stationsService.stationList();
+  private final StationsSnapshotService stationsSnapshotService;
+  private final DeparturesService departuresService;
+  private final AutocompleteService autocompleteService;
+  private final HeadwayStatsService headwayStatsService;
+  private final StationsEventsService stationsEventsService;
+
+  // The full list, served from the snapshot. Paged, filtered or projected requests carry one of
+  // these StationsSearchRequest parameters and go to Mongo through the mode's stations controller.
+  @GetMapping(params = {"!page", "!size", "!cursor", "!q", "!agency", "!fields"})
+  public ResponseEntity<?> stations(
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+          String acceptEncoding) {
+    var snapshot = stationsSnapshotService.current();
+    var format = negotiate(accept);
+    var body = snapshot.body(format);
+    var gzip = acceptsGzip(acceptEncoding);
+    var etag = gzip ? body.gzipEtag() : body.etag();
+    var version = stationsEventsService.token(snapshot);
+
+    if (snapshot.matches(ifNoneMatch, etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(etag)
+          .header(STATIONS_VERSION, version)
+          .cacheControl(CacheControl.noCache())
+          .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+          .build();
+    }
+
+    var response =
+        ResponseEntity.ok()
+            .eTag(etag)
+            .header(STATIONS_VERSION, version)
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+            .contentType(format.mediaType());
+
+    if (gzip) {
+      return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+    }
+
+    return response.body(body.raw());
+  }
+
+  @GetMapping(value = "events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> events(
+      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+      @RequestParam(required = false) String since) {
+    var emitter = stationsEventsService.subscribe(lastEventId != null ? lastEventId : since);
+
+    return ResponseEntity.ok()
+        .cacheControl(CacheControl.noStore())
+        .header("X-Accel-Buffering", "no")
+        .body(emitter);
+  }
+
+  @GetMapping("autocomplete")
+  public ResponseEntity<SuccessResponse> autocomplete(
+      @RequestParam String q, @RequestParam(required = false) Integer limit) {
+    var response = autocompleteService.autocomplete(q, limit);
 
     return ResponseEntity.ok(response);
   }
 
-  @PostMapping("save")
-  public ResponseEntity<SuccessResponse> saveStations() {
-    log.info("StationsController: POST /stations/save endpoint called");
-    log.info(
-        "StationsController: Authentication context: {}",
-        SecurityContextHolder.getContext().getAuthentication());
+  @GetMapping("{uri}/departures")
+  public ResponseEntity<SuccessResponse> departures(
+      @PathVariable String uri,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String route) {
+    var response = departuresService.nextDepartures(uri, after, limit, route);
+
+    return ResponseEntity.ok(response);
+  }
 
-    var response = stationsService.saveStations();
+  @GetMapping("{uri}/stats")
+  public ResponseEntity<SuccessResponse> stats(
+      @PathVariable String uri, @RequestParam(required = false) String route) {
+    var response = headwayStatsService.stats(uri, route);
 
     return ResponseEntity.ok(response);
   }
+
+  // Highest quality wins; on a tie, or for wildcards, the earlier format (JSON first) is used
+  private static StationsSnapshotService.Format negotiate(String accept) {
+    if (accept == null || accept.isBlank()) {
+      return StationsSnapshotService.Format.JSON;
+    }
+
+    List<MediaType> accepted;
+    try {
+      accepted = MediaType.parseMediaTypes(accept);
+    } catch (InvalidMediaTypeException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Accept header");
+    }
+
+    StationsSnapshotService.Format best = null;
+    double bestQuality = 0;
+
+    for (var format : StationsSnapshotService.Format.values()) {
+      for (var mediaType : accepted) {
+        var quality = mediaType.getQualityValue();
+        if (quality > bestQuality && mediaType.includes(format.mediaType())) {
+          best = format;
+          bestQuality = quality;
+        }
+      }
+    }
+
+    if (best == null) {
+      throw new ResponseStatusException(
+          HttpStatus.NOT_ACCEPTABLE, "Stations are available as JSON, CBOR or Smile");
+    }
+
+    return best;
+  }
+
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+
+    for (var coding : acceptEncoding.split(",")) {
+      var parts = coding.trim().split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+      }
+    }
+
+    return false;
+  }
 }
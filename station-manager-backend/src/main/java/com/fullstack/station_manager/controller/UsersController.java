@@ -1,6 +1,7 @@
 package com.fullstack.station_manager.controller;
 
 import com.fullstack.station_manager.dto.request.LoginRequest;
+import com.fullstack.station_manager.dto.request.RefreshTokenRequest;
 import com.fullstack.station_manager.dto.request.RegisterRequest;
 import com.fullstack.station_manager.dto.response.SuccessResponse;
 import com.fullstack.station_manager.service.AuthenticationService;
@@ -31,4 +32,11 @@ public class UsersController {
 
     return ResponseEntity.ok(response);
   }
+
+  @PostMapping("refresh")
+  public ResponseEntity<SuccessResponse> refresh(@RequestBody RefreshTokenRequest request) {
+    var response = authenticationService.refreshToken(request);
+
+    return ResponseEntity.ok(response);
+  }
 }
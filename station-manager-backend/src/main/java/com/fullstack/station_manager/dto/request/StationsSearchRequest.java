@@ -0,0 +1,15 @@
+package com.fullstack.station_manager.dto.request;
+
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class StationsSearchRequest {
+
+  private Integer page;
+  private Integer size;
+  private String cursor;
+  private String q;
+  private List<String> agency;
+  private List<String> fields;
+}
@@ -0,0 +1,18 @@
+package com.fullstack.station_manager.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AutocompleteResponse {
+
+  private String text;
+  private String type;
+  private String stationUri;
+  private String stationName;
+  private String routeUri;
+  private int score;
+}
@@ -0,0 +1,17 @@
+package com.fullstack.station_manager.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class DepartureResponse {
+
+  private String routeUri;
+  private String routeName;
+  private String routeGroupId;
+  private int serviceId;
+  private String departureTime;
+  private long departureTimestamp;
+  private String shape;
+}
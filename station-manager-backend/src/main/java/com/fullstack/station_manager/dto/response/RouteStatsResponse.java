@@ -0,0 +1,26 @@
+package com.fullstack.station_manager.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Service frequency of one route at a station over the departures in the current snapshot.
+ * Headways are gaps between consecutive departures of the same service day; the gap from one
+ * day's last trip to the next day's first is not a headway. Fields other than the counts are null
+ * when the route has too few departures to define them.
+ */
+@Data
+@Builder
+public class RouteStatsResponse {
+
+  private String routeUri;
+  private String routeName;
+  private String routeGroupId;
+  private int departures;
+  private int serviceDays;
+  private Long firstDeparture;
+  private Long lastDeparture;
+  private Double meanHeadwayMinutes;
+  private Double maxHeadwayMinutes;
+  private Double departuresPerHour;
+}
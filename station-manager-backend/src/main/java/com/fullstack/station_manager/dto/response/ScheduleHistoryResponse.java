@@ -0,0 +1,24 @@
+package com.fullstack.station_manager.dto.response;
+
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * The last observed schedule of one route on one service day, with how often it was observed and
+ * how many distinct versions of it the refreshes saw.
+ */
+@Data
+@Builder
+public class ScheduleHistoryResponse {
+
+  private String route;
+  private String serviceDay;
+  private int departures;
+  private String firstDeparture;
+  private String lastDeparture;
+  private int observations;
+  private int versions;
+  private Instant firstObserved;
+  private Instant lastObserved;
+}
@@ -0,0 +1,23 @@
+package com.fullstack.station_manager.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * The schedule of one route over one period (a day, week or month of service days), from the
+ * last observed schedule of each day in it.
+ */
+@Data
+@Builder
+public class ScheduleTrendResponse {
+
+  private String route;
+  private String period;
+  private int serviceDays;
+  private double departures;
+  private int minDepartures;
+  private int maxDepartures;
+  private String firstDeparture;
+  private String lastDeparture;
+  private Double headwayMinutes;
+}
@@ -0,0 +1,38 @@
+package com.fullstack.station_manager.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.Stations;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class StationsDeltaResponse {
+
+  private String token;
+  private long version;
+  private long previousVersion;
+  private List<Stations> added;
+  private List<StationChange> changed;
+  private List<String> removed;
+
+  @Data
+  @Builder
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
+  public static class StationChange {
+
+    private String stationUri;
+    private String stationAgency;
+    private String stationName;
+    private List<StationRoute> routes;
+    private List<StationRoute> routesAdded;
+    private List<StationRoute> routesChanged;
+    private List<RouteKey> routesRemoved;
+  }
+
+  /** Identifies a route within its station. */
+  public record RouteKey(String routeGroupId, String uri) {}
+}
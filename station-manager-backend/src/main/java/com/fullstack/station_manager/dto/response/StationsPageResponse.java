@@ -0,0 +1,19 @@
+package com.fullstack.station_manager.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fullstack.station_manager.entity.Stations;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StationsPageResponse {
+
+  private List<Stations> items;
+  private Integer page;
+  private int size;
+  private Long total;
+  private String nextCursor;
+}
@@ -0,0 +1,38 @@
+package com.fullstack.station_manager.dto.response;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class StationsRefreshResponse {
+
+  private int stations;
+  private int batches;
+  private int inserted;
+  private int replaced;
+  private int patched;
+  private int routesPatched;
+  private int unchanged;
+  private int removed;
+  private int bucketsWritten;
+  private int bucketsRemoved;
+  private int touched;
+  private int bulkWrites;
+  private int failedFeeds;
+  private List<Feed> feeds;
+
+  @Data
+  @Builder
+  public static class Feed {
+
+    private String uri;
+    private boolean success;
+    private boolean notModified;
+    private int stations;
+    private int batches;
+    private long elapsedMillis;
+    private String error;
+  }
+}
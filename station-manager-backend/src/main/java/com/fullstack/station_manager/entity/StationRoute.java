@@ -0,0 +1,22 @@
+package com.fullstack.station_manager.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Transient;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StationRoute {
+
+  private String routeGroupId;
+  private String uri;
+  private String name;
+  private int stopTimesCount;
+
+  // Stored in StopTimesBucket documents, one per service day, not in the station document
+  @Transient private StopTimes stopTimes;
+}
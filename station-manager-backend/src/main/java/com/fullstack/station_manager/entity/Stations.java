@@ -1,10 +1,14 @@
 package com.fullstack.station_manager.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -12,18 +16,36 @@ import org.springframework.data.mongodb.core.mapping.Field;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Document(collection = "stations")
+@CompoundIndex(name = "station_agency_uri", def = "{ 'station_agency': 1, 'station_uri': 1 }")
 public class Stations {
 
+  @Indexed(unique = true)
   @Field(name = "station_uri")
   private String stationUri;
 
   @Field(name = "station_agency")
   private String stationAgency;
 
+  @Indexed
   @Field(name = "station_name")
   private String stationName;
 
+  // Normalized words of the name; q matches them by prefix, so the search can use the index
+  @JsonIgnore
+  @Indexed
+  @Field(name = "station_name_words")
+  private List<String> stationNameWords;
+
   @Field(name = "station_routes")
-  private List<Object> stationRoutes;
+  private List<StationRoute> stationRoutes;
+
+  @JsonIgnore
+  @Field(name = "station_hash")
+  private String stationHash;
+
+  @JsonIgnore
+  @Field(name = "route_hashes")
+  private List<String> routeHashes;
 }
@@ -0,0 +1,202 @@
+package com.fullstack.station_manager.entity;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Column-wise stop times of a single route. Timestamps and service ids live in primitive arrays;
+ * {@code departureTime} and {@code shape} are stored as codes into a per-route string dictionary.
+ * Instances are immutable and the arrays returned by the getters must not be modified.
+ *
+ * <p>Serialized to JSON as the familiar array of {@code {serviceId, departureTime,
+ * departureTimestamp, shape}} objects.
+ */
+@JsonSerialize(using = StopTimes.JsonWriter.class)
+public final class StopTimes {
+
+  public static final StopTimes EMPTY =
+      new StopTimes(new long[0], new int[0], new int[0], new int[0], new String[0]);
+
+  private final long[] departureTimestamps;
+  private final int[] serviceIds;
+  private final int[] departureTimeCodes;
+  private final int[] shapeCodes;
+  private final String[] dictionary;
+
+  public StopTimes(
+      long[] departureTimestamps,
+      int[] serviceIds,
+      int[] departureTimeCodes,
+      int[] shapeCodes,
+      String[] dictionary) {
+    int size = departureTimestamps.length;
+    if (serviceIds.length != size
+        || departureTimeCodes.length != size
+        || shapeCodes.length != size) {
+      throw new IllegalArgumentException("Stop time columns must have the same length");
+    }
+
+    this.departureTimestamps = departureTimestamps;
+    this.serviceIds = serviceIds;
+    this.departureTimeCodes = departureTimeCodes;
+    this.shapeCodes = shapeCodes;
+    this.dictionary = dictionary;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public int size() {
+    return departureTimestamps.length;
+  }
+
+  public long departureTimestamp(int index) {
+    return departureTimestamps[index];
+  }
+
+  public int serviceId(int index) {
+    return serviceIds[index];
+  }
+
+  public String departureTime(int index) {
+    return dictionary[departureTimeCodes[index]];
+  }
+
+  public String shape(int index) {
+    return dictionary[shapeCodes[index]];
+  }
+
+  public long[] getDepartureTimestamps() {
+    return departureTimestamps;
+  }
+
+  public int[] getServiceIds() {
+    return serviceIds;
+  }
+
+  public int[] getDepartureTimeCodes() {
+    return departureTimeCodes;
+  }
+
+  public int[] getShapeCodes() {
+    return shapeCodes;
+  }
+
+  public String[] getDictionary() {
+    return dictionary;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) return true;
+    if (!(other instanceof StopTimes that)) return false;
+
+    return Arrays.equals(departureTimestamps, that.departureTimestamps)
+        && Arrays.equals(serviceIds, that.serviceIds)
+        && Arrays.equals(departureTimeCodes, that.departureTimeCodes)
+        && Arrays.equals(shapeCodes, that.shapeCodes)
+        && Arrays.equals(dictionary, that.dictionary);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(departureTimestamps) * 31 + Arrays.hashCode(serviceIds);
+  }
+
+  @Override
+  public String toString() {
+    return "StopTimes(size=" + size() + ", dictionary=" + dictionary.length + ")";
+  }
+
+  public static final class Builder {
+
+    private long[] departureTimestamps = new long[16];
+    private int[] serviceIds = new int[16];
+    private int[] departureTimeCodes = new int[16];
+    private int[] shapeCodes = new int[16];
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] dictionary = new String[16];
+    private int size;
+
+    private Builder() {}
+
+    public Builder add(int serviceId, String departureTime, long departureTimestamp, String shape) {
+      if (size == departureTimestamps.length) {
+        int capacity = size * 2;
+        departureTimestamps = Arrays.copyOf(departureTimestamps, capacity);
+        serviceIds = Arrays.copyOf(serviceIds, capacity);
+        departureTimeCodes = Arrays.copyOf(departureTimeCodes, capacity);
+        shapeCodes = Arrays.copyOf(shapeCodes, capacity);
+      }
+
+      departureTimestamps[size] = departureTimestamp;
+      serviceIds[size] = serviceId;
+      departureTimeCodes[size] = encode(departureTime);
+      shapeCodes[size] = encode(shape);
+      size++;
+
+      return this;
+    }
+
+    public StopTimes build() {
+      if (size == 0) {
+        return EMPTY;
+      }
+
+      return new StopTimes(
+          Arrays.copyOf(departureTimestamps, size),
+          Arrays.copyOf(serviceIds, size),
+          Arrays.copyOf(departureTimeCodes, size),
+          Arrays.copyOf(shapeCodes, size),
+          Arrays.copyOf(dictionary, codes.size()));
+    }
+
+    private int encode(String value) {
+      var code = codes.get(value);
+      if (code != null) {
+        return code;
+      }
+
+      int next = codes.size();
+      if (next == dictionary.length) {
+        dictionary = Arrays.copyOf(dictionary, next * 2);
+      }
+
+      dictionary[next] = value;
+      codes.put(value, next);
+
+      return next;
+    }
+  }
+
+  public static final class JsonWriter extends StdSerializer<StopTimes> {
+
+    public JsonWriter() {
+      super(StopTimes.class);
+    }
+
+    @Override
+    public void serialize(StopTimes stopTimes, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      generator.writeStartArray(stopTimes, stopTimes.size());
+
+      for (int i = 0; i < stopTimes.size(); i++) {
+        generator.writeStartObject();
+        generator.writeNumberField("serviceId", stopTimes.serviceId(i));
+        generator.writeStringField("departureTime", stopTimes.departureTime(i));
+        generator.writeNumberField("departureTimestamp", stopTimes.departureTimestamp(i));
+        generator.writeStringField("shape", stopTimes.shape(i));
+        generator.writeEndObject();
+      }
+
+      generator.writeEndArray();
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.fullstack.station_manager.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Stop times of one route of a station on one service day. The station document only keeps the
+ * route list; {@code route} is the slot of the route in {@code station_routes}, since route keys
+ * are not unique within a station. {@code hash} is the content hash of the stop times, so a
+ * refresh rewrites only the buckets that changed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "station_stop_times")
+@CompoundIndex(
+    name = "station_day_route",
+    def = "{ 'station_uri': 1, 'service_day': 1, 'route': 1 }",
+    unique = true)
+public class StopTimesBucket {
+
+  @Id private String id;
+
+  @Field(name = "station_uri")
+  private String stationUri;
+
+  @Field(name = "route")
+  private int route;
+
+  // ISO date in the service time zone, so day ranges compare as strings
+  @Field(name = "service_day")
+  private String serviceDay;
+
+  @Field(name = "stop_times")
+  private StopTimes stopTimes;
+
+  @Field(name = "hash")
+  private String hash;
+}
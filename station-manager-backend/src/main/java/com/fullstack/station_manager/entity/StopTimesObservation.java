@@ -0,0 +1,46 @@
+package com.fullstack.station_manager.entity;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * What one refresh saw of one route of a station on one service day: the number of departures
+ * and the first and last departure, in seconds since the start of the service day. Stored in a
+ * time-series collection with {@code observed_at} as the time field and {@code meta} as the
+ * series key; the field names are short because every refresh appends one per route and day.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "stop_times_history")
+public class StopTimesObservation {
+
+  @Id private String id;
+
+  @Field(name = "observed_at")
+  private Instant observedAt;
+
+  @Field(name = "meta")
+  private Meta meta;
+
+  @Field(name = "day")
+  private String serviceDay;
+
+  @Field(name = "n")
+  private int departures;
+
+  @Field(name = "first")
+  private int firstDeparture;
+
+  @Field(name = "last")
+  private int lastDeparture;
+
+  public record Meta(String station, String route) {}
+}
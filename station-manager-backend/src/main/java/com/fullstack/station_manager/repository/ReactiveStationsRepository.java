@@ -0,0 +1,7 @@
+package com.fullstack.station_manager.repository;
+
+import com.fullstack.station_manager.entity.Stations;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReactiveStationsRepository
+    extends ReactiveMongoRepository<Stations, String>, ReactiveStationsRepositoryCustom {}
@@ -0,0 +1,23 @@
+package com.fullstack.station_manager.repository;
+
+import com.fullstack.station_manager.entity.Stations;
+import java.util.Collection;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveStationsRepositoryCustom {
+
+  Flux<Stations> search(
+      String name,
+      Collection<String> agencies,
+      Collection<String> fields,
+      String afterUri,
+      long skip,
+      int limit);
+
+  Mono<Long> countMatching(String name, Collection<String> agencies);
+
+  /** Cursor in {@code station_uri} order that fetches its next batch on demand. */
+  Flux<Stations> stream(
+      String name, Collection<String> agencies, Collection<String> fields, int batchSize);
+}
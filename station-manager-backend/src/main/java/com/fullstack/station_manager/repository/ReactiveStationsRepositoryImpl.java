@@ -0,0 +1,69 @@
+package com.fullstack.station_manager.repository;
+
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimesBucket;
+import com.fullstack.station_manager.utility.StopTimesBuckets;
+import java.util.Collection;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class ReactiveStationsRepositoryImpl implements ReactiveStationsRepositoryCustom {
+
+  private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+  @Override
+  public Flux<Stations> search(
+      String name,
+      Collection<String> agencies,
+      Collection<String> fields,
+      String afterUri,
+      long skip,
+      int limit) {
+    var stations =
+        reactiveMongoTemplate.find(
+            StationsQueries.search(name, agencies, fields, afterUri, skip, limit), Stations.class);
+
+    if (!StationsQueries.includesRoutes(fields)) {
+      return stations;
+    }
+
+    return stations.collectList().flatMapMany(this::loadStopTimes);
+  }
+
+  @Override
+  public Mono<Long> countMatching(String name, Collection<String> agencies) {
+    return reactiveMongoTemplate.count(StationsQueries.matching(name, agencies), Stations.class);
+  }
+
+  @Override
+  public Flux<Stations> stream(
+      String name, Collection<String> agencies, Collection<String> fields, int batchSize) {
+    var stations =
+        reactiveMongoTemplate.find(
+            StationsQueries.stream(name, agencies, fields, batchSize), Stations.class);
+
+    if (!StationsQueries.includesRoutes(fields)) {
+      return stations;
+    }
+
+    // Stop times are read per cursor batch, for the stations of that batch only
+    return stations.buffer(batchSize).concatMap(this::loadStopTimes);
+  }
+
+  private Flux<Stations> loadStopTimes(List<Stations> stations) {
+    if (stations.isEmpty()) {
+      return Flux.empty();
+    }
+
+    var uris = stations.stream().map(Stations::getStationUri).toList();
+
+    return reactiveMongoTemplate
+        .find(StationsQueries.buckets(uris), StopTimesBucket.class)
+        .collectList()
+        .flatMapIterable(buckets -> StopTimesBuckets.join(stations, buckets));
+  }
+}
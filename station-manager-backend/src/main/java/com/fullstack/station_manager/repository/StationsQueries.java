@@ -0,0 +1,107 @@
+package com.fullstack.station_manager.repository;
+
+import com.fullstack.station_manager.utility.SearchWords;
+import java.util.Collection;
+import java.util.Map;
+import java.util.regex.Pattern;
+import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/** Stations and stop time bucket queries shared by the blocking and the reactive repository. */
+@UtilityClass
+class StationsQueries {
+
+  // API field name -> stored field name, for the fields projection
+  private static final Map<String, String> PROJECTABLE_FIELDS =
+      Map.of(
+          "stationUri", "station_uri",
+          "stationAgency", "station_agency",
+          "stationName", "station_name",
+          "stationRoutes", "station_routes");
+
+  static Query search(
+      String name,
+      Collection<String> agencies,
+      Collection<String> fields,
+      String afterUri,
+      long skip,
+      int limit) {
+    var query = matching(name, agencies).with(Sort.by("station_uri")).limit(limit);
+
+    if (afterUri != null) {
+      query.addCriteria(Criteria.where("station_uri").gt(afterUri));
+    }
+
+    if (skip > 0) {
+      query.skip(skip);
+    }
+
+    project(query, fields);
+
+    return query;
+  }
+
+  static Query stream(
+      String name, Collection<String> agencies, Collection<String> fields, int batchSize) {
+    var query = matching(name, agencies).with(Sort.by("station_uri")).cursorBatchSize(batchSize);
+    project(query, fields);
+
+    return query;
+  }
+
+  static Query matching(String name, Collection<String> agencies) {
+    var criteria = new Criteria();
+
+    // Every query word must start a word of the name. Anchored, case-sensitive patterns on the
+    // normalized words are index range scans, unlike a case-insensitive substring regex.
+    var words = SearchWords.words(name);
+    if (!words.isEmpty()) {
+      criteria
+          .and("station_name_words")
+          .all(words.stream().map(word -> Pattern.compile("^" + Pattern.quote(word))).toList());
+    }
+
+    if (agencies != null && !agencies.isEmpty()) {
+      criteria.and("station_agency").in(agencies);
+    }
+
+    return new Query(criteria);
+  }
+
+  // Projections without the routes need no stop times, so no buckets are read for them
+  static boolean includesRoutes(Collection<String> fields) {
+    return fields == null || fields.isEmpty() || fields.contains("stationRoutes");
+  }
+
+  static Query buckets(Collection<String> stationUris) {
+    return new Query(Criteria.where("station_uri").in(stationUris));
+  }
+
+  static Query bucketFingerprints() {
+    var query = new Query();
+    query.fields().include("station_uri", "route", "service_day", "hash");
+
+    return query;
+  }
+
+  // Callers validate fields first; an unknown name here is a programming error
+  private static String storedField(String field) {
+    var stored = PROJECTABLE_FIELDS.get(field);
+    if (stored == null) {
+      throw new IllegalArgumentException("Unknown stations field " + field);
+    }
+
+    return stored;
+  }
+
+  private static void project(Query query, Collection<String> fields) {
+    if (fields != null && !fields.isEmpty()) {
+      query.fields().include("station_uri");
+      fields.forEach(field -> query.fields().include(storedField(field)));
+    } else {
+      query.fields().exclude("station_hash", "route_hashes", "station_name_words");
+    }
+  }
+}
@@ -1,6 +1,13 @@
 package com.fullstack.station_manager.repository;
 
 import com.fullstack.station_manager.entity.Stations;
+import java.util.List;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
-public interface StationsRepository extends MongoRepository<Stations, String> {}
+public interface StationsRepository
+    extends MongoRepository<Stations, String>, StationsRepositoryCustom {
+
+  @Query(value = "{}", fields = "{ 'station_uri': 1, 'station_hash': 1, 'route_hashes': 1 }")
+  List<Stations> findAllFingerprints();
+}
@@ -0,0 +1,36 @@
+package com.fullstack.station_manager.repository;
+
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimesBucket;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface StationsRepositoryCustom {
+
+  List<Stations> search(
+      String name,
+      Collection<String> agencies,
+      Collection<String> fields,
+      String afterUri,
+      long skip,
+      int limit);
+
+  long countMatching(String name, Collection<String> agencies);
+
+  /**
+   * Cursor-backed stream in {@code station_uri} order; the caller must close it. Stop times are
+   * read per cursor batch, for the stations of that batch only.
+   */
+  Stream<Stations> stream(
+      String name, Collection<String> agencies, Collection<String> fields, int batchSize);
+
+  /** Keys and content hashes of every stop time bucket, without the stop times. */
+  List<StopTimesBucket> findBucketFingerprints();
+
+  /**
+   * Returns copies of {@code stations} with the stop times of every route, read from the buckets
+   * of just these stations.
+   */
+  List<Stations> loadStopTimes(List<Stations> stations);
+}
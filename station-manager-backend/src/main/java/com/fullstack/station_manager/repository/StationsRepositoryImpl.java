@@ -0,0 +1,101 @@
+package com.fullstack.station_manager.repository;
+
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimesBucket;
+import com.fullstack.station_manager.utility.StopTimesBuckets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@RequiredArgsConstructor
+public class StationsRepositoryImpl implements StationsRepositoryCustom {
+
+  private final MongoTemplate mongoTemplate;
+
+  @Override
+  public List<Stations> search(
+      String name,
+      Collection<String> agencies,
+      Collection<String> fields,
+      String afterUri,
+      long skip,
+      int limit) {
+    var stations =
+        mongoTemplate.find(
+            StationsQueries.search(name, agencies, fields, afterUri, skip, limit), Stations.class);
+
+    return StationsQueries.includesRoutes(fields) ? loadStopTimes(stations) : stations;
+  }
+
+  @Override
+  public long countMatching(String name, Collection<String> agencies) {
+    return mongoTemplate.count(StationsQueries.matching(name, agencies), Stations.class);
+  }
+
+  @Override
+  public Stream<Stations> stream(
+      String name, Collection<String> agencies, Collection<String> fields, int batchSize) {
+    var stations =
+        mongoTemplate.stream(
+            StationsQueries.stream(name, agencies, fields, batchSize), Stations.class);
+
+    if (!StationsQueries.includesRoutes(fields)) {
+      return stations;
+    }
+
+    var batches = batches(stations.iterator(), batchSize);
+
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED), false)
+        .flatMap(batch -> loadStopTimes(batch).stream())
+        .onClose(stations::close);
+  }
+
+  @Override
+  public List<StopTimesBucket> findBucketFingerprints() {
+    return mongoTemplate.find(StationsQueries.bucketFingerprints(), StopTimesBucket.class);
+  }
+
+  @Override
+  public List<Stations> loadStopTimes(List<Stations> stations) {
+    if (stations.isEmpty()) {
+      return stations;
+    }
+
+    var uris = stations.stream().map(Stations::getStationUri).toList();
+    var buckets = mongoTemplate.find(StationsQueries.buckets(uris), StopTimesBucket.class);
+
+    return StopTimesBuckets.join(stations, buckets);
+  }
+
+  private static Iterator<List<Stations>> batches(Iterator<Stations> stations, int batchSize) {
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return stations.hasNext();
+      }
+
+      @Override
+      public List<Stations> next() {
+        if (!stations.hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        var batch = new ArrayList<Stations>(batchSize);
+        while (batch.size() < batchSize && stations.hasNext()) {
+          batch.add(stations.next());
+        }
+
+        return batch;
+      }
+    };
+  }
+}
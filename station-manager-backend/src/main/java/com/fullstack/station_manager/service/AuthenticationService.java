@@ -1,18 +1,20 @@
 package com.fullstack.station_manager.service;
 
 import com.fullstack.station_manager.dto.request.LoginRequest;
+import com.fullstack.station_manager.dto.request.RefreshTokenRequest;
 import com.fullstack.station_manager.dto.request.RegisterRequest;
 import com.fullstack.station_manager.dto.response.JwtResponse;
 import com.fullstack.station_manager.dto.response.SuccessResponse;
 import com.fullstack.station_manager.entity.Users;
 import com.fullstack.station_manager.repository.UsersRepository;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.util.HashMap;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -23,9 +25,12 @@ import org.springframework.web.server.ResponseStatusException;
 public class AuthenticationService {
 
   private final PasswordEncoder passwordEncoder;
-  private final AuthenticationManager authenticationManager;
+  private final PasswordVerificationService passwordVerificationService;
   private final JwtService jwtService;
   private final UsersRepository usersRepository;
+  private final RefreshTokenStore refreshTokenStore;
+  private final JwtAuthenticationCache jwtAuthenticationCache;
+  private final MeterRegistry meterRegistry;
 
   public SuccessResponse registerUser(RegisterRequest request) {
     if (Optional.ofNullable(usersRepository.findByUsername(request.getUsername())).isPresent()) {
@@ -44,29 +49,97 @@ public class AuthenticationService {
     return SuccessResponse.builder().message("User registered successfully").data(newUser).build();
   }
 
+  // One lookup and one BCrypt check per login; the AuthenticationManager would repeat both
   public SuccessResponse loginUser(LoginRequest request) {
+    var sample = Timer.start(meterRegistry);
+    var outcome = "error";
+
+    try {
+      var response = login(request);
+      outcome = "success";
+
+      return response;
+    } catch (UsernameNotFoundException e) {
+      outcome = "unknown_user";
+      throw e;
+    } catch (ResponseStatusException e) {
+      outcome = e.getStatusCode().value() == 401 ? "bad_credentials" : "rejected";
+      throw e;
+    } finally {
+      sample.stop(meterRegistry.timer("auth.login", "outcome", outcome));
+    }
+  }
+
+  private SuccessResponse login(LoginRequest request) {
     var user =
         Optional.ofNullable(usersRepository.findByUsername(request.getUsername()))
             .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-    if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+    // The checks of DaoAuthenticationProvider, in its order: account status before BCrypt, so a
+    // rejected account costs no verification, and expired credentials after it
+    if (!user.isEnabled() || !user.isAccountNonLocked() || !user.isAccountNonExpired()) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication failed");
+    }
+
+    if (!passwordVerificationService.matches(request.getPassword(), user.getPassword())) {
       throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Wrong password");
     }
 
-    try {
-      authenticationManager.authenticate(
-          new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
-    } catch (AuthenticationException e) {
-      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication failed");
+    if (!user.isCredentialsNonExpired()) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Credentials expired");
     }
 
     var token = jwtService.generateToken(user);
     var refreshToken = jwtService.generateRefreshToken(new HashMap<>(), user);
 
-    usersRepository.updateRefreshToken(request.getUsername(), refreshToken);
+    refreshTokenStore.save(user.getUsername(), refreshToken);
 
     JwtResponse response = JwtResponse.builder().token(token).refreshToken(refreshToken).build();
 
     return SuccessResponse.builder().message("User logged in successfully").data(response).build();
   }
+
+  public SuccessResponse refreshToken(RefreshTokenRequest request) {
+    var outcome = "invalid";
+
+    try {
+      var response = refresh(request.getRefreshToken());
+      outcome = "success";
+
+      return response;
+    } finally {
+      meterRegistry.counter("auth.refresh", "outcome", outcome).increment();
+    }
+  }
+
+  private SuccessResponse refresh(String refreshToken) {
+    if (refreshToken == null || refreshToken.isBlank()) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Refresh token is required");
+    }
+
+    JwtService.VerifiedToken verified;
+    UserDetails user;
+    try {
+      verified = jwtService.verify(refreshToken);
+      user = jwtAuthenticationCache.loadUser(verified.username());
+    } catch (JwtException | UsernameNotFoundException e) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+    }
+
+    if (!verified.refresh() || verified.isExpired()) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+    }
+
+    // Rotation: the presented token must be the latest one issued, and is replaced by a new one
+    var token = jwtService.generateToken(user);
+    var rotated = jwtService.generateRefreshToken(new HashMap<>(), user);
+
+    if (!refreshTokenStore.rotate(user.getUsername(), refreshToken, rotated)) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token was revoked");
+    }
+
+    JwtResponse response = JwtResponse.builder().token(token).refreshToken(rotated).build();
+
+    return SuccessResponse.builder().message("Token refreshed successfully").data(response).build();
+  }
 }
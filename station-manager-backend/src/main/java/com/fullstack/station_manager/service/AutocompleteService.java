@@ -0,0 +1,491 @@
+package com.fullstack.station_manager.service;
+
+import com.fullstack.station_manager.dto.response.AutocompleteResponse;
+import com.fullstack.station_manager.dto.response.SuccessResponse;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.utility.SearchWords;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Station and route name autocomplete over an index built from each stations snapshot. Every
+ * word of a name is a key in a sorted term array, so prefix matches are a binary search plus a
+ * bounded range scan. When prefixes find fewer than {@code limit} hits, words sharing bigrams
+ * with the last typed word are checked with a bounded edit distance, which tolerates typos such
+ * as "fnich". Route names served by many stations are suggested once.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AutocompleteService {
+
+  private static final int DEFAULT_LIMIT = 10;
+  private static final int MAX_LIMIT = 50;
+  private static final int MAX_QUERY_LENGTH = 64;
+  private static final int MAX_PREFIX_SCAN = 2_000;
+  private static final int MAX_POSTINGS_SCAN = 20_000;
+
+  private final StationsSnapshotService stationsSnapshotService;
+
+  private final AtomicReference<Index> index = new AtomicReference<>(Index.EMPTY);
+  private final ReentrantLock buildLock = new ReentrantLock();
+
+  @EventListener
+  public void onSnapshotPublished(StationsSnapshotService.Published event) {
+    update(event.current());
+  }
+
+  public SuccessResponse autocomplete(String query, Integer limit) {
+    if (query == null || query.isBlank()) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Query must not be empty");
+    }
+
+    var normalized =
+        SearchWords.normalize(query.substring(0, Math.min(query.length(), MAX_QUERY_LENGTH)));
+    int max = limit != null ? Math.clamp(limit, 1, MAX_LIMIT) : DEFAULT_LIMIT;
+
+    return SuccessResponse.builder()
+        .message("Successfully fetched suggestions")
+        .data(current().search(normalized, max))
+        .build();
+  }
+
+  private Index current() {
+    var snapshot = stationsSnapshotService.current();
+    var current = index.get();
+
+    return current.version >= snapshot.version() ? current : update(snapshot);
+  }
+
+  private Index update(StationsSnapshotService.Snapshot snapshot) {
+    buildLock.lock();
+    try {
+      var previous = index.get();
+      if (previous.version >= snapshot.version()) {
+        return previous;
+      }
+
+      var next = Index.build(snapshot.version(), snapshot.stations());
+      index.set(next);
+      log.info(
+          "AutocompleteService: Indexed snapshot v{} with {} names and {} words",
+          snapshot.version(),
+          next.entries.length,
+          next.words.length);
+
+      return next;
+    } finally {
+      buildLock.unlock();
+    }
+  }
+
+  private record Entry(
+      String text,
+      String normalized,
+      String type,
+      String stationUri,
+      String stationName,
+      String routeUri) {
+
+    String key() {
+      return "station".equals(type) ? "station:" + stationUri : "route:" + normalized;
+    }
+
+    AutocompleteResponse toResponse(int score) {
+      return AutocompleteResponse.builder()
+          .text(text)
+          .type(type)
+          .stationUri(stationUri)
+          .stationName(stationName)
+          .routeUri(routeUri)
+          .score(score)
+          .build();
+    }
+  }
+
+  private static final class Index {
+
+    static final Index EMPTY =
+        new Index(
+            0,
+            new Entry[0],
+            new String[0],
+            new int[0],
+            new int[0],
+            new String[0],
+            new int[1],
+            Map.of());
+
+    private final long version;
+    private final Entry[] entries;
+
+    // Sorted words of every name, with the owning entry and the word position inside the name
+    private final String[] terms;
+    private final int[] termEntries;
+    private final int[] termPositions;
+
+    // Distinct words; the terms of words[i] are terms[wordStarts[i] .. wordStarts[i + 1])
+    private final String[] words;
+    private final int[] wordStarts;
+    private final Map<String, int[]> bigrams;
+
+    private Index(
+        long version,
+        Entry[] entries,
+        String[] terms,
+        int[] termEntries,
+        int[] termPositions,
+        String[] words,
+        int[] wordStarts,
+        Map<String, int[]> bigrams) {
+      this.version = version;
+      this.entries = entries;
+      this.terms = terms;
+      this.termEntries = termEntries;
+      this.termPositions = termPositions;
+      this.words = words;
+      this.wordStarts = wordStarts;
+      this.bigrams = bigrams;
+    }
+
+    static Index build(long version, List<Stations> stations) {
+      var entries = new ArrayList<Entry>();
+
+      for (var station : stations) {
+        if (station.getStationName() != null && !station.getStationName().isBlank()) {
+          entries.add(
+              new Entry(
+                  station.getStationName(),
+                  SearchWords.normalize(station.getStationName()),
+                  "station",
+                  station.getStationUri(),
+                  station.getStationName(),
+                  null));
+        }
+
+        var routeNames = new HashSet<String>();
+        if (station.getStationRoutes() == null) {
+          continue;
+        }
+
+        for (var route : station.getStationRoutes()) {
+          var name = route.getName();
+          if (name != null && !name.isBlank() && routeNames.add(name)) {
+            entries.add(
+                new Entry(
+                    name,
+                    SearchWords.normalize(name),
+                    "route",
+                    station.getStationUri(),
+                    station.getStationName(),
+                    route.getUri()));
+          }
+        }
+      }
+
+      record Term(String word, int entry, int position) {}
+      var terms = new ArrayList<Term>();
+
+      for (int e = 0; e < entries.size(); e++) {
+        var nameWords = entries.get(e).normalized().split(" ");
+        for (int p = 0; p < nameWords.length; p++) {
+          if (!nameWords[p].isEmpty()) {
+            terms.add(new Term(nameWords[p], e, p));
+          }
+        }
+      }
+
+      terms.sort((left, right) -> left.word().compareTo(right.word()));
+
+      var words = new ArrayList<String>();
+      var wordStarts = new ArrayList<Integer>();
+      var bigramLists = new HashMap<String, List<Integer>>();
+
+      for (int t = 0; t < terms.size(); t++) {
+        var word = terms.get(t).word();
+        if (t > 0 && word.equals(terms.get(t - 1).word())) {
+          continue;
+        }
+
+        for (var bigram : bigrams(word)) {
+          bigramLists.computeIfAbsent(bigram, key -> new ArrayList<>()).add(words.size());
+        }
+
+        words.add(word);
+        wordStarts.add(t);
+      }
+      wordStarts.add(terms.size());
+
+      var bigrams = new HashMap<String, int[]>(bigramLists.size() * 2);
+      bigramLists.forEach(
+          (bigram, postings) ->
+              bigrams.put(bigram, postings.stream().mapToInt(Integer::intValue).toArray()));
+
+      return new Index(
+          version,
+          entries.toArray(Entry[]::new),
+          terms.stream().map(Term::word).toArray(String[]::new),
+          terms.stream().mapToInt(Term::entry).toArray(),
+          terms.stream().mapToInt(Term::position).toArray(),
+          words.toArray(String[]::new),
+          wordStarts.stream().mapToInt(Integer::intValue).toArray(),
+          Map.copyOf(bigrams));
+    }
+
+    List<AutocompleteResponse> search(String query, int limit) {
+      if (query.isEmpty() || entries.length == 0) {
+        return List.of();
+      }
+
+      var scores = new HashMap<Integer, Integer>();
+      var queryWords = query.split(" ");
+      var lastWord = queryWords[queryWords.length - 1];
+
+      // Prefix matches on the last typed word; earlier words must also start words of the name
+      int start = lowerBound(terms, lastWord);
+      int end = Math.min(terms.length, start + MAX_PREFIX_SCAN);
+      for (int i = start; i < end && terms[i].startsWith(lastWord); i++) {
+        var entry = entries[termEntries[i]];
+        if (containsLeadingWords(entry.normalized(), queryWords)) {
+          int score = prefixScore(entry, query, termPositions[i]);
+          scores.merge(termEntries[i], score, Math::max);
+        }
+      }
+
+      if (scores.size() < limit) {
+        addFuzzyMatches(queryWords, scores);
+      }
+
+      return top(scores, limit);
+    }
+
+    private List<AutocompleteResponse> top(Map<Integer, Integer> scores, int limit) {
+      var best = new HashMap<String, int[]>();
+      scores.forEach(
+          (entry, score) ->
+              best.merge(
+                  entries[entry].key(),
+                  new int[] {entry, score},
+                  (left, right) -> left[1] >= right[1] ? left : right));
+
+      var top =
+          new PriorityQueue<int[]>(
+              limit + 1,
+              (left, right) ->
+                  left[1] != right[1]
+                      ? Integer.compare(left[1], right[1])
+                      : entries[right[0]].text().compareTo(entries[left[0]].text()));
+
+      for (var hit : best.values()) {
+        top.add(hit);
+        if (top.size() > limit) {
+          top.poll();
+        }
+      }
+
+      var results = new AutocompleteResponse[top.size()];
+      for (int i = results.length - 1; i >= 0; i--) {
+        var hit = top.poll();
+        results[i] = entries[hit[0]].toResponse(hit[1]);
+      }
+
+      return Arrays.asList(results);
+    }
+
+    private void addFuzzyMatches(String[] queryWords, Map<Integer, Integer> scores) {
+      var word = queryWords[queryWords.length - 1];
+      int maxEdits = word.length() >= 7 ? 2 : word.length() >= 4 ? 1 : 0;
+      if (maxEdits == 0) {
+        return;
+      }
+
+      var queryBigrams = bigrams(word);
+      var shared = new HashMap<Integer, Integer>();
+      int scanned = 0;
+
+      for (var bigram : queryBigrams) {
+        var postings = bigrams.get(bigram);
+        if (postings == null) {
+          continue;
+        }
+
+        for (int candidate : postings) {
+          shared.merge(candidate, 1, Integer::sum);
+        }
+
+        scanned += postings.length;
+        if (scanned > MAX_POSTINGS_SCAN) {
+          break;
+        }
+      }
+
+      // A single edit breaks at most three bigrams (a transposition), so weaker candidates are out
+      int minShared = Math.max(1, queryBigrams.size() - 3 * maxEdits);
+
+      shared.forEach(
+          (candidate, count) -> {
+            if (count < minShared) {
+              return;
+            }
+
+            int distance = prefixDistance(word, words[candidate], maxEdits);
+            if (distance > maxEdits) {
+              return;
+            }
+
+            int start = wordStarts[candidate];
+            int end = Math.min(wordStarts[candidate + 1], start + MAX_PREFIX_SCAN);
+            for (int t = start; t < end; t++) {
+              var entry = entries[termEntries[t]];
+              if (containsLeadingWords(entry.normalized(), queryWords)) {
+                int score = 400 - distance * 100 - Math.min(entry.normalized().length(), 100);
+                scores.merge(termEntries[t], score, Math::max);
+              }
+            }
+          });
+    }
+
+    // Edit distance between the query word and the closest prefix of the candidate word
+    private static int prefixDistance(String query, String candidate, int maxEdits) {
+      int best = maxEdits + 1;
+
+      for (int length = query.length() - maxEdits; length <= query.length() + maxEdits; length++) {
+        if (length > 0 && length <= candidate.length()) {
+          best = Math.min(best, editDistance(query, candidate.substring(0, length), maxEdits));
+        }
+      }
+
+      return best;
+    }
+
+    // Optimal string alignment distance (Levenshtein plus adjacent transpositions), cut off early
+    private static int editDistance(String left, String right, int maxEdits) {
+      if (Math.abs(left.length() - right.length()) > maxEdits) {
+        return maxEdits + 1;
+      }
+
+      var previousPrevious = new int[right.length() + 1];
+      var previous = new int[right.length() + 1];
+      var current = new int[right.length() + 1];
+      for (int j = 0; j <= right.length(); j++) {
+        previous[j] = j;
+      }
+
+      for (int i = 1; i <= left.length(); i++) {
+        current[0] = i;
+        int rowMinimum = current[0];
+
+        for (int j = 1; j <= right.length(); j++) {
+          int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+          current[j] =
+              Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+
+          if (i > 1
+              && j > 1
+              && left.charAt(i - 1) == right.charAt(j - 2)
+              && left.charAt(i - 2) == right.charAt(j - 1)) {
+            current[j] = Math.min(current[j], previousPrevious[j - 2] + 1);
+          }
+
+          rowMinimum = Math.min(rowMinimum, current[j]);
+        }
+
+        if (rowMinimum > maxEdits) {
+          return maxEdits + 1;
+        }
+
+        var recycled = previousPrevious;
+        previousPrevious = previous;
+        previous = current;
+        current = recycled;
+      }
+
+      return previous[right.length()];
+    }
+
+    private static int lowerBound(String[] sorted, String prefix) {
+      int low = 0;
+      int high = sorted.length;
+
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (sorted[middle].compareTo(prefix) < 0) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+
+      return low;
+    }
+
+    private static int prefixScore(Entry entry, String query, int wordPosition) {
+      var name = entry.normalized();
+      int score;
+
+      if (name.equals(query)) {
+        score = 1_000;
+      } else if (name.startsWith(query)) {
+        score = 800;
+      } else {
+        score = 600 - Math.min(wordPosition, 10) * 10;
+      }
+
+      // Prefer shorter names and stations over routes with the same name quality
+      score -= Math.min(name.length(), 100);
+      return "station".equals(entry.type()) ? score + 5 : score;
+    }
+
+    // Every query word before the last must be, or start, a word of the name
+    private static boolean containsLeadingWords(String name, String[] queryWords) {
+      if (queryWords.length == 1) {
+        return true;
+      }
+
+      var nameWords = name.split(" ");
+      for (int i = 0; i < queryWords.length - 1; i++) {
+        if (!startsAnyWord(nameWords, queryWords[i])) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    private static boolean startsAnyWord(String[] nameWords, String prefix) {
+      for (var word : nameWords) {
+        if (word.startsWith(prefix)) {
+          return true;
+        }
+      }
+
+      return false;
+    }
+
+    // Padded at the start only: a typed word is matched against word prefixes, and an end bigram
+    // would only be shared with words ending the same way
+    private static HashSet<String> bigrams(String word) {
+      var padded = " " + word;
+      var bigrams = new HashSet<String>();
+
+      for (int i = 0; i + 2 <= padded.length(); i++) {
+        bigrams.add(padded.substring(i, i + 2));
+      }
+
+      return bigrams;
+    }
+  }
+}
@@ -0,0 +1,250 @@
+package com.fullstack.station_manager.service;
+
+import com.fullstack.station_manager.dto.response.DepartureResponse;
+import com.fullstack.station_manager.dto.response.SuccessResponse;
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimes;
+import com.fullstack.station_manager.utility.PrimitiveSort;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Answers "what leaves this station next" from an in-memory index. For every station the
+ * departure timestamps of all routes are merged into one sorted {@code long[]}, with a sorted
+ * column per route for route-filtered lookups; both are searched with a binary search. The index
+ * follows the stations snapshot and only re-indexes stations whose content hash changed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeparturesService {
+
+  private static final int DEFAULT_LIMIT = 10;
+  private static final int MAX_LIMIT = 100;
+
+  private final StationsSnapshotService stationsSnapshotService;
+
+  private final AtomicReference<Index> index = new AtomicReference<>(Index.EMPTY);
+  private final ReentrantLock buildLock = new ReentrantLock();
+
+  @EventListener
+  public void onSnapshotPublished(StationsSnapshotService.Published event) {
+    update(event.current());
+  }
+
+  public SuccessResponse nextDepartures(
+      String stationUri, Long after, Integer limit, String route) {
+    var departures = current().stations().get(stationUri);
+    if (departures == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Station not found");
+    }
+
+    long from = after != null ? after : System.currentTimeMillis() / 1000;
+    int max = limit != null ? Math.clamp(limit, 1, MAX_LIMIT) : DEFAULT_LIMIT;
+    var items = route != null ? departures.next(route, from, max) : departures.next(from, max);
+
+    return SuccessResponse.builder()
+        .message("Successfully fetched next departures")
+        .data(items)
+        .build();
+  }
+
+  private Index current() {
+    var snapshot = stationsSnapshotService.current();
+    var current = index.get();
+
+    return current.version() >= snapshot.version() ? current : update(snapshot);
+  }
+
+  private Index update(StationsSnapshotService.Snapshot snapshot) {
+    buildLock.lock();
+    try {
+      var previous = index.get();
+      if (previous.version() >= snapshot.version()) {
+        return previous;
+      }
+
+      var stations = new HashMap<String, StationDepartures>(snapshot.stations().size() * 2);
+      int rebuilt = 0;
+
+      for (var station : snapshot.stations()) {
+        var existing = previous.stations().get(station.getStationUri());
+
+        if (existing != null
+            && station.getStationHash() != null
+            && station.getStationHash().equals(existing.hash)) {
+          stations.put(station.getStationUri(), existing);
+        } else {
+          stations.put(station.getStationUri(), StationDepartures.of(station));
+          rebuilt++;
+        }
+      }
+
+      var next = new Index(snapshot.version(), Map.copyOf(stations));
+      index.set(next);
+      log.info(
+          "DeparturesService: Indexed snapshot v{}, {} of {} stations rebuilt",
+          snapshot.version(),
+          rebuilt,
+          stations.size());
+
+      return next;
+    } finally {
+      buildLock.unlock();
+    }
+  }
+
+  private record Index(long version, Map<String, StationDepartures> stations) {
+
+    static final Index EMPTY = new Index(0, Map.of());
+  }
+
+  private static final class StationDepartures {
+
+    private final String hash;
+    private final StationRoute[] routes;
+    private final int[] routeOffsets;
+
+    // All routes merged: sorted timestamps and the ordinal (routeOffsets[route] + stop) of each
+    private final long[] timestamps;
+    private final int[] ordinals;
+
+    // Per route: sorted timestamps and the stop index of each
+    private final long[][] routeTimestamps;
+    private final int[][] routeStops;
+    private final Map<String, int[]> routesByUri;
+
+    private StationDepartures(Stations station) {
+      var stationRoutes =
+          Objects.requireNonNullElse(station.getStationRoutes(), List.<StationRoute>of());
+
+      this.hash = station.getStationHash();
+      this.routes = stationRoutes.toArray(StationRoute[]::new);
+      this.routeOffsets = new int[routes.length + 1];
+      this.routeTimestamps = new long[routes.length][];
+      this.routeStops = new int[routes.length][];
+
+      var byUri = new HashMap<String, List<Integer>>();
+      for (int r = 0; r < routes.length; r++) {
+        var stopTimes = stopTimes(routes[r]);
+        routeOffsets[r + 1] = routeOffsets[r] + stopTimes.size();
+
+        var keys = stopTimes.getDepartureTimestamps().clone();
+        var stops = new int[keys.length];
+        Arrays.setAll(stops, i -> i);
+        PrimitiveSort.sortByKey(keys, stops);
+
+        routeTimestamps[r] = keys;
+        routeStops[r] = stops;
+        byUri.computeIfAbsent(routes[r].getUri(), uri -> new ArrayList<>()).add(r);
+      }
+
+      this.timestamps = new long[routeOffsets[routes.length]];
+      this.ordinals = new int[timestamps.length];
+      for (int r = 0; r < routes.length; r++) {
+        var source = stopTimes(routes[r]).getDepartureTimestamps();
+        System.arraycopy(source, 0, timestamps, routeOffsets[r], source.length);
+      }
+      Arrays.setAll(ordinals, i -> i);
+      PrimitiveSort.sortByKey(timestamps, ordinals);
+
+      var uris = new HashMap<String, int[]>();
+      byUri.forEach(
+          (uri, indexes) ->
+              uris.put(uri, indexes.stream().mapToInt(Integer::intValue).toArray()));
+      this.routesByUri = uris;
+    }
+
+    static StationDepartures of(Stations station) {
+      return new StationDepartures(station);
+    }
+
+    List<DepartureResponse> next(long after, int limit) {
+      var items = new ArrayList<DepartureResponse>(limit);
+
+      for (int i = PrimitiveSort.lowerBound(timestamps, after);
+          i < timestamps.length && items.size() < limit;
+          i++) {
+        int ordinal = ordinals[i];
+        int route = routeOf(ordinal);
+        items.add(departure(route, ordinal - routeOffsets[route]));
+      }
+
+      return items;
+    }
+
+    List<DepartureResponse> next(String routeUri, long after, int limit) {
+      var matching = routesByUri.get(routeUri);
+      if (matching == null) {
+        return List.of();
+      }
+
+      var items = new ArrayList<DepartureResponse>();
+      for (int route : matching) {
+        var keys = routeTimestamps[route];
+        int start = PrimitiveSort.lowerBound(keys, after);
+        int end = Math.min(keys.length, start + limit);
+
+        for (int i = start; i < end; i++) {
+          items.add(departure(route, routeStops[route][i]));
+        }
+      }
+
+      if (matching.length > 1) {
+        items.sort(Comparator.comparingLong(DepartureResponse::getDepartureTimestamp));
+      }
+
+      return items.size() > limit ? items.subList(0, limit) : items;
+    }
+
+    // Last route whose offset is <= ordinal; empty routes share their successor's offset
+    private int routeOf(int ordinal) {
+      int low = 0;
+      int high = routes.length - 1;
+
+      while (low < high) {
+        int middle = (low + high + 1) >>> 1;
+        if (routeOffsets[middle] <= ordinal) {
+          low = middle;
+        } else {
+          high = middle - 1;
+        }
+      }
+
+      return low;
+    }
+
+    private DepartureResponse departure(int route, int stop) {
+      var stationRoute = routes[route];
+      var stopTimes = stopTimes(stationRoute);
+
+      return DepartureResponse.builder()
+          .routeUri(stationRoute.getUri())
+          .routeName(stationRoute.getName())
+          .routeGroupId(stationRoute.getRouteGroupId())
+          .serviceId(stopTimes.serviceId(stop))
+          .departureTime(stopTimes.departureTime(stop))
+          .departureTimestamp(stopTimes.departureTimestamp(stop))
+          .shape(stopTimes.shape(stop))
+          .build();
+    }
+
+    private static StopTimes stopTimes(StationRoute route) {
+      return Objects.requireNonNullElse(route.getStopTimes(), StopTimes.EMPTY);
+    }
+  }
+}
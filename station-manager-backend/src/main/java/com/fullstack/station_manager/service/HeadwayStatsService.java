@@ -0,0 +1,286 @@
+package com.fullstack.station_manager.service;
+
+import com.fullstack.station_manager.dto.response.RouteStatsResponse;
+import com.fullstack.station_manager.dto.response.SuccessResponse;
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimes;
+import com.fullstack.station_manager.utility.ServiceDays;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Per-route headway and service-frequency stats for every station, cached per stations snapshot
+ * version. After each snapshot only stations whose content hash changed are recomputed, split
+ * across the fork-join common pool. Each route's departure timestamps are merged into one sorted
+ * {@code long[]} and scanned once, with service days resolved by {@link ServiceDays}.
+ */
+@Slf4j
+@Service
+public class HeadwayStatsService {
+
+  // Stations per fork-join leaf; a large station alone can hold tens of thousands of stop times
+  private static final int STATIONS_PER_TASK = 4;
+
+  private final StationsSnapshotService stationsSnapshotService;
+  private final ZoneId serviceZone;
+
+  private final AtomicReference<Index> index = new AtomicReference<>(Index.EMPTY);
+  private final ReentrantLock buildLock = new ReentrantLock();
+
+  public HeadwayStatsService(
+      StationsSnapshotService stationsSnapshotService,
+      @Value("${station.service-zone:America/Toronto}") ZoneId serviceZone) {
+    this.stationsSnapshotService = stationsSnapshotService;
+    this.serviceZone = serviceZone;
+  }
+
+  @EventListener
+  public void onSnapshotPublished(StationsSnapshotService.Published event) {
+    update(event.current());
+  }
+
+  public SuccessResponse stats(String stationUri, String route) {
+    var stats = current().stations().get(stationUri);
+    if (stats == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Station not found");
+    }
+
+    var routes =
+        route != null
+            ? stats.routes().stream().filter(item -> route.equals(item.getRouteUri())).toList()
+            : stats.routes();
+
+    return SuccessResponse.builder()
+        .message("Successfully fetched route stats")
+        .data(routes)
+        .build();
+  }
+
+  private Index current() {
+    var snapshot = stationsSnapshotService.current();
+    var current = index.get();
+
+    return current.version() >= snapshot.version() ? current : update(snapshot);
+  }
+
+  private Index update(StationsSnapshotService.Snapshot snapshot) {
+    buildLock.lock();
+    try {
+      var previous = index.get();
+      if (previous.version() >= snapshot.version()) {
+        return previous;
+      }
+
+      var stations = snapshot.stations().toArray(Stations[]::new);
+      var results = new StationStats[stations.length];
+      var changed = new int[stations.length];
+      int rebuilt = 0;
+
+      for (int i = 0; i < stations.length; i++) {
+        var existing = previous.stations().get(stations[i].getStationUri());
+
+        if (existing != null
+            && stations[i].getStationHash() != null
+            && stations[i].getStationHash().equals(existing.hash())) {
+          results[i] = existing;
+        } else {
+          changed[rebuilt++] = i;
+        }
+      }
+
+      long started = System.nanoTime();
+      if (rebuilt > 0) {
+        ForkJoinPool.commonPool()
+            .invoke(new StatsTask(stations, results, changed, 0, rebuilt, serviceZone));
+      }
+
+      var byUri = new HashMap<String, StationStats>(stations.length * 2);
+      for (int i = 0; i < stations.length; i++) {
+        byUri.put(stations[i].getStationUri(), results[i]);
+      }
+
+      var next = new Index(snapshot.version(), Map.copyOf(byUri));
+      index.set(next);
+      log.info(
+          "HeadwayStatsService: Computed snapshot v{}, {} of {} stations in {} ms",
+          snapshot.version(),
+          rebuilt,
+          stations.length,
+          (System.nanoTime() - started) / 1_000_000);
+
+      return next;
+    } finally {
+      buildLock.unlock();
+    }
+  }
+
+  private record Index(long version, Map<String, StationStats> stations) {
+
+    static final Index EMPTY = new Index(0, Map.of());
+  }
+
+  private record StationStats(String hash, List<RouteStatsResponse> routes) {}
+
+  /** Computes {@code stations[changed[from .. to)]} into the same slots of {@code results}. */
+  private static final class StatsTask extends RecursiveAction {
+
+    private final Stations[] stations;
+    private final StationStats[] results;
+    private final int[] changed;
+    private final int from;
+    private final int to;
+    private final ZoneId zone;
+
+    private StatsTask(
+        Stations[] stations,
+        StationStats[] results,
+        int[] changed,
+        int from,
+        int to,
+        ZoneId zone) {
+      this.stations = stations;
+      this.results = results;
+      this.changed = changed;
+      this.from = from;
+      this.to = to;
+      this.zone = zone;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= STATIONS_PER_TASK) {
+        var days = new ServiceDays(zone);
+        for (int i = from; i < to; i++) {
+          var station = stations[changed[i]];
+          results[changed[i]] = new StationStats(station.getStationHash(), routes(station, days));
+        }
+        return;
+      }
+
+      int middle = (from + to) >>> 1;
+      invokeAll(
+          new StatsTask(stations, results, changed, from, middle, zone),
+          new StatsTask(stations, results, changed, middle, to, zone));
+    }
+  }
+
+  // Routes sharing a URI are one route to riders, so their departures are merged
+  private static List<RouteStatsResponse> routes(Stations station, ServiceDays days) {
+    var stationRoutes =
+        Objects.requireNonNullElse(station.getStationRoutes(), List.<StationRoute>of());
+    var byUri = new LinkedHashMap<String, List<StationRoute>>();
+    for (var route : stationRoutes) {
+      byUri.computeIfAbsent(route.getUri(), uri -> new ArrayList<>()).add(route);
+    }
+
+    var routes = new ArrayList<RouteStatsResponse>(byUri.size());
+    for (var group : byUri.values()) {
+      routes.add(route(group, timestamps(group), days));
+    }
+
+    return List.copyOf(routes);
+  }
+
+  private static long[] timestamps(List<StationRoute> routes) {
+    if (routes.size() == 1) {
+      return stopTimes(routes.getFirst()).getDepartureTimestamps().clone();
+    }
+
+    int size = 0;
+    for (var route : routes) {
+      size += stopTimes(route).size();
+    }
+
+    var timestamps = new long[size];
+    int offset = 0;
+    for (var route : routes) {
+      var source = stopTimes(route).getDepartureTimestamps();
+      System.arraycopy(source, 0, timestamps, offset, source.length);
+      offset += source.length;
+    }
+
+    return timestamps;
+  }
+
+  private static RouteStatsResponse route(
+      List<StationRoute> routes, long[] timestamps, ServiceDays days) {
+    Arrays.sort(timestamps);
+
+    int serviceDays = 0;
+    int headways = 0;
+    long headwaySeconds = 0;
+    long maxHeadway = 0;
+    long serviceSeconds = 0;
+    long dayStart = Long.MIN_VALUE;
+    long dayFirst = 0;
+
+    for (int i = 0; i < timestamps.length; i++) {
+      long timestamp = timestamps[i];
+      long start = timestamp - days.secondOfDay(timestamp);
+
+      if (start != dayStart) {
+        if (i > 0) {
+          serviceSeconds += timestamps[i - 1] - dayFirst;
+        }
+        dayStart = start;
+        dayFirst = timestamp;
+        serviceDays++;
+      } else {
+        long headway = timestamp - timestamps[i - 1];
+        headwaySeconds += headway;
+        maxHeadway = Math.max(maxHeadway, headway);
+        headways++;
+      }
+    }
+
+    if (timestamps.length > 0) {
+      serviceSeconds += timestamps[timestamps.length - 1] - dayFirst;
+    }
+
+    var first = routes.getFirst();
+    var builder =
+        RouteStatsResponse.builder()
+            .routeUri(first.getUri())
+            .routeName(first.getName())
+            .routeGroupId(first.getRouteGroupId())
+            .departures(timestamps.length)
+            .serviceDays(serviceDays);
+
+    if (timestamps.length > 0) {
+      builder.firstDeparture(timestamps[0]).lastDeparture(timestamps[timestamps.length - 1]);
+    }
+
+    if (headways > 0) {
+      builder
+          .meanHeadwayMinutes(headwaySeconds / 60.0 / headways)
+          .maxHeadwayMinutes(maxHeadway / 60.0);
+    }
+
+    if (serviceSeconds > 0) {
+      builder.departuresPerHour(timestamps.length * 3600.0 / serviceSeconds);
+    }
+
+    return builder.build();
+  }
+
+  private static StopTimes stopTimes(StationRoute route) {
+    return Objects.requireNonNullElse(route.getStopTimes(), StopTimes.EMPTY);
+  }
+}
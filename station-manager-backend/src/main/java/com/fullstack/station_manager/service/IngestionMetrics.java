@@ -0,0 +1,95 @@
+package com.fullstack.station_manager.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters for {@code saveStations}. A refresh is split into phases so a slow refresh can be
+ * attributed to the remote feed or to Mongo:
+ *
+ * <ul>
+ *   <li>{@code fetch}: connect and wait for the response headers of a feed
+ *   <li>{@code parse}: download, parse and map the body; these are streamed together
+ *   <li>{@code write}: bulk writes of the mapped batches
+ *   <li>{@code remove}: removal of stations missing from the feeds
+ *   <li>{@code snapshot}: rebuild of the in-memory {@code GET /api/stations} snapshot
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class IngestionMetrics {
+
+  private final MeterRegistry meterRegistry;
+
+  public Timer.Sample start() {
+    return Timer.start(meterRegistry);
+  }
+
+  public void refreshed(Timer.Sample sample, String outcome) {
+    sample.stop(
+        Timer.builder("stations.refresh")
+            .description("Duration of a stations refresh, by outcome")
+            .tag("outcome", outcome)
+            .register(meterRegistry));
+  }
+
+  public void phase(String phase, long nanos) {
+    Timer.builder("stations.refresh.phase")
+        .description("Time spent in each refresh phase")
+        .tag("phase", phase)
+        .register(meterRegistry)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void feed(String uri, boolean success, long nanos, long payloadBytes) {
+    Timer.builder("stations.feed")
+        .description("Total time to fetch, parse and write one feed")
+        .tag("feed", uri)
+        .tag("outcome", success ? "success" : "failure")
+        .register(meterRegistry)
+        .record(nanos, TimeUnit.NANOSECONDS);
+
+    DistributionSummary.builder("stations.feed.payload")
+        .description("Feed response body size")
+        .baseUnit("bytes")
+        .tag("feed", uri)
+        .register(meterRegistry)
+        .record(payloadBytes);
+  }
+
+  public void synced(int stations, long stopTimes, StationsSynchronizer.SyncStats stats) {
+    DistributionSummary.builder("stations.refresh.stations")
+        .description("Stations read per refresh")
+        .register(meterRegistry)
+        .record(stations);
+    DistributionSummary.builder("stations.refresh.stop_times")
+        .description("Stop times read per refresh")
+        .register(meterRegistry)
+        .record(stopTimes);
+
+    operations("inserted", stats.getInserted());
+    operations("replaced", stats.getReplaced());
+    operations("patched", stats.getPatched());
+    operations("unchanged", stats.getUnchanged());
+    operations("removed", stats.getRemoved());
+
+    meterRegistry
+        .counter("stations.sync.buckets", "result", "written")
+        .increment(stats.getBucketsWritten());
+    meterRegistry
+        .counter("stations.sync.buckets", "result", "removed")
+        .increment(stats.getBucketsRemoved());
+  }
+
+  public void coalesced() {
+    meterRegistry.counter("stations.refresh.coalesced").increment();
+  }
+
+  private void operations(String type, int count) {
+    meterRegistry.counter("stations.sync.stations", "result", type).increment(count);
+  }
+}
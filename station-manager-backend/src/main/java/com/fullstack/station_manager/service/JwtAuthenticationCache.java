@@ -0,0 +1,98 @@
+package com.fullstack.station_manager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+/**
+ * Caches what the JWT filter needs per request. Verified tokens are kept until their own
+ * {@code exp}, so a token's signature is checked once and later requests are a map lookup.
+ * Principals are kept for a short TTL to spare Postgres a lookup per request; the TTL bounds how
+ * long a deleted or changed user keeps working with a still-valid token. Invalid tokens are never
+ * cached. Hit and miss counts are published as {@code cache.gets} for both caches.
+ */
+@Service
+public class JwtAuthenticationCache {
+
+  private final JwtService jwtService;
+  private final UsersService usersService;
+
+  private final Cache<String, JwtService.VerifiedToken> tokens;
+  private final Cache<String, UserDetails> users;
+
+  public JwtAuthenticationCache(
+      JwtService jwtService,
+      UsersService usersService,
+      MeterRegistry meterRegistry,
+      @Value("${security.jwt.token-cache.max-size:10000}") long tokenCacheSize,
+      @Value("${security.jwt.user-cache.max-size:1000}") long userCacheSize,
+      @Value("${security.jwt.user-cache.ttl:60s}") Duration userCacheTtl) {
+    this.jwtService = jwtService;
+    this.usersService = usersService;
+
+    this.tokens =
+        Caffeine.newBuilder()
+            .maximumSize(tokenCacheSize)
+            .expireAfter(new UntilTokenExpires())
+            .recordStats()
+            .build();
+    this.users =
+        Caffeine.newBuilder()
+            .maximumSize(userCacheSize)
+            .expireAfterWrite(userCacheTtl)
+            .recordStats()
+            .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, tokens, "jwt.tokens");
+    CaffeineCacheMetrics.monitor(meterRegistry, users, "jwt.users");
+  }
+
+  /** Returns the verified token, parsing it only on a miss; invalid tokens throw every time. */
+  public JwtService.VerifiedToken verify(String token) {
+    return tokens.get(token, jwtService::verify);
+  }
+
+  /**
+   * Returns the cached principal or loads it. The lookup runs outside the cache: a loader passed
+   * to {@code get} would query Postgres inside a map-bin monitor and pin a virtual thread. Two
+   * concurrent misses for one user may both load, which is harmless for a read.
+   */
+  public UserDetails loadUser(String username) {
+    var user = users.getIfPresent(username);
+    if (user == null) {
+      user = usersService.loadUserByUsername(username);
+      users.put(username, user);
+    }
+
+    return user;
+  }
+
+  private static final class UntilTokenExpires
+      implements Expiry<String, JwtService.VerifiedToken> {
+
+    @Override
+    public long expireAfterCreate(
+        String token, JwtService.VerifiedToken verified, long currentTime) {
+      return Math.max(0, Duration.between(Instant.now(), verified.expiresAt()).toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String token, JwtService.VerifiedToken verified, long currentTime, long currentDuration) {
+      return expireAfterCreate(token, verified, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(
+        String token, JwtService.VerifiedToken verified, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
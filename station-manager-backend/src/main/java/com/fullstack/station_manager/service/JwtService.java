@@ -2,13 +2,15 @@ package com.fullstack.station_manager.service;
 
 import com.fullstack.station_manager.utility.Constant;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 import javax.crypto.SecretKey;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -16,6 +18,14 @@ import org.springframework.stereotype.Service;
 @Service
 public class JwtService {
 
+  private static final String TOKEN_TYPE = "token_type";
+  private static final String REFRESH = "refresh";
+
+  // Decoded once; both the key and the parser are immutable and thread-safe
+  private final SecretKey signingKey =
+      Keys.hmacShaKeyFor(Decoders.BASE64.decode(Constant.KeyBytes.KEY));
+  private final JwtParser parser = Jwts.parser().verifyWith(signingKey).build();
+
   public String generateToken(UserDetails userDetails) {
     var now = new Date(System.currentTimeMillis());
     var expired = new Date(now.getTime() + 1000 * 60 * 60 * 24);
@@ -24,7 +34,7 @@ public class JwtService {
         .subject(userDetails.getUsername())
         .issuedAt(now)
         .expiration(expired)
-        .signWith(getSigningKey())
+        .signWith(signingKey)
         .compact();
   }
 
@@ -34,44 +44,49 @@ public class JwtService {
 
     return Jwts.builder()
         .claims(extraClaims)
+        .claim(TOKEN_TYPE, REFRESH)
+        .id(UUID.randomUUID().toString())
         .subject(userDetails.getUsername())
         .issuedAt(now)
         .expiration(expired)
-        .signWith(getSigningKey())
+        .signWith(signingKey)
         .compact();
   }
 
-  public String extractUsernameFromToken(String token) {
-    return getClaimsFromToken(token, Claims::getSubject);
-  }
-
-  public boolean validateToken(String token, UserDetails userDetails) {
-    final String username = extractUsernameFromToken(token);
+  /**
+   * Verifies the signature and expiry of a token with a single parse and returns the claims the
+   * security filter needs. Throws a {@link io.jsonwebtoken.JwtException} for invalid tokens.
+   */
+  public VerifiedToken verify(String token) {
+    var claims = extractAllClaimsFromToken(token);
+    if (claims.getSubject() == null || claims.getExpiration() == null) {
+      throw new MalformedJwtException("Token has no subject or expiration");
+    }
 
-    return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    return new VerifiedToken(
+        claims.getSubject(),
+        claims.getExpiration().toInstant(),
+        REFRESH.equals(claims.get(TOKEN_TYPE, String.class)));
   }
 
-  private Key getSigningKey() {
-    byte[] keyBytes = Decoders.BASE64.decode(Constant.KeyBytes.KEY);
-
-    return Keys.hmacShaKeyFor(keyBytes);
+  public String extractUsernameFromToken(String token) {
+    return verify(token).username();
   }
 
-  private <T> T getClaimsFromToken(String token, Function<Claims, T> claimsResolver) {
-    final Claims claims = extractAllClaimsFromToken(token);
+  public boolean validateToken(String token, UserDetails userDetails) {
+    var verified = verify(token);
 
-    return claimsResolver.apply(claims);
+    return verified.username().equals(userDetails.getUsername()) && !verified.isExpired();
   }
 
   private Claims extractAllClaimsFromToken(String token) {
-    return Jwts.parser()
-        .verifyWith((SecretKey) getSigningKey())
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
+    return parser.parseSignedClaims(token).getPayload();
   }
 
-  private boolean isTokenExpired(String token) {
-    return getClaimsFromToken(token, Claims::getExpiration).before(new Date());
+  public record VerifiedToken(String username, Instant expiresAt, boolean refresh) {
+
+    public boolean isExpired() {
+      return !expiresAt.isAfter(Instant.now());
+    }
   }
 }
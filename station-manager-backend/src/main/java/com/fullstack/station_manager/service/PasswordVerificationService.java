@@ -0,0 +1,109 @@
+package com.fullstack.station_manager.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Runs BCrypt checks on a small dedicated pool so a login storm can use at most {@code threads}
+ * cores and cannot starve the request threads serving stations. The queue is bounded: when it is
+ * full a login fails fast with 429, and a check that waited longer than {@code timeout} fails
+ * with 503 instead of holding the request thread.
+ */
+@Slf4j
+@Service
+public class PasswordVerificationService {
+
+  private final PasswordEncoder passwordEncoder;
+  private final ThreadPoolExecutor executor;
+  private final Duration timeout;
+  private final Timer verifications;
+
+  public PasswordVerificationService(
+      PasswordEncoder passwordEncoder,
+      MeterRegistry meterRegistry,
+      @Value("${security.login.threads:0}") int threads,
+      @Value("${security.login.queue-capacity:64}") int queueCapacity,
+      @Value("${security.login.timeout:5s}") Duration timeout) {
+    int poolSize =
+        threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    var counter = new AtomicInteger();
+
+    this.passwordEncoder = passwordEncoder;
+    this.timeout = timeout;
+    this.executor =
+        new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              var thread = new Thread(runnable, "password-verifier-" + counter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    this.verifications =
+        Timer.builder("auth.password.verification")
+            .description("Time spent in BCrypt, excluding the queue wait")
+            .register(meterRegistry);
+
+    ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-verifier", List.of());
+  }
+
+  public boolean matches(String rawPassword, String encodedPassword) {
+    if (rawPassword == null || encodedPassword == null) {
+      return false;
+    }
+
+    try {
+      var result =
+          executor.submit(
+              () ->
+                  verifications.record(
+                      () -> passwordEncoder.matches(rawPassword, encodedPassword)));
+
+      try {
+        return Boolean.TRUE.equals(result.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+      } catch (TimeoutException e) {
+        result.cancel(true);
+        log.warn("PasswordVerificationService: Verification timed out after {}", timeout);
+
+        throw new ResponseStatusException(
+            HttpStatus.SERVICE_UNAVAILABLE, "Login is temporarily unavailable");
+      }
+    } catch (RejectedExecutionException e) {
+      throw new ResponseStatusException(
+          HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts, try again shortly");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+
+      throw new ResponseStatusException(
+          HttpStatus.SERVICE_UNAVAILABLE, "Login is temporarily unavailable");
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Password verification failed", e.getCause());
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,79 @@
+package com.fullstack.station_manager.service;
+
+import com.fullstack.station_manager.dto.request.StationsSearchRequest;
+import com.fullstack.station_manager.dto.response.SuccessResponse;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.repository.ReactiveStationsRepository;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of the Mongo-bound reads in {@link StationsService} and
+ * {@link StationsExportService}, active with {@code station.reactive.enabled=true}. No thread
+ * waits for Mongo: queries complete on the driver's callbacks, and an export requests its next
+ * cursor batch only when the client has taken the previous one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "station.reactive.enabled", havingValue = "true")
+public class ReactiveStationsService {
+
+  private final ReactiveStationsRepository reactiveStationsRepository;
+
+  @Value("${station.export.batch-size:20}")
+  private int batchSize;
+
+  public Mono<SuccessResponse> searchStations(StationsSearchRequest request) {
+    var plan = StationsSearchPlan.of(request);
+    var stations =
+        reactiveStationsRepository
+            .search(
+                request.getQ(),
+                request.getAgency(),
+                request.getFields(),
+                plan.afterUri(),
+                plan.skip(),
+                plan.size())
+            .collectList();
+    var total =
+        plan.keyset()
+            ? Mono.just(0L)
+            : reactiveStationsRepository.countMatching(request.getQ(), request.getAgency());
+
+    return Mono.zip(stations, total, plan::response);
+  }
+
+  public Flux<Stations> export(
+      String name, Collection<String> agencies, Collection<String> fields) {
+    StationsSearchPlan.checkFields(fields);
+
+    return Flux.defer(
+        () -> {
+          long started = System.nanoTime();
+          var exported = new AtomicLong();
+
+          return reactiveStationsRepository
+              .stream(name, agencies, fields, batchSize)
+              .doOnNext(station -> exported.incrementAndGet())
+              .doOnComplete(
+                  () ->
+                      log.info(
+                          "ReactiveStationsService: Exported {} stations in {} ms",
+                          exported.get(),
+                          (System.nanoTime() - started) / 1_000_000))
+              .doOnCancel(
+                  () ->
+                      log.info(
+                          "ReactiveStationsService: Export cancelled after {} stations",
+                          exported.get()));
+        });
+  }
+}
@@ -0,0 +1,145 @@
+package com.fullstack.station_manager.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Write-behind store for {@code tbu_token}. Logins and refreshes only update an in-memory map;
+ * a scheduled flush writes all pending tokens in one JDBC batch. Several rotations of the same
+ * user between two flushes collapse into one UPDATE. Reads see pending tokens first, so a token
+ * rotated a moment ago is already the current one. Tokens still pending when the process dies
+ * are lost, which only forces those users to log in again.
+ */
+@Slf4j
+@Service
+public class RefreshTokenStore {
+
+  private static final String UPDATE_TOKEN =
+      "UPDATE tb_users SET tbu_token = ? WHERE tbu_username = ?";
+  private static final String SELECT_TOKEN =
+      "SELECT tbu_token FROM tb_users WHERE tbu_username = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int batchSize;
+  private final Timer flushes;
+
+  private final Map<String, String> pending = new ConcurrentHashMap<>();
+  private final AtomicBoolean flushing = new AtomicBoolean();
+  // Serializes rotations per user without holding a map-bin monitor across the token query
+  private final ReentrantLock[] rotationLocks = new ReentrantLock[64];
+
+  public RefreshTokenStore(
+      JdbcTemplate jdbcTemplate,
+      MeterRegistry meterRegistry,
+      @Value("${security.refresh-token.batch-size:500}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.batchSize = batchSize;
+    this.flushes = meterRegistry.timer("auth.refresh_tokens.flush");
+
+    meterRegistry.gaugeMapSize("auth.refresh_tokens.pending", List.of(), pending);
+
+    for (int i = 0; i < rotationLocks.length; i++) {
+      rotationLocks[i] = new ReentrantLock();
+    }
+  }
+
+  public void save(String username, String refreshToken) {
+    pending.put(username, refreshToken);
+  }
+
+  /**
+   * Replaces {@code expected} with {@code replacement} if {@code expected} is the user's current
+   * token. Two concurrent refreshes with the same token cannot both succeed.
+   */
+  public boolean rotate(String username, String expected, String replacement) {
+    var lock = rotationLocks[Math.floorMod(username.hashCode(), rotationLocks.length)];
+
+    lock.lock();
+    try {
+      // A login or a flush may change the entry between the read and the swap; read it again
+      while (true) {
+        var current = pending.get(username);
+        var stored = current != null ? current : load(username);
+        if (!expected.equals(stored)) {
+          return false;
+        }
+
+        boolean swapped =
+            current != null
+                ? pending.replace(username, current, replacement)
+                : pending.putIfAbsent(username, replacement) == null;
+        if (swapped) {
+          return true;
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${security.refresh-token.flush-interval:500ms}")
+  public void flush() {
+    if (pending.isEmpty() || !flushing.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      flushes.record(this::flushPending);
+    } finally {
+      flushing.set(false);
+    }
+  }
+
+  private void flushPending() {
+    var batch = new ArrayList<Map.Entry<String, String>>(Math.min(pending.size(), batchSize));
+
+    for (var entry : pending.entrySet()) {
+      batch.add(Map.entry(entry.getKey(), entry.getValue()));
+      if (batch.size() == batchSize) {
+        write(batch);
+        batch.clear();
+      }
+    }
+
+    if (!batch.isEmpty()) {
+      write(batch);
+    }
+  }
+
+  private void write(List<Map.Entry<String, String>> batch) {
+    try {
+      jdbcTemplate.batchUpdate(
+          UPDATE_TOKEN,
+          batch.stream().map(entry -> new Object[] {entry.getValue(), entry.getKey()}).toList());
+    } catch (RuntimeException e) {
+      // Entries stay pending and are retried on the next flush
+      log.error("RefreshTokenStore: Failed to persist {} tokens", batch.size(), e);
+      return;
+    }
+
+    // Drop only entries that were not rotated again while the batch was being written
+    batch.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+  }
+
+  private String load(String username) {
+    return jdbcTemplate.query(
+        SELECT_TOKEN, rs -> rs.next() ? rs.getString(1) : null, username);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    flush();
+  }
+}
@@ -0,0 +1,502 @@
+package com.fullstack.station_manager.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResponseExtractor;
+
+/**
+ * Outbound client for the station feeds, built on one shared JDK {@link HttpClient} that keeps
+ * connections alive between refreshes and negotiates HTTP/2 where the feed supports it. Every
+ * request asks for gzip and the body is decoded before it reaches the extractor.
+ *
+ * <p>Each attempt waits at most the feed's timeout ({@code station.fetch.timeout}, overridable
+ * per feed with {@code station.fetch.timeouts=<uri>=<duration>,...}) for the response headers,
+ * and fails when a body read stalls for longer than that. The body is parsed and written while
+ * it streams, so only time spent blocked on the network counts. Connection errors, timeouts, 429
+ * and 5xx responses are retried up to {@code max-attempts} times with full-jitter exponential
+ * backoff. A feed that still fails {@code circuit.failure-threshold} times in a row opens its
+ * circuit and is skipped for {@code circuit.open-duration}, after which one trial request
+ * decides whether it closes.
+ */
+@Slf4j
+@Component
+public class StationFeedClient {
+
+  private final HttpClient httpClient;
+  private final ScheduledExecutorService watchdog;
+  private final MeterRegistry meterRegistry;
+  private final Duration timeout;
+  private final Map<String, Duration> feedTimeouts;
+  private final int maxAttempts;
+  private final Duration backoff;
+  private final Duration maxBackoff;
+  private final int failureThreshold;
+  private final Duration openDuration;
+
+  private final Map<String, CircuitBreaker> circuits = new ConcurrentHashMap<>();
+
+  public StationFeedClient(
+      MeterRegistry meterRegistry,
+      @Value("${station.fetch.connect-timeout:5s}") Duration connectTimeout,
+      @Value("${station.fetch.timeout:30s}") Duration timeout,
+      @Value("${station.fetch.timeouts:}") List<String> feedTimeouts,
+      @Value("${station.fetch.max-attempts:3}") int maxAttempts,
+      @Value("${station.fetch.backoff:200ms}") Duration backoff,
+      @Value("${station.fetch.max-backoff:5s}") Duration maxBackoff,
+      @Value("${station.fetch.circuit.failure-threshold:5}") int failureThreshold,
+      @Value("${station.fetch.circuit.open-duration:60s}") Duration openDuration) {
+    this.meterRegistry = meterRegistry;
+    this.timeout = timeout;
+    this.feedTimeouts = parseTimeouts(feedTimeouts);
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.backoff = backoff;
+    this.maxBackoff = maxBackoff;
+    this.failureThreshold = Math.max(1, failureThreshold);
+    this.openDuration = openDuration;
+    this.httpClient =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    this.watchdog =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              var thread = new Thread(runnable, "station-feed-watchdog");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Fetches {@code uri} and hands the response to {@code extractor}. 304 and other 2xx/3xx
+   * responses reach the extractor; the remaining statuses fail with an {@link IOException}.
+   */
+  public <T> T execute(
+      String uri, Consumer<HttpHeaders> headers, ResponseExtractor<T> extractor)
+      throws IOException, InterruptedException {
+    var circuit = circuits.computeIfAbsent(uri, CircuitBreaker::new);
+    if (!circuit.tryAcquire()) {
+      circuit.rejected.increment();
+      throw new FeedUnavailableException(
+          "Circuit open for " + uri + ", skipping until " + openDuration + " have passed");
+    }
+
+    var feedTimeout = feedTimeouts.getOrDefault(uri, timeout);
+    var request = request(uri, headers);
+    // null: the call ended for a reason that says nothing about the feed's health
+    Boolean healthy = false;
+
+    try {
+      for (int attempt = 1; ; attempt++) {
+        if (attempt > 1) {
+          pause(attempt);
+          circuit.retries.increment();
+        }
+
+        long started = System.nanoTime();
+        HttpResponse<InputStream> response;
+        try {
+          response = send(request, feedTimeout);
+        } catch (IOException e) {
+          record(uri, e instanceof HttpTimeoutException ? "timeout" : "io_error", started);
+          if (attempt >= maxAttempts) {
+            throw e;
+          }
+
+          log.warn(
+              "StationFeedClient: Attempt {} of {} for {} failed: {}",
+              attempt,
+              maxAttempts,
+              uri,
+              e.toString());
+          continue;
+        }
+
+        int status = response.statusCode();
+        record(uri, (status / 100) + "xx", started);
+
+        if (status == 429 || status >= 500) {
+          response.body().close();
+          if (attempt >= maxAttempts) {
+            throw new IOException("Feed " + uri + " responded with HTTP " + status);
+          }
+
+          log.warn(
+              "StationFeedClient: Attempt {} of {} for {} returned HTTP {}",
+              attempt,
+              maxAttempts,
+              uri,
+              status);
+          continue;
+        }
+
+        if (status >= 400) {
+          response.body().close();
+          healthy = true;
+          throw new IOException("Feed " + uri + " responded with HTTP " + status);
+        }
+
+        var result = extract(uri, response, feedTimeout, extractor);
+        healthy = true;
+
+        return result;
+      }
+    } catch (RuntimeException | InterruptedException e) {
+      // Mapping and write failures, or a cancelled refresh
+      healthy = null;
+      throw e;
+    } finally {
+      if (healthy == null) {
+        circuit.released();
+      } else if (healthy) {
+        circuit.succeeded();
+      } else {
+        circuit.failed();
+      }
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    watchdog.shutdownNow();
+    httpClient.close();
+  }
+
+  private HttpRequest request(String uri, Consumer<HttpHeaders> headers) {
+    var requestHeaders = new HttpHeaders();
+    headers.accept(requestHeaders);
+
+    var builder =
+        HttpRequest.newBuilder(URI.create(uri))
+            .GET()
+            .header(HttpHeaders.ACCEPT, "application/json")
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+    requestHeaders.forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+
+    return builder.build();
+  }
+
+  // HttpRequest.timeout would also cut off a body that is still streaming, so only the wait for
+  // headers is bounded here and body reads are watched separately
+  private HttpResponse<InputStream> send(HttpRequest request, Duration feedTimeout)
+      throws IOException, InterruptedException {
+    var response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+
+    try {
+      return response.get(feedTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      response.cancel(true);
+      throw new HttpTimeoutException("No response from " + request.uri() + " in " + feedTimeout);
+    } catch (InterruptedException e) {
+      response.cancel(true);
+      throw e;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException cause) {
+        throw cause;
+      }
+
+      throw new IOException(e.getCause());
+    }
+  }
+
+  private <T> T extract(
+      String uri,
+      HttpResponse<InputStream> response,
+      Duration feedTimeout,
+      ResponseExtractor<T> extractor)
+      throws IOException {
+    var body = new WatchedBody(response.body(), feedTimeout.toNanos());
+    long period = Math.max(TimeUnit.MILLISECONDS.toNanos(10), feedTimeout.toNanos() / 4);
+    var check =
+        watchdog.scheduleAtFixedRate(body::closeIfStalled, period, period, TimeUnit.NANOSECONDS);
+
+    try (var feedResponse = new FeedResponse(response, body)) {
+      return extractor.extractData(feedResponse);
+    } catch (IOException e) {
+      if (body.stalled) {
+        var timedOut =
+            new HttpTimeoutException("Feed " + uri + " stalled for more than " + feedTimeout);
+        timedOut.initCause(e);
+        throw timedOut;
+      }
+
+      throw e;
+    } finally {
+      check.cancel(false);
+    }
+  }
+
+  private void pause(int attempt) throws InterruptedException {
+    long ceiling =
+        Math.min(maxBackoff.toMillis(), backoff.toMillis() << Math.min(attempt - 2, 20));
+    Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+  }
+
+  private void record(String uri, String outcome, long startedNanos) {
+    Timer.builder("stations.feed.http.requests")
+        .description("Feed HTTP attempts until the response headers, by outcome")
+        .tag("feed", uri)
+        .tag("outcome", outcome)
+        .register(meterRegistry)
+        .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+  }
+
+  private static Map<String, Duration> parseTimeouts(List<String> entries) {
+    var timeouts = new HashMap<String, Duration>();
+
+    for (var entry : entries) {
+      int separator = entry.lastIndexOf('=');
+      if (separator <= 0) {
+        throw new IllegalArgumentException("Expected <uri>=<duration> but got: " + entry);
+      }
+
+      timeouts.put(
+          entry.substring(0, separator).trim(),
+          DurationStyle.detectAndParse(entry.substring(separator + 1).trim()));
+    }
+
+    return Map.copyOf(timeouts);
+  }
+
+  private static void closeQuietly(InputStream stream) {
+    try {
+      stream.close();
+    } catch (IOException ignored) {
+      // The reader sees the failure on its next read
+    }
+  }
+
+  /** Thrown without contacting the feed while its circuit is open. */
+  public static class FeedUnavailableException extends IOException {
+
+    public FeedUnavailableException(String message) {
+      super(message);
+    }
+  }
+
+  enum State {
+    CLOSED,
+    HALF_OPEN,
+    OPEN
+  }
+
+  // Consecutive failures open the circuit; after openDuration a single trial call is let through.
+  // A ReentrantLock rather than synchronized, so a virtual thread never pins its carrier here.
+  private final class CircuitBreaker {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+
+    private final Counter retries;
+    private final Counter rejected;
+
+    CircuitBreaker(String uri) {
+      this.retries =
+          Counter.builder("stations.feed.retries")
+              .description("Retried feed requests")
+              .tag("feed", uri)
+              .register(meterRegistry);
+      this.rejected =
+          Counter.builder("stations.feed.circuit.rejected")
+              .description("Feed requests skipped because the circuit was open")
+              .tag("feed", uri)
+              .register(meterRegistry);
+      Gauge.builder("stations.feed.circuit.state", this, breaker -> breaker.state().ordinal())
+          .description("Feed circuit state: 0 closed, 1 half-open, 2 open")
+          .tag("feed", uri)
+          .register(meterRegistry);
+    }
+
+    State state() {
+      return state;
+    }
+
+    boolean tryAcquire() {
+      lock.lock();
+      try {
+        return switch (state) {
+          case CLOSED -> true;
+          case HALF_OPEN -> false;
+          case OPEN -> {
+            if (System.nanoTime() - openedAt < openDuration.toNanos()) {
+              yield false;
+            }
+
+            state = State.HALF_OPEN;
+            yield true;
+          }
+        };
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void succeeded() {
+      lock.lock();
+      try {
+        failures = 0;
+        state = State.CLOSED;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    // A trial call that ended without a verdict lets the next call try again
+    void released() {
+      lock.lock();
+      try {
+        if (state == State.HALF_OPEN) {
+          state = State.OPEN;
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void failed() {
+      lock.lock();
+      try {
+        failures++;
+
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+          if (state != State.OPEN) {
+            log.warn(
+                "StationFeedClient: Opening circuit after {} consecutive failures", failures);
+          }
+
+          state = State.OPEN;
+          openedAt = System.nanoTime();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /** Closes the body when a single read has been blocked for longer than the timeout. */
+  private static final class WatchedBody extends FilterInputStream {
+
+    private final long timeoutNanos;
+    private volatile long readingSince;
+    private volatile boolean stalled;
+
+    WatchedBody(InputStream body, long timeoutNanos) {
+      super(body);
+      this.timeoutNanos = timeoutNanos;
+    }
+
+    @Override
+    public int read() throws IOException {
+      readingSince = System.nanoTime() | 1;
+      try {
+        return super.read();
+      } finally {
+        readingSince = 0;
+      }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      readingSince = System.nanoTime() | 1;
+      try {
+        return super.read(buffer, offset, length);
+      } finally {
+        readingSince = 0;
+      }
+    }
+
+    void closeIfStalled() {
+      long since = readingSince;
+      if (since != 0 && System.nanoTime() - since > timeoutNanos && !stalled) {
+        stalled = true;
+        closeQuietly(in);
+      }
+    }
+  }
+
+  /** Spring view of a JDK response; gzip bodies are decoded and their encoding headers removed. */
+  private static final class FeedResponse implements ClientHttpResponse {
+
+    private final HttpResponse<InputStream> response;
+    private final InputStream raw;
+    private final HttpHeaders headers = new HttpHeaders();
+    private final boolean gzip;
+    private InputStream body;
+
+    FeedResponse(HttpResponse<InputStream> response, InputStream raw) {
+      this.response = response;
+      this.raw = raw;
+      response.headers().map().forEach(headers::addAll);
+      this.gzip = "gzip".equalsIgnoreCase(headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+
+      if (gzip) {
+        headers.remove(HttpHeaders.CONTENT_ENCODING);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+      }
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() {
+      return HttpStatusCode.valueOf(response.statusCode());
+    }
+
+    @Override
+    public String getStatusText() {
+      return "";
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+      if (body == null) {
+        body = gzip ? new GZIPInputStream(raw, 8192) : raw;
+      }
+
+      return body;
+    }
+
+    @Override
+    public void close() {
+      closeQuietly(body != null ? body : raw);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.fullstack.station_manager.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.station_manager.dto.external.ExternalStationResponse;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.utility.StringDictionary;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads the external station feed token by token. Only one stop is materialized at a time; mapped
+ * stations are handed to the consumer in batches of at most {@code batchSize}. Repeated strings
+ * are resolved through {@code strings}.
+ */
+@Component
+@RequiredArgsConstructor
+public class StationFeedReader {
+
+  private static final String STOPS_FIELD = "stops";
+
+  private final ObjectMapper objectMapper;
+  private final StationsMapper stationsMapper;
+
+  public Summary read(
+      InputStream body,
+      int batchSize,
+      StringDictionary strings,
+      Consumer<List<Stations>> batchConsumer)
+      throws IOException {
+    try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException(parser, "Station feed must be a JSON object");
+      }
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        var field = parser.currentName();
+        var value = parser.nextToken();
+
+        if (STOPS_FIELD.equals(field) && value == JsonToken.START_ARRAY) {
+          return readStops(parser, batchSize, strings, batchConsumer);
+        }
+
+        parser.skipChildren();
+      }
+
+      return new Summary(false, 0, 0);
+    }
+  }
+
+  private Summary readStops(
+      JsonParser parser,
+      int batchSize,
+      StringDictionary strings,
+      Consumer<List<Stations>> batchConsumer)
+      throws IOException {
+    var batch = new ArrayList<Stations>(batchSize);
+    int stations = 0;
+    int batches = 0;
+
+    JsonToken token;
+    while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+      if (token != JsonToken.START_OBJECT) {
+        parser.skipChildren();
+        continue;
+      }
+
+      var stop = parser.readValueAs(ExternalStationResponse.Stop.class);
+      batch.add(stationsMapper.mapStopToStation(stop, strings));
+      stations++;
+
+      if (batch.size() == batchSize) {
+        batchConsumer.accept(batch);
+        batch = new ArrayList<>(batchSize);
+        batches++;
+      }
+    }
+
+    if (!batch.isEmpty()) {
+      batchConsumer.accept(batch);
+      batches++;
+    }
+
+    return new Summary(true, stations, batches);
+  }
+
+  public record Summary(boolean hasStops, int stations, int batches) {}
+}
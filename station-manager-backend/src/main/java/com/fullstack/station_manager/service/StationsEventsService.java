@@ -0,0 +1,432 @@
+package com.fullstack.station_manager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.station_manager.dto.response.StationsDeltaResponse;
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.utility.ContentHash;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes stations deltas to {@code GET /api/stations/events} subscribers. Every published
+ * snapshot is diffed against the previous one by station and route hash, and the delta is
+ * serialized once and shared by all subscribers. Event ids are resume tokens
+ * ({@code <epoch>.<version>}); a client reconnecting with {@code Last-Event-ID} is replayed the
+ * deltas it missed from a bounded history, or told to {@code reset} and reload the full list when
+ * they are gone or the token is from another process.
+ *
+ * <p>Idle subscribers hold no thread. Each one has a bounded queue that is drained on a virtual
+ * thread only while it has events, and a subscriber falling further behind than that is
+ * disconnected so it reconnects and resumes instead of buffering without limit.
+ */
+@Slf4j
+@Service
+public class StationsEventsService {
+
+  private static final String READY = "ready";
+  private static final String DELTA = "delta";
+  private static final String RESET = "reset";
+
+  private final StationsSnapshotService stationsSnapshotService;
+  private final ObjectMapper objectMapper;
+  private final Duration timeout;
+  private final int maxSubscribers;
+  private final int historySize;
+  private final int maxPending;
+  private final Counter dropped;
+
+  // Distinguishes tokens of this process from those handed out before a restart
+  private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+  private final Set<ResponseBodyEmitter.DataWithMediaType> heartbeat =
+      SseEmitter.event().comment("").build();
+
+  // Guards history and latest so a subscriber is replayed and registered between two deltas
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Deque<Delta> history = new ArrayDeque<>();
+  private long latest;
+
+  public StationsEventsService(
+      StationsSnapshotService stationsSnapshotService,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      @Value("${station.events.timeout:30m}") Duration timeout,
+      @Value("${station.events.max-subscribers:10000}") int maxSubscribers,
+      @Value("${station.events.history:64}") int historySize,
+      @Value("${station.events.max-pending:16}") int maxPending) {
+    this.stationsSnapshotService = stationsSnapshotService;
+    this.objectMapper = objectMapper;
+    this.timeout = timeout;
+    this.maxSubscribers = maxSubscribers;
+    this.historySize = historySize;
+    this.maxPending = maxPending;
+    this.dropped = meterRegistry.counter("stations.events.dropped");
+
+    meterRegistry.gaugeCollectionSize("stations.events.subscribers", List.of(), subscribers);
+  }
+
+  public String token(StationsSnapshotService.Snapshot snapshot) {
+    return epoch + "." + snapshot.version();
+  }
+
+  /**
+   * Opens an event stream. Without {@code since} the stream starts with a {@code ready} event
+   * carrying the current token; with one it starts with the missed deltas, or a {@code reset}.
+   */
+  public SseEmitter subscribe(String since) {
+    var snapshot = stationsSnapshotService.current();
+    if (subscribers.size() >= maxSubscribers) {
+      throw new ResponseStatusException(
+          HttpStatus.SERVICE_UNAVAILABLE, "Too many station event subscribers");
+    }
+
+    var subscriber = new Subscriber(new SseEmitter(timeout.toMillis()));
+    subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+    subscriber.emitter.onTimeout(subscriber::close);
+    subscriber.emitter.onError(error -> subscribers.remove(subscriber));
+
+    lock.lock();
+    try {
+      latest = Math.max(latest, snapshot.version());
+      var from = resumeVersion(since);
+
+      if (since == null) {
+        subscriber.offer(event(READY, latest));
+      } else if (from < 0) {
+        subscriber.offer(event(RESET, latest));
+      } else {
+        for (var delta : history) {
+          if (delta.version > from) {
+            subscriber.replay(delta.event);
+          }
+        }
+      }
+
+      subscribers.add(subscriber);
+    } finally {
+      lock.unlock();
+    }
+
+    log.debug(
+        "StationsEventsService: Subscribed at v{} (since {}), {} subscribers",
+        snapshot.version(),
+        since,
+        subscribers.size());
+
+    return subscriber.emitter;
+  }
+
+  @EventListener
+  public void onSnapshotPublished(StationsSnapshotService.Published event) {
+    var current = event.current();
+    var delta = event.previous() != null ? delta(event.previous(), current) : null;
+
+    lock.lock();
+    try {
+      latest = Math.max(latest, current.version());
+      if (delta == null) {
+        return;
+      }
+
+      history.addLast(delta);
+      while (history.size() > historySize) {
+        history.removeFirst();
+      }
+
+      subscribers.forEach(subscriber -> subscriber.offer(delta.event));
+    } finally {
+      lock.unlock();
+    }
+
+    log.info(
+        "StationsEventsService: Pushed v{} delta to {} subscribers",
+        current.version(),
+        subscribers.size());
+  }
+
+  // Comments keep idle connections open through proxies and detect clients that went away
+  @Scheduled(
+      initialDelayString = "${station.events.heartbeat:30s}",
+      fixedDelayString = "${station.events.heartbeat:30s}")
+  public void heartbeat() {
+    subscribers.forEach(subscriber -> subscriber.offer(heartbeat));
+  }
+
+  // The web server stops first and has already closed every subscriber connection
+  @PreDestroy
+  void shutdown() {
+    subscribers.clear();
+    senders.shutdownNow();
+  }
+
+  // Version to replay from, or -1 when the token cannot be resumed from the history
+  private long resumeVersion(String since) {
+    if (since == null) {
+      return -1;
+    }
+
+    int dot = since.lastIndexOf('.');
+    if (dot < 0 || !since.substring(0, dot).equals(epoch)) {
+      return -1;
+    }
+
+    long version;
+    try {
+      version = Long.parseLong(since.substring(dot + 1));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+
+    if (version == latest) {
+      return version;
+    }
+
+    var oldest = history.peekFirst();
+    boolean covered = oldest != null && oldest.previousVersion <= version && version < latest;
+
+    return covered ? version : -1;
+  }
+
+  private Set<ResponseBodyEmitter.DataWithMediaType> event(String name, long version) {
+    var token = epoch + "." + version;
+
+    return SseEmitter.event()
+        .name(name)
+        .id(token)
+        .data(json(Map.of("token", token, "version", version)), MediaType.APPLICATION_JSON)
+        .build();
+  }
+
+  private Delta delta(
+      StationsSnapshotService.Snapshot previous, StationsSnapshotService.Snapshot current) {
+    var before = new HashMap<String, Stations>();
+    previous.stations().forEach(station -> before.put(station.getStationUri(), station));
+
+    var added = new ArrayList<Stations>();
+    var changed = new ArrayList<StationsDeltaResponse.StationChange>();
+
+    for (var station : current.stations()) {
+      var old = before.remove(station.getStationUri());
+      if (old == null) {
+        added.add(station);
+      } else if (!stationHash(old).equals(stationHash(station))) {
+        changed.add(change(old, station));
+      }
+    }
+
+    var removed = new ArrayList<>(before.keySet());
+    removed.sort(null);
+
+    var token = token(current);
+    var response =
+        StationsDeltaResponse.builder()
+            .token(token)
+            .version(current.version())
+            .previousVersion(previous.version())
+            .added(added)
+            .changed(changed)
+            .removed(removed)
+            .build();
+
+    log.info(
+        "StationsEventsService: v{} -> v{}: {} added, {} changed, {} removed",
+        previous.version(),
+        current.version(),
+        added.size(),
+        changed.size(),
+        removed.size());
+
+    var event =
+        SseEmitter.event()
+            .name(DELTA)
+            .id(token)
+            .data(json(response), MediaType.APPLICATION_JSON)
+            .build();
+
+    return new Delta(previous.version(), current.version(), event);
+  }
+
+  // Route-level changes; stations whose routes are not unique by group and uri are sent whole
+  private static StationsDeltaResponse.StationChange change(Stations old, Stations station) {
+    var change =
+        StationsDeltaResponse.StationChange.builder()
+            .stationUri(station.getStationUri())
+            .stationAgency(station.getStationAgency())
+            .stationName(station.getStationName());
+
+    var before = routes(old);
+    var after = routes(station);
+    if (before == null || after == null) {
+      return change.routes(station.getStationRoutes()).build();
+    }
+
+    var routesAdded = new ArrayList<StationRoute>();
+    var routesChanged = new ArrayList<StationRoute>();
+
+    after.forEach(
+        (key, route) -> {
+          var previous = before.remove(key);
+          if (previous == null) {
+            routesAdded.add(route.route);
+          } else if (!previous.hash.equals(route.hash)) {
+            routesChanged.add(route.route);
+          }
+        });
+
+    return change
+        .routesAdded(routesAdded)
+        .routesChanged(routesChanged)
+        .routesRemoved(List.copyOf(before.keySet()))
+        .build();
+  }
+
+  private static Map<StationsDeltaResponse.RouteKey, HashedRoute> routes(Stations station) {
+    var stationRoutes =
+        Objects.requireNonNullElse(station.getStationRoutes(), List.<StationRoute>of());
+    var hashes = station.getRouteHashes();
+    boolean aligned = hashes != null && hashes.size() == stationRoutes.size();
+    var routes = new LinkedHashMap<StationsDeltaResponse.RouteKey, HashedRoute>();
+
+    for (int i = 0; i < stationRoutes.size(); i++) {
+      var route = stationRoutes.get(i);
+      var key = new StationsDeltaResponse.RouteKey(route.getRouteGroupId(), route.getUri());
+      var hash = aligned ? hashes.get(i) : ContentHash.of(route);
+
+      if (routes.put(key, new HashedRoute(route, hash)) != null) {
+        return null;
+      }
+    }
+
+    return routes;
+  }
+
+  private static String stationHash(Stations station) {
+    if (station.getStationHash() != null) {
+      return station.getStationHash();
+    }
+
+    return ContentHash.of(
+        List.of(
+            Objects.toString(station.getStationAgency()),
+            Objects.toString(station.getStationName()),
+            Objects.requireNonNullElse(station.getStationRoutes(), List.of())));
+  }
+
+  private String json(Object value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize station event", e);
+    }
+  }
+
+  private record Delta(
+      long previousVersion, long version, Set<ResponseBodyEmitter.DataWithMediaType> event) {}
+
+  private record HashedRoute(StationRoute route, String hash) {}
+
+  private record Queued(Set<ResponseBodyEmitter.DataWithMediaType> event, boolean replay) {}
+
+  private final class Subscriber {
+
+    private final SseEmitter emitter;
+    private final Queue<Queued> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    // Replayed deltas not yet sent; they are held by the history anyway, so only live events
+    // count towards maxPending
+    private final AtomicInteger replayed = new AtomicInteger();
+    private volatile boolean closed;
+
+    private Subscriber(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+      if (closed) {
+        return;
+      }
+
+      if (pending.get() - replayed.get() >= maxPending) {
+        log.warn(
+            "StationsEventsService: Disconnecting a subscriber {} events behind", pending.get());
+        dropped.increment();
+        closed = true;
+        subscribers.remove(this);
+        // Completing takes the emitter's write lock, which a send stuck on this client holds
+        senders.execute(emitter::complete);
+        return;
+      }
+
+      enqueue(new Queued(event, false));
+    }
+
+    void replay(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+      replayed.incrementAndGet();
+      enqueue(new Queued(event, true));
+    }
+
+    private void enqueue(Queued item) {
+      queue.add(item);
+      if (pending.getAndIncrement() == 0) {
+        senders.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      do {
+        var item = queue.poll();
+        if (item.replay()) {
+          replayed.decrementAndGet();
+        }
+        if (closed) {
+          continue;
+        }
+
+        try {
+          emitter.send(item.event());
+        } catch (IOException | IllegalStateException e) {
+          closed = true;
+          subscribers.remove(this);
+        }
+      } while (pending.decrementAndGet() > 0);
+    }
+
+    void close() {
+      closed = true;
+      subscribers.remove(this);
+      emitter.complete();
+    }
+  }
+}
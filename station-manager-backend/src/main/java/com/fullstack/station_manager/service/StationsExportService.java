@@ -0,0 +1,75 @@
+package com.fullstack.station_manager.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.repository.StationsRepository;
+import java.io.IOException;
+import java.util.Collection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Exports stations as newline-delimited JSON, one station per line, straight from a Mongo cursor.
+ * Only the current cursor batch is held in memory. Writes block while the client is slow to
+ * read, and the cursor does not fetch its next batch until they complete, so a slow consumer
+ * slows the export down instead of growing the heap.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StationsExportService {
+
+  private final StationsRepository stationsRepository;
+  private final ObjectMapper objectMapper;
+
+  @Value("${station.export.batch-size:20}")
+  private int batchSize;
+
+  public StreamingResponseBody export(
+      String name, Collection<String> agencies, Collection<String> fields) {
+    StationsSearchPlan.checkFields(fields);
+
+    var writer =
+        objectMapper
+            .writerFor(Stations.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    return output -> {
+      long started = System.nanoTime();
+      long exported = 0;
+
+      try (var stations = stationsRepository.stream(name, agencies, fields, batchSize);
+          var generator = objectMapper.getFactory().createGenerator(output)) {
+        generator.setRootValueSeparator(null);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        var iterator = stations.iterator();
+        while (iterator.hasNext()) {
+          writer.writeValue(generator, iterator.next());
+          generator.writeRaw('\n');
+
+          // Push each cursor batch to the client rather than waiting for the buffer to fill
+          if (++exported % batchSize == 0) {
+            generator.flush();
+          }
+        }
+      } catch (IOException e) {
+        log.info(
+            "StationsExportService: Export aborted after {} stations: {}",
+            exported,
+            e.getMessage());
+        throw e;
+      }
+
+      log.info(
+          "StationsExportService: Exported {} stations in {} ms",
+          exported,
+          (System.nanoTime() - started) / 1_000_000);
+    };
+  }
+}
@@ -0,0 +1,380 @@
+package com.fullstack.station_manager.service;
+
+import com.fullstack.station_manager.dto.response.ScheduleHistoryResponse;
+import com.fullstack.station_manager.dto.response.ScheduleTrendResponse;
+import com.fullstack.station_manager.dto.response.SuccessResponse;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimesObservation;
+import com.fullstack.station_manager.utility.ServiceDays;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Departure history in the {@code stop_times_history} time-series collection. Every refresh
+ * appends one {@link StopTimesObservation} per station, route and service day it read, and
+ * Mongo expires them after {@code station.history.retention}. History and trends are computed by
+ * aggregation pipelines on the server; only their per-route results reach the JVM.
+ */
+@Slf4j
+@Service
+public class StationsHistoryService {
+
+  private static final String COLLECTION = "stop_times_history";
+  private static final int DEFAULT_DAYS = 7;
+  private static final int MAX_DAYS = 366;
+  private static final Set<String> UNITS = Set.of("day", "week", "month");
+
+  private final MongoTemplate mongoTemplate;
+  private final boolean enabled;
+  private final Duration retention;
+  private final ZoneId serviceZone;
+
+  public StationsHistoryService(
+      MongoTemplate mongoTemplate,
+      @Value("${station.history.enabled:true}") boolean enabled,
+      @Value("${station.history.retention:30d}") Duration retention,
+      @Value("${station.service-zone:America/Toronto}") ZoneId serviceZone) {
+    this.mongoTemplate = mongoTemplate;
+    this.enabled = enabled;
+    this.retention = retention;
+    this.serviceZone = serviceZone;
+  }
+
+  /**
+   * Inserts would create a regular collection, so the time-series collection is created up
+   * front. An existing one gets the configured retention applied. Both pipelines match on a
+   * station and a range of service days, which the default index on meta and time cannot bound,
+   * so a secondary index covers that pair.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void createCollection() {
+    if (!enabled) {
+      return;
+    }
+
+    try {
+      if (mongoTemplate.collectionExists(COLLECTION)) {
+        mongoTemplate.executeCommand(
+            new Document("collMod", COLLECTION)
+                .append("expireAfterSeconds", retention.toSeconds()));
+      } else {
+        mongoTemplate.createCollection(
+            COLLECTION,
+            CollectionOptions.timeSeries(
+                "observed_at",
+                options ->
+                    options
+                        .metaField("meta")
+                        .granularity(Granularity.MINUTES)
+                        .expireAfter(retention)));
+        log.info(
+            "StationsHistoryService: Created time-series collection {} with {} retention",
+            COLLECTION,
+            retention);
+      }
+
+      mongoTemplate
+          .indexOps(COLLECTION)
+          .createIndex(
+              new Index()
+                  .on("meta.station", Sort.Direction.ASC)
+                  .on("day", Sort.Direction.ASC)
+                  .named("station_day"));
+    } catch (RuntimeException e) {
+      log.warn(
+          "StationsHistoryService: Could not prepare collection {}: {}",
+          COLLECTION,
+          e.getMessage());
+    }
+  }
+
+  /**
+   * Appends what a refresh saw of {@code stations}. Routes sharing a URI within a station are
+   * observed together. A failed insert is logged and does not fail the refresh.
+   */
+  public void record(Instant observedAt, List<Stations> stations) {
+    if (!enabled) {
+      return;
+    }
+
+    var observations = new ArrayList<StopTimesObservation>();
+    var days = new ServiceDays(serviceZone);
+
+    for (var station : stations) {
+      if (station.getStationRoutes() == null) {
+        continue;
+      }
+
+      var summaries = new LinkedHashMap<StopTimesObservation.Meta, Map<String, Summary>>();
+
+      for (var route : station.getStationRoutes()) {
+        var stopTimes = route.getStopTimes();
+        if (stopTimes == null || stopTimes.size() == 0) {
+          continue;
+        }
+
+        var byDay =
+            summaries.computeIfAbsent(
+                new StopTimesObservation.Meta(station.getStationUri(), route.getUri()),
+                meta -> new LinkedHashMap<>());
+
+        for (long timestamp : stopTimes.getDepartureTimestamps()) {
+          byDay
+              .computeIfAbsent(days.of(timestamp), day -> new Summary())
+              .add(days.secondOfDay(timestamp));
+        }
+      }
+
+      summaries.forEach(
+          (meta, byDay) ->
+              byDay.forEach(
+                  (day, summary) ->
+                      observations.add(
+                          StopTimesObservation.builder()
+                              .observedAt(observedAt)
+                              .meta(meta)
+                              .serviceDay(day)
+                              .departures(summary.count)
+                              .firstDeparture(summary.first)
+                              .lastDeparture(summary.last)
+                              .build())));
+    }
+
+    if (observations.isEmpty()) {
+      return;
+    }
+
+    try {
+      mongoTemplate.insert(observations, StopTimesObservation.class);
+    } catch (RuntimeException e) {
+      log.warn(
+          "StationsHistoryService: Could not record {} observations: {}",
+          observations.size(),
+          e.getMessage());
+    }
+  }
+
+  public SuccessResponse history(
+      String stationUri, String route, LocalDate from, LocalDate to) {
+    var range = range(from, to);
+    var pipeline =
+        List.of(
+            match(stationUri, route, range),
+            stage("$sort", new Document("observed_at", 1)),
+            stage(
+                "$group",
+                new Document("_id", new Document("route", "$meta.route").append("day", "$day"))
+                    .append("n", new Document("$last", "$n"))
+                    .append("first", new Document("$last", "$first"))
+                    .append("last", new Document("$last", "$last"))
+                    .append("observations", new Document("$sum", 1))
+                    .append("firstObserved", new Document("$min", "$observed_at"))
+                    .append("lastObserved", new Document("$max", "$observed_at"))
+                    .append(
+                        "versions",
+                        new Document(
+                            "$addToSet",
+                            new Document("n", "$n")
+                                .append("first", "$first")
+                                .append("last", "$last")))),
+            stage("$addFields", new Document("versions", new Document("$size", "$versions"))),
+            stage("$sort", new Document("_id.day", 1).append("_id.route", 1)));
+
+    var items =
+        aggregate(pipeline).stream()
+            .map(
+                result -> {
+                  var key = result.get("_id", Document.class);
+
+                  return ScheduleHistoryResponse.builder()
+                      .route(key.getString("route"))
+                      .serviceDay(key.getString("day"))
+                      .departures(result.getInteger("n"))
+                      .firstDeparture(clock(result.getInteger("first")))
+                      .lastDeparture(clock(result.getInteger("last")))
+                      .observations(result.getInteger("observations"))
+                      .versions(result.getInteger("versions"))
+                      .firstObserved(result.getDate("firstObserved").toInstant())
+                      .lastObserved(result.getDate("lastObserved").toInstant())
+                      .build();
+                })
+            .toList();
+
+    return SuccessResponse.builder()
+        .message("Successfully fetched schedule history")
+        .data(items)
+        .build();
+  }
+
+  /**
+   * Averages the last observed schedule of each service day per route and period. Periods start
+   * on the first day, Monday or first of the month of the service days they cover.
+   */
+  public SuccessResponse trends(
+      String stationUri, String route, LocalDate from, LocalDate to, String unit) {
+    var range = range(from, to);
+    var period = unit != null ? unit : "day";
+    if (!UNITS.contains(period)) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Unit must be one of day, week or month");
+    }
+
+    var serviceDay = new Document("$dateFromString", new Document("dateString", "$_id.day"));
+    // Mean minutes between the departures of a day; undefined with fewer than two
+    var span = new Document("$subtract", List.of("$last", "$first"));
+    var gaps = new Document("$subtract", List.of("$n", 1));
+    var headway =
+        new Document(
+            "$cond",
+            Arrays.asList(
+                new Document("$gt", List.of("$n", 1)),
+                new Document(
+                    "$divide", List.of(span, new Document("$multiply", List.of(60, gaps)))),
+                null));
+
+    var pipeline =
+        List.of(
+            match(stationUri, route, range),
+            stage("$sort", new Document("observed_at", 1)),
+            stage(
+                "$group",
+                new Document("_id", new Document("route", "$meta.route").append("day", "$day"))
+                    .append("n", new Document("$last", "$n"))
+                    .append("first", new Document("$last", "$first"))
+                    .append("last", new Document("$last", "$last"))),
+            stage(
+                "$group",
+                new Document(
+                        "_id",
+                        new Document("route", "$_id.route")
+                            .append(
+                                "period",
+                                new Document(
+                                    "$dateTrunc",
+                                    new Document("date", serviceDay)
+                                        .append("unit", period)
+                                        .append("startOfWeek", "monday"))))
+                    .append("serviceDays", new Document("$sum", 1))
+                    .append("departures", new Document("$avg", "$n"))
+                    .append("minDepartures", new Document("$min", "$n"))
+                    .append("maxDepartures", new Document("$max", "$n"))
+                    .append("first", new Document("$min", "$first"))
+                    .append("last", new Document("$max", "$last"))
+                    .append("headway", new Document("$avg", headway))),
+            stage("$sort", new Document("_id.route", 1).append("_id.period", 1)));
+
+    var items =
+        aggregate(pipeline).stream()
+            .map(
+                result -> {
+                  var key = result.get("_id", Document.class);
+                  var headwayMinutes = result.get("headway", Number.class);
+
+                  return ScheduleTrendResponse.builder()
+                      .route(key.getString("route"))
+                      .period(
+                          LocalDate.ofInstant(
+                                  key.getDate("period").toInstant(), ZoneOffset.UTC)
+                              .toString())
+                      .serviceDays(result.getInteger("serviceDays"))
+                      .departures(result.get("departures", Number.class).doubleValue())
+                      .minDepartures(result.getInteger("minDepartures"))
+                      .maxDepartures(result.getInteger("maxDepartures"))
+                      .firstDeparture(clock(result.getInteger("first")))
+                      .lastDeparture(clock(result.getInteger("last")))
+                      .headwayMinutes(
+                          headwayMinutes != null ? headwayMinutes.doubleValue() : null)
+                      .build();
+                })
+            .toList();
+
+    return SuccessResponse.builder()
+        .message("Successfully fetched schedule trends")
+        .data(items)
+        .build();
+  }
+
+  private List<Document> aggregate(List<AggregationOperation> pipeline) {
+    return mongoTemplate
+        .aggregate(Aggregation.newAggregation(pipeline), COLLECTION, Document.class)
+        .getMappedResults();
+  }
+
+  // Service days as ISO dates compare as strings; the range defaults to the last week
+  private Range range(LocalDate from, LocalDate to) {
+    var end = to != null ? to : LocalDate.now(serviceZone);
+    var start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+
+    if (start.isAfter(end)) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "From must not be after to");
+    }
+
+    if (ChronoUnit.DAYS.between(start, end) >= MAX_DAYS) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Range must not exceed " + MAX_DAYS + " days");
+    }
+
+    return new Range(start.toString(), end.toString());
+  }
+
+  private static AggregationOperation match(String stationUri, String route, Range range) {
+    var criteria =
+        new Document("meta.station", stationUri)
+            .append("day", new Document("$gte", range.from()).append("$lte", range.to()));
+
+    if (route != null) {
+      criteria.append("meta.route", route);
+    }
+
+    return stage("$match", criteria);
+  }
+
+  private static AggregationOperation stage(String operator, Document body) {
+    return context -> new Document(operator, body);
+  }
+
+  // HH:mm:ss since the start of the service day; a day that ends daylight saving time has 25 hours
+  private static String clock(int secondOfDay) {
+    return "%02d:%02d:%02d".formatted(secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60);
+  }
+
+  private record Range(String from, String to) {}
+
+  private static final class Summary {
+
+    private int count;
+    private int first = Integer.MAX_VALUE;
+    private int last = Integer.MIN_VALUE;
+
+    void add(int secondOfDay) {
+      count++;
+      first = Math.min(first, secondOfDay);
+      last = Math.max(last, secondOfDay);
+    }
+  }
+}
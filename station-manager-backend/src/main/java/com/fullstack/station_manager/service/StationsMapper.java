@@ -0,0 +1,83 @@
+package com.fullstack.station_manager.service;
+
+import com.fullstack.station_manager.dto.external.ExternalStationResponse;
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimes;
+import com.fullstack.station_manager.utility.StringDictionary;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps feed stops to stations. Repeated strings are resolved through the refresh's {@link
+ * StringDictionary}, so every station and route of a refresh shares one instance of each value.
+ */
+@Component
+public class StationsMapper {
+
+  public Stations mapStopToStation(ExternalStationResponse.Stop stop, StringDictionary strings) {
+    return Stations.builder()
+        .stationUri(stop.getUri())
+        .stationAgency(strings.intern(stop.getAgency()))
+        .stationName(strings.intern(stop.getName()))
+        .stationRoutes(mapRoutesToStationRoutes(stop.getRoutes(), strings))
+        .build();
+  }
+
+  public List<StationRoute> mapRoutesToStationRoutes(
+      List<ExternalStationResponse.Route> routes, StringDictionary strings) {
+    if (routes == null) return List.of();
+
+    return routes.stream()
+        .map(route -> mapRouteToStationRoute(route, strings))
+        .collect(Collectors.toList());
+  }
+
+  public StationRoute mapRouteToStationRoute(
+      ExternalStationResponse.Route route, StringDictionary strings) {
+    var routeGroupId = route.getRouteGroupId() != null ? route.getRouteGroupId() : "";
+    var uri = route.getUri() != null ? route.getUri() : "";
+    var name = route.getName() != null ? route.getName() : "";
+
+    var stopTimes = mapStopTimes(route.getStopTimes(), strings);
+
+    return StationRoute.builder()
+        .routeGroupId(strings.intern(routeGroupId))
+        .uri(strings.intern(uri))
+        .name(strings.intern(name))
+        .stopTimesCount(stopTimes.size())
+        .stopTimes(stopTimes)
+        .build();
+  }
+
+  public StopTimes mapStopTimes(
+      List<ExternalStationResponse.StopTime> stopTimes, StringDictionary strings) {
+    if (stopTimes == null) {
+      return StopTimes.EMPTY;
+    }
+
+    var builder = StopTimes.builder();
+    stopTimes.forEach(stopTime -> mapStopTime(builder, stopTime, strings));
+
+    return builder.build();
+  }
+
+  public void mapStopTime(
+      StopTimes.Builder builder,
+      ExternalStationResponse.StopTime stopTime,
+      StringDictionary strings) {
+    var serviceIdValue = stopTime.getServiceId();
+    var serviceId = serviceIdValue != null ? serviceIdValue : 0;
+
+    var departureTime = stopTime.getDepartureTime() != null ? stopTime.getDepartureTime() : "";
+
+    var departureTimestampValue = stopTime.getDepartureTimestamp();
+    var departureTimestamp = departureTimestampValue != null ? departureTimestampValue : 0L;
+
+    String shape = stopTime.getShape() != null ? stopTime.getShape() : "";
+
+    builder.add(
+        serviceId, strings.intern(departureTime), departureTimestamp, strings.intern(shape));
+  }
+}
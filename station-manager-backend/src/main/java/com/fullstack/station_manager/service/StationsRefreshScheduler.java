@@ -0,0 +1,41 @@
+package com.fullstack.station_manager.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes stations in the background. Unchanged feeds are answered with 304 or a matching body
+ * hash and cost one request each; a manual {@code POST /api/stations/save} during a scheduled run
+ * joins that run. The refresh runs on its own thread so the single scheduler thread stays free for
+ * the token write-behind and the SSE heartbeat.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(
+    name = "station.refresh.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class StationsRefreshScheduler {
+
+  private final StationsService stationsService;
+
+  @Scheduled(
+      initialDelayString = "${station.refresh.initial-delay:30s}",
+      fixedDelayString = "${station.refresh.interval:5m}")
+  public void refresh() {
+    stationsService
+        .saveStationsAsync()
+        .whenComplete(
+            (response, error) -> {
+              if (error != null) {
+                log.warn("StationsRefreshScheduler: Refresh failed: {}", error.getMessage());
+              } else {
+                log.info("StationsRefreshScheduler: {}", response.getMessage());
+              }
+            });
+  }
+}
@@ -0,0 +1,106 @@
+package com.fullstack.station_manager.service;
+
+import com.fullstack.station_manager.dto.request.StationsSearchRequest;
+import com.fullstack.station_manager.dto.response.StationsPageResponse;
+import com.fullstack.station_manager.dto.response.SuccessResponse;
+import com.fullstack.station_manager.entity.Stations;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A validated stations search: page size, keyset cursor or page number, and how the result page
+ * is built. Shared by the blocking and the reactive read path so both answer identically.
+ */
+record StationsSearchPlan(StationsSearchRequest request, int size, String afterUri, int page) {
+
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final int MAX_PAGE_SIZE = 200;
+  private static final Set<String> FIELDS =
+      Set.of("stationUri", "stationAgency", "stationName", "stationRoutes");
+
+  static StationsSearchPlan of(StationsSearchRequest request) {
+    if (request.getPage() != null && request.getCursor() != null) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Use either page or cursor, not both");
+    }
+
+    if (request.getPage() != null && request.getPage() < 0) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page must not be negative");
+    }
+
+    checkFields(request.getFields());
+
+    int size =
+        request.getSize() == null
+            ? DEFAULT_PAGE_SIZE
+            : Math.clamp(request.getSize(), 1, MAX_PAGE_SIZE);
+    var afterUri = request.getCursor() != null ? decodeCursor(request.getCursor()) : null;
+    int page = request.getPage() != null ? request.getPage() : 0;
+
+    return new StationsSearchPlan(request, size, afterUri, page);
+  }
+
+  /**
+   * Rejects {@code fields} names outside the projectable set. Exports call it up front, before a
+   * streamed response is committed.
+   */
+  static void checkFields(Collection<String> fields) {
+    if (fields == null) {
+      return;
+    }
+
+    for (var field : fields) {
+      if (!FIELDS.contains(field)) {
+        throw new ResponseStatusException(
+            HttpStatus.BAD_REQUEST,
+            "Unknown field " + field + ", expected one of " + FIELDS.stream().sorted().toList());
+      }
+    }
+  }
+
+  long skip() {
+    return (long) page * size;
+  }
+
+  /** Keyset paging on station_uri: stable under concurrent refreshes and never skips. */
+  boolean keyset() {
+    return request.getCursor() != null || request.getPage() == null;
+  }
+
+  /** Builds the response; {@code total} is only used for page-number paging. */
+  SuccessResponse response(List<Stations> stations, long total) {
+    var response = StationsPageResponse.builder().items(stations).size(size);
+
+    if (keyset()) {
+      if (stations.size() == size) {
+        response.nextCursor(encodeCursor(stations.getLast().getStationUri()));
+      }
+    } else {
+      response.page(page).total(total);
+    }
+
+    return SuccessResponse.builder()
+        .message("Successfully fetched stations")
+        .data(response.build())
+        .build();
+  }
+
+  private static String encodeCursor(String stationUri) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(stationUri.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decodeCursor(String cursor) {
+    try {
+      return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+  }
+}
@@ -1,145 +1,463 @@
 package com.fullstack.station_manager.service;
 
-import com.fullstack.station_manager.dto.external.ExternalStationResponse;
+import com.fullstack.station_manager.dto.request.StationsSearchRequest;
+import com.fullstack.station_manager.dto.response.StationsRefreshResponse;
 import com.fullstack.station_manager.dto.response.SuccessResponse;
 import com.fullstack.station_manager.entity.Stations;
 import com.fullstack.station_manager.repository.StationsRepository;
+import com.fullstack.station_manager.utility.ContentHash;
+import com.fullstack.station_manager.utility.CountingInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class StationsService {
 
-  private final RestTemplate restTemplate;
+  private final StationFeedClient stationFeedClient;
   private final StationsRepository stationsRepository;
+  private final StationsHistoryService stationsHistoryService;
+  private final StationFeedReader stationFeedReader;
+  private final StationsSynchronizer stationsSynchronizer;
+  private final StationsSnapshotService stationsSnapshotService;
+  private final IngestionMetrics ingestionMetrics;
+
+  // Validators and station URIs of each feed's last successful read, for conditional refreshes
+  private final Map<String, FeedState> feedStates = new ConcurrentHashMap<>();
+  private final AtomicReference<CompletableFuture<SuccessResponse>> inFlight =
+      new AtomicReference<>();
 
   @Value("${station.uri}")
-  private String stationUri;
+  private List<String> stationUris;
 
-  public SuccessResponse stationList() {
-    var stations = stationsRepository.findAll();
+  @Value("${station.batch-size:100}")
+  private int batchSize;
 
-    if (stations.isEmpty()) {
-      return SuccessResponse.builder().message("No stations found").build();
-    }
+  @Value("${station.fetch.max-concurrency:8}")
+  private int maxConcurrency;
+
+  public SuccessResponse searchStations(StationsSearchRequest request) {
+    var plan = StationsSearchPlan.of(request);
+    var stations =
+        stationsRepository.search(
+            request.getQ(),
+            request.getAgency(),
+            request.getFields(),
+            plan.afterUri(),
+            plan.skip(),
+            plan.size());
+    var total =
+        plan.keyset() ? 0 : stationsRepository.countMatching(request.getQ(), request.getAgency());
 
-    return SuccessResponse.builder()
-        .message("Successfully fetched all stations")
-        .data(stations)
-        .build();
+    return plan.response(stations, total);
   }
 
+  /**
+   * Refreshes stations from every feed. A call that arrives while a refresh is running waits for
+   * that refresh and returns its result instead of starting another one.
+   */
   public SuccessResponse saveStations() {
+    var refresh = new CompletableFuture<SuccessResponse>();
+    var running = inFlight.compareAndExchange(null, refresh);
+
+    if (running != null) {
+      ingestionMetrics.coalesced();
+      log.info("Refresh already in progress, waiting for its result");
+
+      return running.join();
+    }
+
+    return refresh(refresh);
+  }
+
+  /**
+   * Like {@link #saveStations()}, but runs the refresh on its own virtual thread and returns at
+   * once; the future completes with the result of this refresh or of the one already running.
+   */
+  public CompletableFuture<SuccessResponse> saveStationsAsync() {
+    var refresh = new CompletableFuture<SuccessResponse>();
+    var running = inFlight.compareAndExchange(null, refresh);
+
+    if (running != null) {
+      ingestionMetrics.coalesced();
+      log.info("Refresh already in progress, joining it");
+
+      return running;
+    }
+
+    Thread.ofVirtual()
+        .name("stations-refresh")
+        .start(
+            () -> {
+              try {
+                refresh(refresh);
+              } catch (RuntimeException e) {
+                // Already passed to the future and its callers
+              }
+            });
+
+    return refresh;
+  }
+
+  private SuccessResponse refresh(CompletableFuture<SuccessResponse> refresh) {
     try {
-      log.info("Fetching stations from external API: {}", stationUri);
+      var response = refreshStations();
+      refresh.complete(response);
 
-      var response =
-          restTemplate
-              .exchange(stationUri, HttpMethod.GET, null, ExternalStationResponse.class)
-              .getBody();
+      return response;
+    } catch (RuntimeException e) {
+      refresh.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.set(null);
+    }
+  }
 
-      log.info("Response from external API: {}", response);
+  private SuccessResponse refreshStations() {
+    var sample = ingestionMetrics.start();
+    var outcome = "error";
 
-      if (response != null && response.getStops() != null) {
-        // Map external response to internal Stations entities
-        var stations = mapExternalResponseToStations(response);
+    try {
+      log.info("Fetching stations from {} external feeds: {}", stationUris.size(), stationUris);
 
-        if (!stations.isEmpty()) {
-          // Clear existing stations before saving new ones
-          stationsRepository.deleteAll();
-          stationsRepository.saveAll(stations);
-          log.info("Successfully saved {} stations to database", stations.size());
+      var session = stationsSynchronizer.begin();
+      var feeds = fetchFeeds(session);
 
-          return SuccessResponse.builder()
-              .message("Stations saved successfully")
-              .data(stations)
-              .build();
-        } else {
-          log.warn("No valid stations data to save");
+      var failed = feeds.stream().filter(feed -> !feed.result().isSuccess()).toList();
+      var notModified = feeds.stream().filter(feed -> feed.result().isNotModified()).count();
+      int stations = feeds.stream().mapToInt(feed -> feed.result().getStations()).sum();
+      int batches = feeds.stream().mapToInt(feed -> feed.result().getBatches()).sum();
 
-          return SuccessResponse.builder().message("No valid stations data to save").build();
-        }
-      } else {
+      if (!failed.isEmpty() && failed.size() == feeds.size()) {
+        var error = failed.getFirst().result().getError();
+        log.error("Error fetching stations from external API: all feeds failed");
+        outcome = "failed";
+
+        return SuccessResponse.builder()
+            .message("Failed to fetch stations from external API: " + error)
+            .build();
+      }
+
+      if (failed.isEmpty() && feeds.stream().noneMatch(FeedOutcome::hasStops)) {
         log.warn("No stations data received from external API");
+        outcome = "empty";
 
         return SuccessResponse.builder().message("No stations data available to save").build();
       }
 
+      if (notModified == feeds.size()) {
+        log.info("All {} feeds unchanged since the last refresh, nothing to save", feeds.size());
+        outcome = "not_modified";
+
+        return SuccessResponse.builder()
+            .message("Stations already up to date")
+            .data(
+                StationsRefreshResponse.builder()
+                    .stations(stations)
+                    .unchanged(stations)
+                    .feeds(feeds.stream().map(FeedOutcome::result).toList())
+                    .build())
+            .build();
+      }
+
+      if (failed.isEmpty() && stations == 0) {
+        log.warn("No valid stations data to save");
+        outcome = "empty";
+
+        return SuccessResponse.builder().message("No valid stations data to save").build();
+      }
+
+      long removeStarted = System.nanoTime();
+      var stats = session.finish(failed.isEmpty());
+      ingestionMetrics.phase("remove", System.nanoTime() - removeStarted);
+
+      if (stats.getTouched() > 0) {
+        long snapshotStarted = System.nanoTime();
+        stationsSnapshotService.rebuild();
+        ingestionMetrics.phase("snapshot", System.nanoTime() - snapshotStarted);
+      }
+
+      // Only remember validators once the feed's data is fully written
+      feeds.stream()
+          .filter(feed -> feed.state() != null)
+          .forEach(feed -> feedStates.put(feed.result().getUri(), feed.state()));
+
+      long stopTimes = feeds.stream().mapToLong(FeedOutcome::stopTimes).sum();
+      ingestionMetrics.synced(stations, stopTimes, stats);
+      outcome = failed.isEmpty() ? "success" : "partial";
+
+      log.info(
+          "Successfully synced {} stations from {} feeds ({} failed): {} inserted, {} replaced,"
+              + " {} patched, {} unchanged, {} removed; {} stop time buckets written, {} removed;"
+              + " {} bulk writes",
+          stations,
+          feeds.size(),
+          failed.size(),
+          stats.getInserted(),
+          stats.getReplaced(),
+          stats.getPatched(),
+          stats.getUnchanged(),
+          stats.getRemoved(),
+          stats.getBucketsWritten(),
+          stats.getBucketsRemoved(),
+          stats.getBulkWrites());
+
+      var message =
+          failed.isEmpty()
+              ? "Stations saved successfully"
+              : "Stations saved with " + failed.size() + " of " + feeds.size() + " feeds failing";
+
+      return SuccessResponse.builder()
+          .message(message)
+          .data(
+              StationsRefreshResponse.builder()
+                  .stations(stations)
+                  .batches(batches)
+                  .inserted(stats.getInserted())
+                  .replaced(stats.getReplaced())
+                  .patched(stats.getPatched())
+                  .routesPatched(stats.getRoutesPatched())
+                  .unchanged(stats.getUnchanged())
+                  .removed(stats.getRemoved())
+                  .bucketsWritten(stats.getBucketsWritten())
+                  .bucketsRemoved(stats.getBucketsRemoved())
+                  .touched(stats.getTouched())
+                  .bulkWrites(stats.getBulkWrites())
+                  .failedFeeds(failed.size())
+                  .feeds(feeds.stream().map(FeedOutcome::result).toList())
+                  .build())
+          .build();
+
     } catch (Exception e) {
       log.error("Error fetching stations from external API: {}", e.getMessage(), e);
 
       return SuccessResponse.builder()
           .message("Failed to fetch stations from external API: " + e.getMessage())
           .build();
+    } finally {
+      ingestionMetrics.refreshed(sample, outcome);
+    }
+  }
+
+  // Each feed is fetched, parsed and synced on its own virtual thread, bounded by maxConcurrency
+  private List<FeedOutcome> fetchFeeds(StationsSynchronizer.Session session)
+      throws InterruptedException {
+    var permits = new Semaphore(maxConcurrency);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<FeedOutcome>> futures =
+          stationUris.stream()
+              .map(uri -> executor.submit(() -> fetchFeed(uri, session, permits)))
+              .toList();
+
+      var outcomes = new ArrayList<FeedOutcome>(futures.size());
+      for (var future : futures) {
+        try {
+          outcomes.add(future.get());
+        } catch (ExecutionException e) {
+          throw new IllegalStateException("Feed task failed unexpectedly", e.getCause());
+        }
+      }
+
+      return outcomes;
     }
   }
 
-  private List<Stations> mapExternalResponseToStations(ExternalStationResponse response) {
-    return response.getStops().stream().map(this::mapStopToStation).toList();
+  private FeedOutcome fetchFeed(
+      String uri, StationsSynchronizer.Session session, Semaphore permits)
+      throws InterruptedException {
+    permits.acquire();
+    long started = System.nanoTime();
+    var trace = new FeedTrace();
+    var previous = feedStates.get(uri);
+
+    try {
+      log.info("Fetching stations from external API: {}", uri);
+
+      var read =
+          stationFeedClient.execute(
+              uri,
+              headers -> addValidators(headers, previous),
+              response -> readFeed(response, previous, session, trace));
+
+      trace.record(uri, true, started);
+
+      if (read.summary() == null) {
+        // 304, or a body identical to the last one: nothing to parse or write
+        log.info("Feed {} not modified since the last refresh", uri);
+        session.retain(previous.stationUris());
+
+        var result =
+            StationsRefreshResponse.Feed.builder()
+                .uri(uri)
+                .success(true)
+                .notModified(true)
+                .stations(previous.stationUris().size())
+                .elapsedMillis(elapsedMillis(started))
+                .build();
+
+        return new FeedOutcome(result, !previous.stationUris().isEmpty(), 0, null);
+      }
+
+      var summary = read.summary();
+      var hasStops = summary.hasStops();
+      var result =
+          StationsRefreshResponse.Feed.builder()
+              .uri(uri)
+              .success(true)
+              .stations(hasStops ? summary.stations() : 0)
+              .batches(hasStops ? summary.batches() : 0)
+              .elapsedMillis(elapsedMillis(started))
+              .build();
+
+      return new FeedOutcome(result, hasStops, trace.stopTimes, read.state());
+
+    } catch (Exception e) {
+      log.error("Error fetching stations from external API {}: {}", uri, e.getMessage(), e);
+      trace.record(uri, false, started);
+
+      var result =
+          StationsRefreshResponse.Feed.builder()
+              .uri(uri)
+              .success(false)
+              .elapsedMillis(elapsedMillis(started))
+              .error(e.getMessage())
+              .build();
+
+      return new FeedOutcome(result, false, 0, null);
+
+    } finally {
+      permits.release();
+    }
   }
 
-  private Stations mapStopToStation(ExternalStationResponse.Stop stop) {
-    return Stations.builder()
-        .stationUri(stop.getUri())
-        .stationAgency(stop.getAgency())
-        .stationName(stop.getName())
-        .stationRoutes(mapRoutesToStationRoutes(stop.getRoutes()))
-        .build();
+  private static long elapsedMillis(long startedNanos) {
+    return (System.nanoTime() - startedNanos) / 1_000_000;
   }
 
-  private List<Object> mapRoutesToStationRoutes(List<ExternalStationResponse.Route> routes) {
-    if (routes == null) return List.of();
+  private static void addValidators(HttpHeaders headers, FeedState previous) {
+    if (previous == null) {
+      return;
+    }
+
+    if (previous.etag() != null) {
+      headers.setIfNoneMatch(previous.etag());
+    }
 
-    return routes.stream().map(this::mapRouteToStationRoute).collect(Collectors.toList());
+    if (previous.lastModified() != null) {
+      headers.set(HttpHeaders.IF_MODIFIED_SINCE, previous.lastModified());
+    }
   }
 
-  private Map<String, Object> mapRouteToStationRoute(ExternalStationResponse.Route route) {
-    var routeGroupId = route.getRouteGroupId() != null ? route.getRouteGroupId() : "";
-    var uri = route.getUri() != null ? route.getUri() : "";
-    var name = route.getName() != null ? route.getName() : "";
+  /**
+   * Returns a read without a summary when the feed is unchanged. Feeds that send an ETag or
+   * Last-Modified are parsed while streaming; for feeds that send neither the body is buffered and
+   * hashed first, so an identical body is recognized before any parsing.
+   */
+  private FeedRead readFeed(
+      ClientHttpResponse response,
+      FeedState previous,
+      StationsSynchronizer.Session session,
+      FeedTrace trace)
+      throws IOException {
+    trace.headersAt = System.nanoTime();
+
+    if (previous != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+      return new FeedRead(null, previous);
+    }
+
+    var etag = response.getHeaders().getETag();
+    var lastModified = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+    trace.body = new CountingInputStream(response.getBody());
+
+    InputStream body = trace.body;
+    String bodyHash = null;
+
+    if (etag == null && lastModified == null) {
+      var bytes = trace.body.readAllBytes();
+      bodyHash = ContentHash.of(bytes);
+
+      if (previous != null && bodyHash.equals(previous.bodyHash())) {
+        return new FeedRead(null, previous);
+      }
+
+      body = new ByteArrayInputStream(bytes);
+    }
 
-    var stopTimes = mapStopTimes(route.getStopTimes());
+    var summary =
+        stationFeedReader.read(
+            body, batchSize, session.getStrings(), batch -> write(session, batch, trace));
 
-    return java.util.Map.of(
-        "routeGroupId", routeGroupId,
-        "uri", uri,
-        "name", name,
-        "stopTimesCount", stopTimes.size(),
-        "stopTimes", stopTimes);
+    return new FeedRead(
+        summary, new FeedState(etag, lastModified, bodyHash, Set.copyOf(trace.stationUris)));
   }
 
-  private List<Map<String, Object>> mapStopTimes(List<ExternalStationResponse.StopTime> stopTimes) {
-    if (stopTimes == null) {
-      return List.of();
+  private void write(StationsSynchronizer.Session session, List<Stations> batch, FeedTrace trace) {
+    long started = System.nanoTime();
+
+    for (var station : batch) {
+      trace.stationUris.add(station.getStationUri());
+
+      if (station.getStationRoutes() != null) {
+        for (var route : station.getStationRoutes()) {
+          trace.stopTimes += route.getStopTimesCount();
+        }
+      }
     }
 
-    return stopTimes.stream().map(this::mapStopTime).toList();
+    session.apply(batch);
+    stationsHistoryService.record(session.getStartedAt(), batch);
+    trace.writeNanos += System.nanoTime() - started;
   }
 
-  private Map<String, Object> mapStopTime(ExternalStationResponse.StopTime stopTime) {
-    var serviceIdValue = stopTime.getServiceId();
-    var serviceId = serviceIdValue != null ? serviceIdValue : 0;
+  private record FeedOutcome(
+      StationsRefreshResponse.Feed result, boolean hasStops, long stopTimes, FeedState state) {}
 
-    var departureTime = stopTime.getDepartureTime() != null ? stopTime.getDepartureTime() : "";
+  private record FeedRead(StationFeedReader.Summary summary, FeedState state) {}
 
-    var departureTimestampValue = stopTime.getDepartureTimestamp();
-    var departureTimestamp = departureTimestampValue != null ? departureTimestampValue : 0L;
+  private record FeedState(
+      String etag, String lastModified, String bodyHash, Set<String> stationUris) {}
 
-    String shape = stopTime.getShape() != null ? stopTime.getShape() : "";
+  // Phase timings of one feed; only touched by the virtual thread reading that feed
+  private final class FeedTrace {
 
-    return Map.of(
-        "serviceId", serviceId,
-        "departureTime", departureTime,
-        "departureTimestamp", departureTimestamp,
-        "shape", shape);
+    private long headersAt;
+    private long writeNanos;
+    private long stopTimes;
+    private CountingInputStream body;
+    private final Set<String> stationUris = new HashSet<>();
+
+    void record(String uri, boolean success, long started) {
+      long finished = System.nanoTime();
+
+      if (headersAt > 0) {
+        ingestionMetrics.phase("fetch", headersAt - started);
+        ingestionMetrics.phase("parse", finished - headersAt - writeNanos);
+        ingestionMetrics.phase("write", writeNanos);
+      }
+
+      ingestionMetrics.feed(uri, success, finished - started, body != null ? body.getCount() : 0);
+    }
   }
 }
@@ -0,0 +1,286 @@
+package com.fullstack.station_manager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.station_manager.dto.response.SuccessResponse;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.repository.StationsRepository;
+import com.fullstack.station_manager.utility.StringDictionary;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Service;
+
+/**
+ * Holds the current stations list as an immutable snapshot with the {@code GET /api/stations}
+ * body already serialized in every {@link Format}, each plain and gzipped. A snapshot is
+ * rebuilt from Mongo after every refresh that changed data and swapped in atomically, so reads
+ * never touch Mongo or Jackson. Every swap publishes a {@link Published} event so derived
+ * in-memory indexes can follow.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StationsSnapshotService {
+
+  private final StationsRepository stationsRepository;
+  private final ObjectMapper objectMapper;
+  private final MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+  private final MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter;
+  private final ApplicationEventPublisher eventPublisher;
+
+  private final AtomicReference<Snapshot> current = new AtomicReference<>();
+  private final AtomicLong versions = new AtomicLong();
+  private final ReentrantLock rebuildLock = new ReentrantLock();
+
+  public Snapshot current() {
+    var snapshot = current.get();
+    if (snapshot != null) {
+      return snapshot;
+    }
+
+    // First read after startup: build once, concurrent readers wait for the same snapshot
+    rebuildLock.lock();
+    try {
+      snapshot = current.get();
+      return snapshot != null ? snapshot : rebuildLocked();
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  public Snapshot rebuild() {
+    rebuildLock.lock();
+    try {
+      return rebuildLocked();
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  private Snapshot rebuildLocked() {
+    var stations = load(current.get());
+    var response =
+        stations.isEmpty()
+            ? SuccessResponse.builder().message("No stations found").build()
+            : SuccessResponse.builder()
+                .message("Successfully fetched all stations")
+                .data(stations)
+                .build();
+
+    var json = serialize(objectMapper, response);
+    var hash = HexFormat.of().formatHex(sha256(json), 0, 16);
+    var bodies = new EnumMap<Format, Body>(Format.class);
+
+    for (var format : Format.values()) {
+      var raw = format == Format.JSON ? json : serialize(mapper(format), response);
+      var tag = hash + format.tagSuffix;
+      bodies.put(format, new Body(raw, gzip(raw), "\"" + tag + "\"", "\"" + tag + "-gzip\""));
+    }
+
+    var snapshot =
+        new Snapshot(versions.incrementAndGet(), stations, hash, Map.copyOf(bodies), Instant.now());
+
+    var previous = current.getAndSet(snapshot);
+    log.info(
+        "StationsSnapshotService: Published snapshot v{} with {} stations"
+            + " (JSON {} bytes, {} gzipped; CBOR {}; Smile {})",
+        snapshot.version(),
+        stations.size(),
+        json.length,
+        snapshot.body(Format.JSON).gzip().length,
+        snapshot.body(Format.CBOR).raw().length,
+        snapshot.body(Format.SMILE).raw().length);
+
+    eventPublisher.publishEvent(new Published(previous, snapshot));
+
+    return snapshot;
+  }
+
+  /**
+   * Reads the station documents and joins stop times only for stations whose content hash
+   * changed since {@code previous}; the others reuse the stop times already in memory, so a
+   * refresh reads just the buckets of the stations it touched. Strings are resolved through one
+   * {@link StringDictionary} per snapshot; reused stations are resolved first, so loaded ones
+   * share their instances.
+   */
+  private List<Stations> load(Snapshot previous) {
+    var documents = stationsRepository.findAll();
+    var known = new HashMap<String, Stations>();
+
+    if (previous != null) {
+      for (var station : previous.stations()) {
+        known.put(station.getStationUri(), station);
+      }
+    }
+
+    var stations = new ArrayList<Stations>(documents.size());
+    var changed = new ArrayList<Stations>();
+
+    for (var document : documents) {
+      var station = known.get(document.getStationUri());
+
+      if (station != null
+          && document.getStationHash() != null
+          && document.getStationHash().equals(station.getStationHash())
+          && !missingStopTimes(station)) {
+        stations.add(station);
+      } else {
+        stations.add(null);
+        changed.add(document);
+      }
+    }
+
+    var strings = new StringDictionary();
+    for (int i = 0; i < stations.size(); i++) {
+      if (stations.get(i) != null) {
+        stations.set(i, strings.intern(stations.get(i)));
+      }
+    }
+
+    var loaded = stationsRepository.loadStopTimes(changed).iterator();
+    for (int i = 0; i < stations.size(); i++) {
+      if (stations.get(i) == null) {
+        stations.set(i, strings.intern(loaded.next()));
+      }
+    }
+
+    log.debug(
+        "StationsSnapshotService: Loaded stop times of {} of {} stations, {} distinct strings",
+        changed.size(),
+        stations.size(),
+        strings.size());
+
+    return List.copyOf(stations);
+  }
+
+  // Read before its embedded stop times were moved to buckets
+  private static boolean missingStopTimes(Stations station) {
+    return station.getStationRoutes() != null
+        && station.getStationRoutes().stream()
+            .anyMatch(
+                route ->
+                    route.getStopTimesCount() > 0
+                        && (route.getStopTimes() == null || route.getStopTimes().size() == 0));
+  }
+
+  private ObjectMapper mapper(Format format) {
+    return switch (format) {
+      case JSON -> objectMapper;
+      case CBOR -> cborHttpMessageConverter.getObjectMapper();
+      case SMILE -> smileHttpMessageConverter.getObjectMapper();
+    };
+  }
+
+  private static byte[] serialize(ObjectMapper mapper, SuccessResponse response) {
+    try {
+      return mapper.writeValueAsBytes(response);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize stations snapshot", e);
+    }
+  }
+
+  private static byte[] gzip(byte[] body) {
+    var buffer = new ByteArrayOutputStream(body.length / 4 + 64);
+
+    try (var gzip = new GZIPOutputStream(buffer)) {
+      gzip.write(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return buffer.toByteArray();
+  }
+
+  private static byte[] sha256(byte[] body) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(body);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /** Encodings the snapshot is served in; JSON is the default. */
+  public enum Format {
+    JSON(MediaType.APPLICATION_JSON, ""),
+    CBOR(MediaType.APPLICATION_CBOR, "-cbor"),
+    SMILE(new MediaType("application", "x-jackson-smile"), "-smile");
+
+    private final MediaType mediaType;
+    private final String tagSuffix;
+
+    Format(MediaType mediaType, String tagSuffix) {
+      this.mediaType = mediaType;
+      this.tagSuffix = tagSuffix;
+    }
+
+    public MediaType mediaType() {
+      return mediaType;
+    }
+  }
+
+  /**
+   * Immutable view of the stations collection. The byte arrays are shared between requests and
+   * must not be modified. Each format and encoding is its own representation with its own ETag.
+   */
+  public record Snapshot(
+      long version,
+      List<Stations> stations,
+      String hash,
+      Map<Format, Body> bodies,
+      Instant createdAt) {
+
+    public Body body(Format format) {
+      return bodies.get(format);
+    }
+
+    /**
+     * Whether {@code ifNoneMatch} validates {@code etag}, the tag of the representation that
+     * would be sent. Compared weakly, as If-None-Match requires.
+     */
+    public boolean matches(String ifNoneMatch, String etag) {
+      if (ifNoneMatch == null) {
+        return false;
+      }
+
+      var expected = etag.startsWith("W/") ? etag.substring(2) : etag;
+      for (var candidate : ifNoneMatch.split(",")) {
+        var tag = candidate.trim();
+        if (tag.startsWith("W/")) {
+          tag = tag.substring(2);
+        }
+
+        if (tag.equals("*") || tag.equals(expected)) {
+          return true;
+        }
+      }
+
+      return false;
+    }
+  }
+
+  /** One encoding of the snapshot, plain and gzipped, with the ETag of each. */
+  public record Body(byte[] raw, byte[] gzip, String etag, String gzipEtag) {}
+
+  /** Published after a snapshot was swapped in; {@code previous} is null for the first one. */
+  public record Published(Snapshot previous, Snapshot current) {}
+}
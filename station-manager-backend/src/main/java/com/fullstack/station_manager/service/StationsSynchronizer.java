@@ -0,0 +1,350 @@
+package com.fullstack.station_manager.service;
+
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimesBucket;
+import com.fullstack.station_manager.repository.StationsRepository;
+import com.fullstack.station_manager.utility.ContentHash;
+import com.fullstack.station_manager.utility.SearchWords;
+import com.fullstack.station_manager.utility.StopTimesBuckets;
+import com.fullstack.station_manager.utility.StringDictionary;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Applies a refreshed feed to the stations collection as a diff keyed on {@code station_uri}.
+ * Unchanged stations are skipped, stations whose routes changed in place only get those routes
+ * rewritten, and everything else is inserted, replaced or removed through unordered bulk writes.
+ * Stop times go to {@link StopTimesBucket}s, and of a changed station only the buckets whose
+ * content hash changed are written. A session may be fed batches from several feeds concurrently.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StationsSynchronizer {
+
+  private static final String STATION_URI = "station_uri";
+  private static final String ROUTE = "route";
+  private static final String SERVICE_DAY = "service_day";
+
+  private final MongoTemplate mongoTemplate;
+  private final StationsRepository stationsRepository;
+
+  @Value("${station.service-zone:America/Toronto}")
+  private ZoneId serviceZone;
+
+  public Session begin() {
+    var existing = new HashMap<String, Stations>();
+    var existingBuckets = new HashMap<String, Map<BucketKey, String>>();
+
+    for (var fingerprint : stationsRepository.findAllFingerprints()) {
+      existing.put(fingerprint.getStationUri(), fingerprint);
+    }
+
+    for (var bucket : stationsRepository.findBucketFingerprints()) {
+      existingBuckets
+          .computeIfAbsent(bucket.getStationUri(), uri -> new HashMap<>())
+          .put(BucketKey.of(bucket), bucket.getHash());
+    }
+
+    log.debug(
+        "StationsSynchronizer: Loaded {} existing station and {} bucket fingerprints",
+        existing.size(),
+        existingBuckets.values().stream().mapToInt(Map::size).sum());
+
+    return new Session(existing, existingBuckets);
+  }
+
+  public static void fingerprint(Stations station) {
+    var routes = station.getStationRoutes() != null ? station.getStationRoutes() : List.of();
+    var routeHashes = routes.stream().map(ContentHash::of).toList();
+
+    station.setRouteHashes(routeHashes);
+    // Hashed too, so documents stored before the words existed are patched once to add them
+    station.setStationNameWords(SearchWords.words(station.getStationName()));
+    station.setStationHash(
+        ContentHash.of(
+            Arrays.asList(
+                station.getStationUri(),
+                station.getStationAgency(),
+                station.getStationName(),
+                station.getStationNameWords(),
+                routeHashes)));
+  }
+
+  public class Session {
+
+    private final Map<String, Stations> existing;
+    private final Map<String, Map<BucketKey, String>> existingBuckets;
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+    @Getter private final SyncStats stats = new SyncStats();
+    @Getter private final Instant startedAt = Instant.now();
+
+    // Shared by every feed of the refresh, which may be read concurrently
+    @Getter private final StringDictionary strings = new StringDictionary();
+
+    private Session(
+        Map<String, Stations> existing, Map<String, Map<BucketKey, String>> existingBuckets) {
+      this.existing = existing;
+      this.existingBuckets = existingBuckets;
+    }
+
+    public void apply(List<Stations> batch) {
+      var bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Stations.class);
+      var bucketBulk =
+          mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StopTimesBucket.class);
+      int operations = 0;
+      int bucketOperations = 0;
+
+      for (var station : batch) {
+        if (!seen.add(station.getStationUri())) {
+          log.warn(
+              "StationsSynchronizer: Duplicate station {} in feed, keeping the first occurrence",
+              station.getStationUri());
+          continue;
+        }
+
+        fingerprint(station);
+        var previous = existing.get(station.getStationUri());
+        var previousBuckets =
+            existingBuckets.getOrDefault(station.getStationUri(), Map.<BucketKey, String>of());
+
+        // Stored before the buckets, with the stop times embedded: rewritten in full once
+        var embedded = previousBuckets.isEmpty() && hasStopTimes(station);
+
+        if (previous == null) {
+          bulk.insert(station);
+          stats.inserted.incrementAndGet();
+        } else if (!embedded && station.getStationHash().equals(previous.getStationHash())) {
+          stats.unchanged.incrementAndGet();
+          continue;
+        } else if (embedded || !patchRoutes(bulk, previous, station)) {
+          bulk.replaceOne(
+              byUri(station.getStationUri()), station, FindAndReplaceOptions.empty());
+          stats.replaced.incrementAndGet();
+        }
+
+        operations++;
+        bucketOperations += writeBuckets(bucketBulk, station, previousBuckets);
+      }
+
+      execute(bulk, operations);
+      execute(bucketBulk, bucketOperations);
+    }
+
+    /**
+     * Marks stations as present without rewriting them, for a feed that was not modified since the
+     * last refresh, so that {@link #finish(boolean)} does not remove them as stale.
+     */
+    public void retain(Collection<String> stationUris) {
+      seen.addAll(stationUris);
+      stats.unchanged.addAndGet(stationUris.size());
+    }
+
+    /**
+     * Completes the session. Stale stations are only removed when every feed was read in full;
+     * otherwise stations from a failed feed would be dropped.
+     */
+    public SyncStats finish(boolean removeStale) {
+      if (!removeStale) {
+        return stats;
+      }
+
+      var removed = new ArrayList<String>();
+
+      for (var uri : existing.keySet()) {
+        if (!seen.contains(uri)) {
+          removed.add(uri);
+        }
+      }
+
+      if (!removed.isEmpty()) {
+        var bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Stations.class);
+        bulk.remove(new Query(Criteria.where(STATION_URI).in(removed)));
+        execute(bulk, 1);
+        stats.removed.set(removed.size());
+
+        var bucketBulk =
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StopTimesBucket.class);
+        bucketBulk.remove(new Query(Criteria.where(STATION_URI).in(removed)));
+        execute(bucketBulk, 1);
+        stats.bucketsRemoved.addAndGet(
+            removed.stream()
+                .mapToInt(uri -> existingBuckets.getOrDefault(uri, Map.of()).size())
+                .sum());
+      }
+
+      return stats;
+    }
+
+    // Rewrites only the changed route slots when the route list kept its shape
+    private boolean patchRoutes(BulkOperations bulk, Stations previous, Stations station) {
+      var previousHashes = previous.getRouteHashes();
+      var routeHashes = station.getRouteHashes();
+
+      if (previousHashes == null || previousHashes.size() != routeHashes.size()) {
+        return false;
+      }
+
+      var update =
+          new Update()
+              .set("station_agency", station.getStationAgency())
+              .set("station_name", station.getStationName())
+              .set("station_name_words", station.getStationNameWords())
+              .set("station_hash", station.getStationHash());
+
+      for (int i = 0; i < routeHashes.size(); i++) {
+        if (!Objects.equals(previousHashes.get(i), routeHashes.get(i))) {
+          update.set("station_routes." + i, station.getStationRoutes().get(i));
+          update.set("route_hashes." + i, routeHashes.get(i));
+          stats.routesPatched.incrementAndGet();
+        }
+      }
+
+      bulk.updateOne(byUri(station.getStationUri()), update);
+      stats.patched.incrementAndGet();
+
+      return true;
+    }
+
+    // Inserts new buckets, replaces those whose hash changed and removes the ones left over
+    private int writeBuckets(
+        BulkOperations bulk, Stations station, Map<BucketKey, String> previousBuckets) {
+      var stale = new HashMap<>(previousBuckets);
+      int operations = 0;
+
+      for (var bucket : StopTimesBuckets.split(station, serviceZone)) {
+        var key = BucketKey.of(bucket);
+        var previousHash = stale.remove(key);
+
+        if (previousHash == null) {
+          bulk.insert(bucket);
+        } else if (!previousHash.equals(bucket.getHash())) {
+          bulk.replaceOne(
+              byKey(station.getStationUri(), key), bucket, FindAndReplaceOptions.empty());
+        } else {
+          continue;
+        }
+
+        stats.bucketsWritten.incrementAndGet();
+        operations++;
+      }
+
+      for (var key : stale.keySet()) {
+        bulk.remove(byKey(station.getStationUri(), key));
+        stats.bucketsRemoved.incrementAndGet();
+        operations++;
+      }
+
+      return operations;
+    }
+
+    private void execute(BulkOperations bulk, int operations) {
+      if (operations == 0) {
+        return;
+      }
+
+      bulk.execute();
+      stats.bulkWrites.incrementAndGet();
+    }
+
+    private Query byUri(String stationUri) {
+      return new Query(Criteria.where(STATION_URI).is(stationUri));
+    }
+
+    private Query byKey(String stationUri, BucketKey key) {
+      return new Query(
+          Criteria.where(STATION_URI)
+              .is(stationUri)
+              .and(SERVICE_DAY)
+              .is(key.serviceDay())
+              .and(ROUTE)
+              .is(key.route()));
+    }
+  }
+
+  private static boolean hasStopTimes(Stations station) {
+    return station.getStationRoutes() != null
+        && station.getStationRoutes().stream().anyMatch(route -> route.getStopTimesCount() > 0);
+  }
+
+  private record BucketKey(int route, String serviceDay) {
+
+    static BucketKey of(StopTimesBucket bucket) {
+      return new BucketKey(bucket.getRoute(), bucket.getServiceDay());
+    }
+  }
+
+  public static class SyncStats {
+
+    private final AtomicInteger inserted = new AtomicInteger();
+    private final AtomicInteger replaced = new AtomicInteger();
+    private final AtomicInteger patched = new AtomicInteger();
+    private final AtomicInteger routesPatched = new AtomicInteger();
+    private final AtomicInteger unchanged = new AtomicInteger();
+    private final AtomicInteger removed = new AtomicInteger();
+    private final AtomicInteger bulkWrites = new AtomicInteger();
+    private final AtomicInteger bucketsWritten = new AtomicInteger();
+    private final AtomicInteger bucketsRemoved = new AtomicInteger();
+
+    public int getInserted() {
+      return inserted.get();
+    }
+
+    public int getReplaced() {
+      return replaced.get();
+    }
+
+    public int getPatched() {
+      return patched.get();
+    }
+
+    public int getRoutesPatched() {
+      return routesPatched.get();
+    }
+
+    public int getUnchanged() {
+      return unchanged.get();
+    }
+
+    public int getRemoved() {
+      return removed.get();
+    }
+
+    public int getBulkWrites() {
+      return bulkWrites.get();
+    }
+
+    public int getBucketsWritten() {
+      return bucketsWritten.get();
+    }
+
+    public int getBucketsRemoved() {
+      return bucketsRemoved.get();
+    }
+
+    public int getTouched() {
+      return getInserted() + getReplaced() + getPatched() + getRemoved();
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.fullstack.station_manager.utility;
+
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.StopTimes;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Stable content hash of a mapped station value. Maps are hashed in key order so two structurally
+ * equal documents always produce the same hash regardless of map implementation. Stop times are
+ * hashed by decoded value, so the dictionary layout of a route does not affect its hash.
+ */
+@UtilityClass
+public class ContentHash {
+
+  private static final int HASH_BYTES = 16;
+
+  public static String of(Object value) {
+    var digest = newDigest();
+    update(digest, value);
+
+    return HexFormat.of().formatHex(digest.digest(), 0, HASH_BYTES);
+  }
+
+  private static void update(MessageDigest digest, Object value) {
+    switch (value) {
+      case null -> digest.update((byte) 0);
+      case CharSequence text -> {
+        var bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 's');
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+      }
+      case byte[] bytes -> {
+        digest.update((byte) 'b');
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+      }
+      case Number number -> {
+        digest.update((byte) 'n');
+        digest.update(ByteBuffer.allocate(Long.BYTES).putLong(number.longValue()).array());
+      }
+      case StationRoute route -> {
+        digest.update((byte) 'r');
+        update(digest, route.getRouteGroupId());
+        update(digest, route.getUri());
+        update(digest, route.getName());
+        update(digest, route.getStopTimes());
+      }
+      case StopTimes stopTimes -> {
+        var buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES);
+        digest.update((byte) 't');
+        digest.update(buffer.putInt(0, stopTimes.size()).array(), 0, Integer.BYTES);
+
+        for (int i = 0; i < stopTimes.size(); i++) {
+          buffer.putLong(0, stopTimes.departureTimestamp(i));
+          buffer.putInt(Long.BYTES, stopTimes.serviceId(i));
+          digest.update(buffer.array());
+          update(digest, stopTimes.departureTime(i));
+          update(digest, stopTimes.shape(i));
+        }
+      }
+      case Map<?, ?> map -> {
+        digest.update((byte) 'm');
+        new TreeMap<>(map)
+            .forEach(
+                (key, entry) -> {
+                  update(digest, key);
+                  update(digest, entry);
+                });
+      }
+      case Collection<?> items -> {
+        digest.update((byte) 'l');
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(items.size()).array());
+        items.forEach(item -> update(digest, item));
+      }
+      default -> update(digest, value.toString());
+    }
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
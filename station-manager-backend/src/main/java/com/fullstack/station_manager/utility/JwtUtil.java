@@ -1,14 +1,16 @@
 package com.fullstack.station_manager.utility;
 
+import com.fullstack.station_manager.service.JwtAuthenticationCache;
 import com.fullstack.station_manager.service.JwtService;
-import com.fullstack.station_manager.service.UsersService;
 import io.micrometer.common.util.StringUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
@@ -20,11 +22,21 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class JwtUtil extends OncePerRequestFilter {
 
-  private final JwtService jwtService;
-  private final UsersService usersService;
+  private final JwtAuthenticationCache jwtAuthenticationCache;
+
+  // Time spent authenticating a bearer token, excluding the rest of the filter chain
+  private final Timer authenticated;
+  private final Timer rejected;
+  private final Timer failed;
+
+  public JwtUtil(JwtAuthenticationCache jwtAuthenticationCache, MeterRegistry meterRegistry) {
+    this.jwtAuthenticationCache = jwtAuthenticationCache;
+    this.authenticated = filterTimer(meterRegistry, "authenticated");
+    this.rejected = filterTimer(meterRegistry, "rejected");
+    this.failed = filterTimer(meterRegistry, "error");
+  }
 
   @Override
   protected void doFilterInternal(
@@ -49,26 +61,39 @@ public class JwtUtil extends OncePerRequestFilter {
     }
 
     final String jwtToken = authorizationHeader.substring(7);
+    long started = System.nanoTime();
+    Timer outcome = rejected;
 
     try {
-      final String username = jwtService.extractUsernameFromToken(jwtToken);
+      final JwtService.VerifiedToken verified = jwtAuthenticationCache.verify(jwtToken);
+      final String username = verified.username();
 
       if (StringUtils.isNotEmpty(username)
           && SecurityContextHolder.getContext().getAuthentication() == null) {
-        UserDetails userDetails = usersService.loadUserByUsername(username);
+        UserDetails userDetails = jwtAuthenticationCache.loadUser(username);
 
-        validateToken(userDetails, jwtToken, request);
+        if (validateToken(userDetails, verified, request)) {
+          outcome = authenticated;
+        }
       }
     } catch (Exception e) {
       log.error("JwtUtil: Error processing JWT token: {}", e.getMessage());
+      outcome = failed;
     }
 
+    outcome.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
     filterChain.doFilter(request, response);
   }
 
-  private void validateToken(UserDetails userDetails, String jwtToken, HttpServletRequest request) {
-    boolean isValid = jwtService.validateToken(jwtToken, userDetails);
-    log.info(
+  private boolean validateToken(
+      UserDetails userDetails, JwtService.VerifiedToken verified, HttpServletRequest request) {
+    // Refresh tokens are only accepted by the refresh endpoint
+    boolean isValid =
+        !verified.refresh()
+            && verified.username().equals(userDetails.getUsername())
+            && !verified.isExpired();
+    log.debug(
         "JwtUtil: Token validation result: {} for {} {}",
         isValid,
         request.getMethod(),
@@ -90,5 +115,14 @@ public class JwtUtil extends OncePerRequestFilter {
           request.getMethod(),
           request.getRequestURI());
     }
+
+    return isValid;
+  }
+
+  private static Timer filterTimer(MeterRegistry meterRegistry, String result) {
+    return Timer.builder("security.jwt.filter")
+        .description("Time spent authenticating a bearer token")
+        .tag("result", result)
+        .register(meterRegistry);
   }
 }
@@ -0,0 +1,117 @@
+package com.fullstack.station_manager.utility;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Sorts a {@code long[]} key column together with an {@code int[]} payload column without boxing.
+ * Ties on the key are ordered by payload so the result is deterministic.
+ */
+@UtilityClass
+public class PrimitiveSort {
+
+  private static final int INSERTION_SORT_THRESHOLD = 24;
+
+  public static void sortByKey(long[] keys, int[] values) {
+    if (keys.length != values.length) {
+      throw new IllegalArgumentException("Key and value columns must have the same length");
+    }
+
+    if (isSorted(keys, values)) {
+      return;
+    }
+
+    quickSort(keys, values, 0, keys.length - 1);
+  }
+
+  private static boolean isSorted(long[] keys, int[] values) {
+    for (int i = 1; i < keys.length; i++) {
+      if (compare(keys, values, i - 1, i) > 0) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static void quickSort(long[] keys, int[] values, int low, int high) {
+    while (high - low > INSERTION_SORT_THRESHOLD) {
+      int middle = (low + high) >>> 1;
+      if (compare(keys, values, middle, low) < 0) swap(keys, values, middle, low);
+      if (compare(keys, values, high, low) < 0) swap(keys, values, high, low);
+      if (compare(keys, values, high, middle) < 0) swap(keys, values, high, middle);
+
+      long pivotKey = keys[middle];
+      int pivotValue = values[middle];
+      int i = low;
+      int j = high;
+
+      while (i <= j) {
+        while (compare(keys[i], values[i], pivotKey, pivotValue) < 0) i++;
+        while (compare(keys[j], values[j], pivotKey, pivotValue) > 0) j--;
+        if (i <= j) {
+          swap(keys, values, i++, j--);
+        }
+      }
+
+      // Recurse into the smaller half to bound stack depth
+      if (j - low < high - i) {
+        quickSort(keys, values, low, j);
+        low = i;
+      } else {
+        quickSort(keys, values, i, high);
+        high = j;
+      }
+    }
+
+    for (int i = low + 1; i <= high; i++) {
+      long key = keys[i];
+      int value = values[i];
+      int j = i - 1;
+
+      while (j >= low && compare(keys[j], values[j], key, value) > 0) {
+        keys[j + 1] = keys[j];
+        values[j + 1] = values[j];
+        j--;
+      }
+
+      keys[j + 1] = key;
+      values[j + 1] = value;
+    }
+  }
+
+  private static int compare(long[] keys, int[] values, int left, int right) {
+    return compare(keys[left], values[left], keys[right], values[right]);
+  }
+
+  private static int compare(long leftKey, int leftValue, long rightKey, int rightValue) {
+    int byKey = Long.compare(leftKey, rightKey);
+    return byKey != 0 ? byKey : Integer.compare(leftValue, rightValue);
+  }
+
+  private static void swap(long[] keys, int[] values, int left, int right) {
+    long key = keys[left];
+    keys[left] = keys[right];
+    keys[right] = key;
+
+    int value = values[left];
+    values[left] = values[right];
+    values[right] = value;
+  }
+
+  /** Index of the first key that is {@code >= target}, or {@code keys.length} if none is. */
+  public static int lowerBound(long[] keys, long target) {
+    int low = 0;
+    int high = keys.length;
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (keys[middle] < target) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+}
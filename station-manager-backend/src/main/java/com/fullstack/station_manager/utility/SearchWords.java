@@ -0,0 +1,39 @@
+package com.fullstack.station_manager.utility;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Search form of names: lower case, accents stripped and every run of punctuation or spaces
+ * folded into one space, so "Finch  Station-Stop" and "finch station stop" compare equal.
+ */
+@UtilityClass
+public class SearchWords {
+
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  public static String normalize(String value) {
+    var stripped = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+
+    return SEPARATORS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+  }
+
+  /** Distinct words of the normalized {@code value}, in order; empty for null or blank. */
+  public static List<String> words(String value) {
+    if (value == null) {
+      return List.of();
+    }
+
+    var normalized = normalize(value);
+    if (normalized.isEmpty()) {
+      return List.of();
+    }
+
+    return Arrays.stream(normalized.split(" ")).distinct().toList();
+  }
+}
@@ -0,0 +1,44 @@
+package com.fullstack.station_manager.utility;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Service day of epoch-second departure timestamps: the calendar date of the departure in the
+ * service time zone, as an ISO date. The bounds of the last day are reused, so sorted input
+ * resolves the zone once per day. Not thread-safe; use one instance per pass.
+ */
+public final class ServiceDays {
+
+  private final ZoneId zone;
+  private long dayStart = 1;
+  private long dayEnd = 0;
+  private String day;
+
+  public ServiceDays(ZoneId zone) {
+    this.zone = zone;
+  }
+
+  public String of(long timestamp) {
+    resolve(timestamp);
+
+    return day;
+  }
+
+  /** Seconds since the start of the service day of {@code timestamp}. */
+  public int secondOfDay(long timestamp) {
+    resolve(timestamp);
+
+    return (int) (timestamp - dayStart);
+  }
+
+  private void resolve(long timestamp) {
+    if (timestamp < dayStart || timestamp >= dayEnd) {
+      var date = LocalDate.ofInstant(Instant.ofEpochSecond(timestamp), zone);
+      dayStart = date.atStartOfDay(zone).toEpochSecond();
+      dayEnd = date.plusDays(1).atStartOfDay(zone).toEpochSecond();
+      day = date.toString();
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package com.fullstack.station_manager.utility;
+
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimes;
+import com.fullstack.station_manager.entity.StopTimesBucket;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Splits the stop times of a station into {@link StopTimesBucket}s, one per route and {@link
+ * ServiceDays service day}, and puts them back together. Joined stop times are ordered by service
+ * day and keep the feed order within a day.
+ */
+@UtilityClass
+public class StopTimesBuckets {
+
+  public static List<StopTimesBucket> split(Stations station, ZoneId zone) {
+    var routes = station.getStationRoutes();
+    if (routes == null || routes.isEmpty()) {
+      return List.of();
+    }
+
+    var buckets = new ArrayList<StopTimesBucket>();
+    var days = new ServiceDays(zone);
+
+    for (int route = 0; route < routes.size(); route++) {
+      var stopTimes = routes.get(route).getStopTimes();
+      if (stopTimes == null || stopTimes.size() == 0) {
+        continue;
+      }
+
+      var builders = new LinkedHashMap<String, StopTimes.Builder>();
+      for (int i = 0; i < stopTimes.size(); i++) {
+        builders
+            .computeIfAbsent(days.of(stopTimes.departureTimestamp(i)), day -> StopTimes.builder())
+            .add(
+                stopTimes.serviceId(i),
+                stopTimes.departureTime(i),
+                stopTimes.departureTimestamp(i),
+                stopTimes.shape(i));
+      }
+
+      for (var entry : builders.entrySet()) {
+        var dayStopTimes = entry.getValue().build();
+        buckets.add(
+            StopTimesBucket.builder()
+                .stationUri(station.getStationUri())
+                .route(route)
+                .serviceDay(entry.getKey())
+                .stopTimes(dayStopTimes)
+                .hash(ContentHash.of(dayStopTimes))
+                .build());
+      }
+    }
+
+    return buckets;
+  }
+
+  /**
+   * Returns copies of {@code stations} with the stop times of every route joined from {@code
+   * buckets}. Routes without buckets get {@link StopTimes#EMPTY}; buckets of other stations or of
+   * route slots a station no longer has are ignored.
+   */
+  public static List<Stations> join(List<Stations> stations, Collection<StopTimesBucket> buckets) {
+    var byStation = new HashMap<String, List<StopTimesBucket>>();
+    for (var bucket : buckets) {
+      byStation.computeIfAbsent(bucket.getStationUri(), uri -> new ArrayList<>()).add(bucket);
+    }
+
+    var joined = new ArrayList<Stations>(stations.size());
+    for (var station : stations) {
+      joined.add(join(station, byStation.getOrDefault(station.getStationUri(), List.of())));
+    }
+
+    return joined;
+  }
+
+  private static Stations join(Stations station, List<StopTimesBucket> buckets) {
+    var routes = station.getStationRoutes();
+    if (routes == null) {
+      return station;
+    }
+
+    var byRoute = new HashMap<Integer, List<StopTimesBucket>>();
+    for (var bucket : buckets) {
+      byRoute.computeIfAbsent(bucket.getRoute(), route -> new ArrayList<>()).add(bucket);
+    }
+
+    var joinedRoutes = new ArrayList<StationRoute>(routes.size());
+    for (int route = 0; route < routes.size(); route++) {
+      var stationRoute = routes.get(route);
+      joinedRoutes.add(
+          StationRoute.builder()
+              .routeGroupId(stationRoute.getRouteGroupId())
+              .uri(stationRoute.getUri())
+              .name(stationRoute.getName())
+              .stopTimesCount(stationRoute.getStopTimesCount())
+              .stopTimes(concat(byRoute.getOrDefault(route, List.of())))
+              .build());
+    }
+
+    return Stations.builder()
+        .stationUri(station.getStationUri())
+        .stationAgency(station.getStationAgency())
+        .stationName(station.getStationName())
+        .stationNameWords(station.getStationNameWords())
+        .stationRoutes(joinedRoutes)
+        .stationHash(station.getStationHash())
+        .routeHashes(station.getRouteHashes())
+        .build();
+  }
+
+  private static StopTimes concat(List<StopTimesBucket> buckets) {
+    if (buckets.isEmpty()) {
+      return StopTimes.EMPTY;
+    }
+
+    if (buckets.size() == 1) {
+      return buckets.getFirst().getStopTimes();
+    }
+
+    buckets.sort(Comparator.comparing(StopTimesBucket::getServiceDay));
+    var builder = StopTimes.builder();
+
+    for (var bucket : buckets) {
+      var stopTimes = bucket.getStopTimes();
+      for (int i = 0; i < stopTimes.size(); i++) {
+        builder.add(
+            stopTimes.serviceId(i),
+            stopTimes.departureTime(i),
+            stopTimes.departureTimestamp(i),
+            stopTimes.shape(i));
+      }
+    }
+
+    return builder.build();
+  }
+}
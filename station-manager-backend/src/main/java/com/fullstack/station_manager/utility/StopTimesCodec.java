@@ -0,0 +1,156 @@
+package com.fullstack.station_manager.utility;
+
+import com.fullstack.station_manager.entity.StopTimes;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import lombok.experimental.UtilityClass;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+/**
+ * Compact Mongo layout for {@link StopTimes}. Each column is packed into a single binary value
+ * instead of one sub-document per stop time:
+ *
+ * <pre>
+ * { n: 42, dict: ["12:05a", "Finch Station", ...],
+ *   ts: &lt;delta zig-zag varints&gt;, sid: &lt;zig-zag varints&gt;,
+ *   dt: &lt;varint codes&gt;, sh: &lt;varint codes&gt; }
+ * </pre>
+ */
+@UtilityClass
+public class StopTimesCodec {
+
+  private static final String SIZE = "n";
+  private static final String DICTIONARY = "dict";
+  private static final String TIMESTAMPS = "ts";
+  private static final String SERVICE_IDS = "sid";
+  private static final String DEPARTURE_TIMES = "dt";
+  private static final String SHAPES = "sh";
+
+  public static Document encode(StopTimes stopTimes) {
+    int size = stopTimes.size();
+    var timestamps = new VarIntWriter(size * 2);
+    var serviceIds = new VarIntWriter(size);
+    var departureTimes = new VarIntWriter(size);
+    var shapes = new VarIntWriter(size);
+
+    long previous = 0;
+    for (int i = 0; i < size; i++) {
+      long timestamp = stopTimes.departureTimestamp(i);
+      timestamps.writeSigned(timestamp - previous);
+      previous = timestamp;
+
+      serviceIds.writeSigned(stopTimes.serviceId(i));
+      departureTimes.writeUnsigned(stopTimes.getDepartureTimeCodes()[i]);
+      shapes.writeUnsigned(stopTimes.getShapeCodes()[i]);
+    }
+
+    return new Document(SIZE, size)
+        .append(DICTIONARY, List.of(stopTimes.getDictionary()))
+        .append(TIMESTAMPS, new Binary(timestamps.toByteArray()))
+        .append(SERVICE_IDS, new Binary(serviceIds.toByteArray()))
+        .append(DEPARTURE_TIMES, new Binary(departureTimes.toByteArray()))
+        .append(SHAPES, new Binary(shapes.toByteArray()));
+  }
+
+  public static StopTimes decode(Document document) {
+    int size = document.getInteger(SIZE, 0);
+    if (size == 0) {
+      return StopTimes.EMPTY;
+    }
+
+    var dictionary = document.getList(DICTIONARY, String.class).toArray(String[]::new);
+    var timestamps = new VarIntReader(document.get(TIMESTAMPS, Binary.class).getData());
+    var serviceIds = new VarIntReader(document.get(SERVICE_IDS, Binary.class).getData());
+    var departureTimes = new VarIntReader(document.get(DEPARTURE_TIMES, Binary.class).getData());
+    var shapes = new VarIntReader(document.get(SHAPES, Binary.class).getData());
+
+    var timestampColumn = new long[size];
+    var serviceIdColumn = new int[size];
+    var departureTimeColumn = new int[size];
+    var shapeColumn = new int[size];
+
+    long previous = 0;
+    for (int i = 0; i < size; i++) {
+      previous += timestamps.readSigned();
+      timestampColumn[i] = previous;
+      serviceIdColumn[i] = (int) serviceIds.readSigned();
+      departureTimeColumn[i] = (int) departureTimes.readUnsigned();
+      shapeColumn[i] = (int) shapes.readUnsigned();
+    }
+
+    return new StopTimes(
+        timestampColumn, serviceIdColumn, departureTimeColumn, shapeColumn, dictionary);
+  }
+
+  @WritingConverter
+  public static class Writer implements Converter<StopTimes, Document> {
+
+    @Override
+    public Document convert(StopTimes source) {
+      return encode(source);
+    }
+  }
+
+  @ReadingConverter
+  public static class Reader implements Converter<Document, StopTimes> {
+
+    @Override
+    public StopTimes convert(Document source) {
+      return decode(source);
+    }
+  }
+
+  private static final class VarIntWriter extends ByteArrayOutputStream {
+
+    VarIntWriter(int capacity) {
+      super(Math.max(capacity, 1));
+    }
+
+    void writeSigned(long value) {
+      writeUnsigned((value << 1) ^ (value >> 63));
+    }
+
+    void writeUnsigned(long value) {
+      while ((value & ~0x7FL) != 0) {
+        super.write((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+
+      super.write((int) value);
+    }
+  }
+
+  private static final class VarIntReader {
+
+    private final byte[] data;
+    private int position;
+
+    VarIntReader(byte[] data) {
+      this.data = data;
+    }
+
+    long readSigned() {
+      long value = readUnsigned();
+
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    long readUnsigned() {
+      long value = 0;
+      int shift = 0;
+      byte current;
+
+      do {
+        current = data[position++];
+        value |= (long) (current & 0x7F) << shift;
+        shift += 7;
+      } while ((current & 0x80) != 0);
+
+      return value;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.fullstack.station_manager.utility;
+
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimes;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances of the strings a feed repeats across stations and routes: agencies, route
+ * ids, URIs and names, departure times and shapes. Equal values resolve to one {@code String}, so
+ * the rest are garbage once mapped. Scoped to one refresh or snapshot and dropped with it, unlike
+ * {@link String#intern()}. Safe for concurrent use.
+ */
+public final class StringDictionary {
+
+  private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+
+  public String intern(String value) {
+    if (value == null) {
+      return null;
+    }
+
+    var existing = values.putIfAbsent(value, value);
+
+    return existing != null ? existing : value;
+  }
+
+  public int size() {
+    return values.size();
+  }
+
+  /**
+   * Returns {@code station}, or a copy of it when one of its strings was not canonical. Stop
+   * times keep their codes; only their per-route dictionary is swapped.
+   */
+  public Stations intern(Stations station) {
+    var routes = station.getStationRoutes();
+    var internedRoutes = routes != null ? new ArrayList<StationRoute>(routes.size()) : null;
+    boolean changed = false;
+
+    if (routes != null) {
+      for (var route : routes) {
+        var interned = intern(route);
+        internedRoutes.add(interned);
+        changed |= interned != route;
+      }
+    }
+
+    var agency = intern(station.getStationAgency());
+    var name = intern(station.getStationName());
+    if (!changed && agency == station.getStationAgency() && name == station.getStationName()) {
+      return station;
+    }
+
+    return Stations.builder()
+        .stationUri(station.getStationUri())
+        .stationAgency(agency)
+        .stationName(name)
+        .stationNameWords(station.getStationNameWords())
+        .stationRoutes(internedRoutes)
+        .stationHash(station.getStationHash())
+        .routeHashes(station.getRouteHashes())
+        .build();
+  }
+
+  private StationRoute intern(StationRoute route) {
+    var routeGroupId = intern(route.getRouteGroupId());
+    var uri = intern(route.getUri());
+    var name = intern(route.getName());
+    var stopTimes = route.getStopTimes() != null ? intern(route.getStopTimes()) : null;
+
+    if (routeGroupId == route.getRouteGroupId()
+        && uri == route.getUri()
+        && name == route.getName()
+        && stopTimes == route.getStopTimes()) {
+      return route;
+    }
+
+    return StationRoute.builder()
+        .routeGroupId(routeGroupId)
+        .uri(uri)
+        .name(name)
+        .stopTimesCount(route.getStopTimesCount())
+        .stopTimes(stopTimes)
+        .build();
+  }
+
+  private StopTimes intern(StopTimes stopTimes) {
+    var dictionary = stopTimes.getDictionary();
+    String[] interned = null;
+
+    for (int i = 0; i < dictionary.length; i++) {
+      var value = intern(dictionary[i]);
+      if (value != dictionary[i] && interned == null) {
+        interned = dictionary.clone();
+      }
+      if (interned != null) {
+        interned[i] = value;
+      }
+    }
+
+    if (interned == null) {
+      return stopTimes;
+    }
+
+    return new StopTimes(
+        stopTimes.getDepartureTimestamps(),
+        stopTimes.getServiceIds(),
+        stopTimes.getDepartureTimeCodes(),
+        stopTimes.getShapeCodes(),
+        interned);
+  }
+}
@@ -0,0 +1,120 @@
+package com.fullstack.station_manager.perf;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+/**
+ * Deterministic feeds shaped like {@code https://myttc.ca/finch_station.json}. The same size and
+ * seed always produce the same bytes, so benchmark and load runs are comparable across builds.
+ */
+public final class FeedFixtures {
+
+  private static final long FIRST_DEPARTURE = 1_700_000_000L;
+  private static final String[] ROUTE_NAMES = {
+    "Finch East", "Finch West", "Yonge-University", "Steeles East", "Bayview",
+    "Dufferin", "Don Mills", "Sheppard East", "Leslie", "Victoria Park"
+  };
+
+  private FeedFixtures() {}
+
+  /** Sizes roughly matching a quiet stop, the real Finch feed and a large interchange. */
+  public enum Size {
+    SMALL(1, 4, 25),
+    FINCH(14, 6, 120),
+    LARGE(250, 8, 200);
+
+    private final int stops;
+    private final int routesPerStop;
+    private final int stopTimesPerRoute;
+
+    Size(int stops, int routesPerStop, int stopTimesPerRoute) {
+      this.stops = stops;
+      this.routesPerStop = routesPerStop;
+      this.stopTimesPerRoute = stopTimesPerRoute;
+    }
+
+    public int stopTimes() {
+      return stops * routesPerStop * stopTimesPerRoute;
+    }
+  }
+
+  public static byte[] feed(Size size) {
+    return feed(size.stops, size.routesPerStop, size.stopTimesPerRoute, 42);
+  }
+
+  public static byte[] feed(int stops, int routesPerStop, int stopTimesPerRoute, long seed) {
+    var random = new Random(seed);
+    var buffer = new ByteArrayOutputStream(stops * routesPerStop * stopTimesPerRoute * 120);
+
+    try (var json = new JsonFactory().createGenerator(buffer)) {
+      json.writeStartObject();
+      json.writeStringField("name", "Finch Station");
+      json.writeStringField("uri", "finch_station");
+      json.writeArrayFieldStart("stops");
+
+      for (int stop = 0; stop < stops; stop++) {
+        writeStop(json, random, stop, routesPerStop, stopTimesPerRoute);
+      }
+
+      json.writeEndArray();
+      json.writeEndObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return buffer.toByteArray();
+  }
+
+  private static void writeStop(
+      JsonGenerator json, Random random, int stop, int routes, int stopTimes) throws IOException {
+    var stopName = stop == 0 ? "Finch Station" : "Finch Station Stop " + stop;
+
+    json.writeStartObject();
+    json.writeStringField("agency", "Toronto Transit Commission");
+    json.writeStringField("uri", "finch_station_stop_" + stop);
+    json.writeStringField("name", stopName);
+    json.writeArrayFieldStart("routes");
+
+    for (int route = 0; route < routes; route++) {
+      var name = ROUTE_NAMES[(stop + route) % ROUTE_NAMES.length];
+      var number = 30 + (stop + route) % ROUTE_NAMES.length;
+
+      json.writeStartObject();
+      json.writeStringField("route_group_id", String.valueOf(number));
+      json.writeStringField("uri", number + "_" + name.toLowerCase().replaceAll("\\W+", "_"));
+      json.writeStringField("name", name);
+      json.writeArrayFieldStart("stop_times");
+
+      long departure = FIRST_DEPARTURE + random.nextInt(600);
+      for (int i = 0; i < stopTimes; i++) {
+        departure += 120 + random.nextInt(780);
+
+        json.writeStartObject();
+        json.writeNumberField("service_id", 1 + random.nextInt(3));
+        json.writeStringField("departure_time", clock(departure));
+        json.writeNumberField("departure_timestamp", departure);
+        json.writeStringField("shape", number + " " + name + " towards " + stopName);
+        json.writeEndObject();
+      }
+
+      json.writeEndArray();
+      json.writeEndObject();
+    }
+
+    json.writeEndArray();
+    json.writeEndObject();
+  }
+
+  // The feed's own 12-hour format, e.g. "5:41a" or "12:05p"
+  private static String clock(long epochSeconds) {
+    int minutes = (int) ((epochSeconds / 60) % (24 * 60));
+    int hour = minutes / 60;
+    int displayHour = hour % 12 == 0 ? 12 : hour % 12;
+
+    return "%d:%02d%s".formatted(displayHour, minutes % 60, hour < 12 ? "a" : "p");
+  }
+}
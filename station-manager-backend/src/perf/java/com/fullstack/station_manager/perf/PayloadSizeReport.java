@@ -0,0 +1,148 @@
+package com.fullstack.station_manager.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fullstack.station_manager.configuration.PayloadFormatsConfig;
+import com.fullstack.station_manager.dto.external.ExternalStationResponse;
+import com.fullstack.station_manager.dto.response.SuccessResponse;
+import com.fullstack.station_manager.service.StationsMapper;
+import com.fullstack.station_manager.service.StationsSnapshotService.Format;
+import com.fullstack.station_manager.utility.StringDictionary;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Size and encode time of the {@code GET /api/stations} body per format, plain and gzipped, on
+ * the feed fixtures. Encode times are the median of repeated runs after a warm-up; use {@code
+ * StationsPayloadBenchmark} for rigorous timings.
+ *
+ * <pre>
+ * ./mvnw -Pperf test-compile exec:exec@payload
+ * </pre>
+ *
+ * Results are printed and written to {@code target/payload-report.json}, or to the path given as
+ * the first argument.
+ */
+public final class PayloadSizeReport {
+
+  private static final int WARMUP = 20;
+  private static final int RUNS = 30;
+
+  private PayloadSizeReport() {}
+
+  public static void main(String[] args) throws IOException {
+    var rows = new ArrayList<Map<String, Object>>();
+
+    System.out.printf(
+        "%-6s %-6s %12s %12s %8s %12s %12s%n",
+        "size", "format", "bytes", "gzip bytes", "vs JSON", "encode us", "+gzip us");
+
+    for (var size : FeedFixtures.Size.values()) {
+      var response = response(size);
+      long jsonGzip = 0;
+
+      for (var format : Format.values()) {
+        var mapper = mapper(format);
+        var raw = mapper.writeValueAsBytes(response);
+        var gzip = gzip(raw);
+        if (format == Format.JSON) {
+          jsonGzip = gzip.length;
+        }
+
+        long encodeNanos = median(() -> mapper.writeValueAsBytes(response));
+        long gzipNanos = median(() -> gzip(mapper.writeValueAsBytes(response)));
+        double ratio = (double) gzip.length / jsonGzip;
+
+        System.out.printf(
+            "%-6s %-6s %,12d %,12d %7.0f%% %,12.1f %,12.1f%n",
+            size,
+            format,
+            raw.length,
+            gzip.length,
+            ratio * 100,
+            encodeNanos / 1_000.0,
+            gzipNanos / 1_000.0);
+
+        var row = new LinkedHashMap<String, Object>();
+        row.put("size", size.name());
+        row.put("stopTimes", size.stopTimes());
+        row.put("format", format.name());
+        row.put("mediaType", format.mediaType().toString());
+        row.put("bytes", raw.length);
+        row.put("gzipBytes", gzip.length);
+        row.put("gzipRatioToJson", ratio);
+        row.put("encodeMicros", encodeNanos / 1_000.0);
+        row.put("encodeGzipMicros", gzipNanos / 1_000.0);
+        rows.add(row);
+      }
+    }
+
+    var output = Path.of(args.length > 0 ? args[0] : "target/payload-report.json");
+    Files.createDirectories(output.toAbsolutePath().getParent());
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), rows);
+    System.out.println("Results written to " + output.toAbsolutePath());
+  }
+
+  /** Mapper for {@code format}, built on the same factories the application uses. */
+  public static ObjectMapper mapper(Format format) {
+    return switch (format) {
+      case JSON -> new ObjectMapper();
+      case CBOR -> new ObjectMapper(PayloadFormatsConfig.cborFactory());
+      case SMILE -> new ObjectMapper(PayloadFormatsConfig.smileFactory());
+    };
+  }
+
+  /** The {@code GET /api/stations} response for a fixture feed. */
+  public static SuccessResponse response(FeedFixtures.Size size) throws IOException {
+    var mapper = new StationsMapper();
+    var strings = new StringDictionary();
+    var feed = new ObjectMapper().readValue(FeedFixtures.feed(size), ExternalStationResponse.class);
+
+    return SuccessResponse.builder()
+        .message("Successfully fetched all stations")
+        .data(
+            feed.getStops().stream().map(stop -> mapper.mapStopToStation(stop, strings)).toList())
+        .build();
+  }
+
+  private static long median(Encoder encoder) throws IOException {
+    for (int i = 0; i < WARMUP; i++) {
+      encoder.encode();
+    }
+
+    var samples = new long[RUNS];
+    for (int i = 0; i < RUNS; i++) {
+      long started = System.nanoTime();
+      encoder.encode();
+      samples[i] = System.nanoTime() - started;
+    }
+
+    Arrays.sort(samples);
+    return samples[RUNS / 2];
+  }
+
+  private static byte[] gzip(byte[] body) {
+    var buffer = new ByteArrayOutputStream(body.length / 4 + 64);
+
+    try (var gzip = new GZIPOutputStream(buffer)) {
+      gzip.write(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return buffer.toByteArray();
+  }
+
+  private interface Encoder {
+
+    byte[] encode() throws IOException;
+  }
+}
@@ -0,0 +1,249 @@
+package com.fullstack.station_manager.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fullstack.station_manager.configuration.MongoConfig;
+import com.fullstack.station_manager.dto.external.ExternalStationResponse;
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimes;
+import com.fullstack.station_manager.service.StationsMapper;
+import com.fullstack.station_manager.utility.StopTimesBuckets;
+import com.fullstack.station_manager.utility.StringDictionary;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+/**
+ * Heap and Mongo storage of the feed fixtures' strings with and without the per-refresh {@link
+ * StringDictionary}.
+ *
+ * <pre>
+ * ./mvnw -Pperf test-compile exec:exec@strings
+ * </pre>
+ *
+ * Heap is the shallow size of every distinct {@code String} instance the mapped stations
+ * reference, assuming compressed oops and compact strings: a 24-byte {@code String} plus its
+ * {@code byte[]} with a 16-byte header, aligned to 8 bytes. Without the dictionary each route
+ * keeps its own copies, as per-route {@link StopTimes} dictionaries did. Storage is the BSON size
+ * of the documents written by the application's converter, compared with stop times embedded as
+ * one sub-document each.
+ *
+ * <p>Results are printed and written to {@code target/strings-report.json}, or to the path given
+ * as the first argument.
+ */
+public final class StringDictionaryReport {
+
+  private static final ZoneId SERVICE_ZONE = ZoneId.of("America/Toronto");
+  private static final DocumentCodec BSON = new DocumentCodec();
+
+  private StringDictionaryReport() {}
+
+  public static void main(String[] args) throws IOException {
+    var converter = converter();
+    var rows = new ArrayList<Map<String, Object>>();
+
+    System.out.printf(
+        "%-6s %10s %10s %10s %12s %12s %7s %12s %12s %7s%n",
+        "size",
+        "stop times",
+        "strings",
+        "shared",
+        "heap bytes",
+        "shared",
+        "saved",
+        "bson plain",
+        "bson coded",
+        "saved");
+
+    for (var size : FeedFixtures.Size.values()) {
+      var feed =
+          new ObjectMapper().readValue(FeedFixtures.feed(size), ExternalStationResponse.class);
+      var mapper = new StationsMapper();
+      var strings = new StringDictionary();
+
+      var perRoute = new ArrayList<Stations>();
+      var shared = new ArrayList<Stations>();
+      for (var stop : feed.getStops()) {
+        perRoute.add(perRoute(mapper, stop));
+        shared.add(mapper.mapStopToStation(stop, strings));
+      }
+
+      var perRouteStrings = strings(perRoute);
+      var sharedStrings = strings(shared);
+      long perRouteHeap = heap(perRouteStrings);
+      long sharedHeap = heap(sharedStrings);
+      long plain = plain(shared);
+      long coded = coded(converter, shared);
+
+      System.out.printf(
+          "%-6s %,10d %,10d %,10d %,12d %,12d %6.0f%% %,12d %,12d %6.0f%%%n",
+          size,
+          size.stopTimes(),
+          perRouteStrings.size(),
+          sharedStrings.size(),
+          perRouteHeap,
+          sharedHeap,
+          saved(perRouteHeap, sharedHeap),
+          plain,
+          coded,
+          saved(plain, coded));
+
+      var row = new LinkedHashMap<String, Object>();
+      row.put("size", size.name());
+      row.put("stopTimes", size.stopTimes());
+      row.put("stringInstances", perRouteStrings.size());
+      row.put("sharedStringInstances", sharedStrings.size());
+      row.put("heapBytes", perRouteHeap);
+      row.put("sharedHeapBytes", sharedHeap);
+      row.put("heapSavedPercent", saved(perRouteHeap, sharedHeap));
+      row.put("bsonPlainBytes", plain);
+      row.put("bsonCodedBytes", coded);
+      row.put("bsonSavedPercent", saved(plain, coded));
+      rows.add(row);
+    }
+
+    var output = Path.of(args.length > 0 ? args[0] : "target/strings-report.json");
+    Files.createDirectories(output.toAbsolutePath().getParent());
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), rows);
+    System.out.println("Results written to " + output.toAbsolutePath());
+  }
+
+  // A dictionary per route dedups only within the route, like the per-route StopTimes dictionary
+  private static Stations perRoute(StationsMapper mapper, ExternalStationResponse.Stop stop) {
+    var routes = new ArrayList<StationRoute>();
+    if (stop.getRoutes() != null) {
+      for (var route : stop.getRoutes()) {
+        routes.add(mapper.mapRouteToStationRoute(route, new StringDictionary()));
+      }
+    }
+
+    return Stations.builder()
+        .stationUri(stop.getUri())
+        .stationAgency(stop.getAgency())
+        .stationName(stop.getName())
+        .stationRoutes(routes)
+        .build();
+  }
+
+  private static Set<String> strings(List<Stations> stations) {
+    Set<String> strings = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    for (var station : stations) {
+      strings.add(station.getStationUri());
+      strings.add(station.getStationAgency());
+      strings.add(station.getStationName());
+
+      for (var route : station.getStationRoutes()) {
+        strings.add(route.getRouteGroupId());
+        strings.add(route.getUri());
+        strings.add(route.getName());
+        Collections.addAll(strings, route.getStopTimes().getDictionary());
+      }
+    }
+
+    strings.remove(null);
+    return strings;
+  }
+
+  private static long heap(Set<String> strings) {
+    long bytes = 0;
+
+    for (var value : strings) {
+      boolean latin1 = value.chars().allMatch(c -> c < 256);
+      long array = 16L + (latin1 ? value.length() : value.length() * 2L);
+      bytes += 24 + ((array + 7) & ~7L);
+    }
+
+    return bytes;
+  }
+
+  private static long plain(List<Stations> stations) {
+    long bytes = 0;
+
+    for (var station : stations) {
+      var routes = new ArrayList<Document>();
+      for (var route : station.getStationRoutes()) {
+        var stopTimes = route.getStopTimes();
+        var embedded = new ArrayList<Document>(stopTimes.size());
+
+        for (int i = 0; i < stopTimes.size(); i++) {
+          embedded.add(
+              new Document("serviceId", stopTimes.serviceId(i))
+                  .append("departureTime", stopTimes.departureTime(i))
+                  .append("departureTimestamp", stopTimes.departureTimestamp(i))
+                  .append("shape", stopTimes.shape(i)));
+        }
+
+        routes.add(
+            new Document("routeGroupId", route.getRouteGroupId())
+                .append("uri", route.getUri())
+                .append("name", route.getName())
+                .append("stopTimes", embedded));
+      }
+
+      bytes +=
+          bson(
+              new Document("station_uri", station.getStationUri())
+                  .append("station_agency", station.getStationAgency())
+                  .append("station_name", station.getStationName())
+                  .append("station_routes", routes));
+    }
+
+    return bytes;
+  }
+
+  // Lean station documents plus one stop times bucket per route and service day
+  private static long coded(MappingMongoConverter converter, List<Stations> stations) {
+    long bytes = 0;
+
+    for (var station : stations) {
+      var document = new Document();
+      converter.write(station, document);
+      bytes += bson(document);
+
+      for (var bucket : StopTimesBuckets.split(station, SERVICE_ZONE)) {
+        var bucketDocument = new Document();
+        converter.write(bucket, bucketDocument);
+        bytes += bson(bucketDocument);
+      }
+    }
+
+    return bytes;
+  }
+
+  private static MappingMongoConverter converter() {
+    var conversions = new MongoConfig().mongoCustomConversions();
+    var context = new MongoMappingContext();
+    context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+    context.afterPropertiesSet();
+
+    var converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+    converter.setCustomConversions(conversions);
+    converter.afterPropertiesSet();
+
+    return converter;
+  }
+
+  private static long bson(Document document) {
+    return new RawBsonDocument(document, BSON).getByteBuffer().remaining();
+  }
+
+  private static double saved(long before, long after) {
+    return before == 0 ? 0 : (1 - (double) after / before) * 100;
+  }
+}
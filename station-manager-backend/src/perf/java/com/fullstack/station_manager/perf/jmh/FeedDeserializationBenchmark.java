@@ -0,0 +1,55 @@
+package com.fullstack.station_manager.perf.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.station_manager.dto.external.ExternalStationResponse;
+import com.fullstack.station_manager.perf.FeedFixtures;
+import com.fullstack.station_manager.service.StationFeedReader;
+import com.fullstack.station_manager.service.StationsMapper;
+import com.fullstack.station_manager.utility.StringDictionary;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Whole-document data binding of the feed against the streaming reader used by ingestion, which
+ * maps one stop at a time into batches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FeedDeserializationBenchmark {
+
+  @Param({"SMALL", "FINCH", "LARGE"})
+  public FeedFixtures.Size size;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final StationFeedReader reader =
+      new StationFeedReader(objectMapper, new StationsMapper());
+
+  private byte[] feed;
+
+  @Setup
+  public void setUp() {
+    feed = FeedFixtures.feed(size);
+  }
+
+  @Benchmark
+  public ExternalStationResponse databind() throws IOException {
+    return objectMapper.readValue(feed, ExternalStationResponse.class);
+  }
+
+  @Benchmark
+  public StationFeedReader.Summary streamingRead(Blackhole blackhole) throws IOException {
+    return reader.read(
+        new ByteArrayInputStream(feed), 100, new StringDictionary(), blackhole::consume);
+  }
+}
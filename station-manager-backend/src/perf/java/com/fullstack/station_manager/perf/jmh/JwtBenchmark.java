@@ -0,0 +1,49 @@
+package com.fullstack.station_manager.perf.jmh;
+
+import com.fullstack.station_manager.entity.Users;
+import com.fullstack.station_manager.service.JwtService;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+
+  private final JwtService jwtService = new JwtService();
+  private final Users user = Users.builder().username("benchmark").password("unused").build();
+
+  private String token;
+
+  @Setup
+  public void setUp() {
+    token = jwtService.generateToken(user);
+  }
+
+  @Benchmark
+  public String generateToken() {
+    return jwtService.generateToken(user);
+  }
+
+  @Benchmark
+  public String generateRefreshToken() {
+    return jwtService.generateRefreshToken(new HashMap<>(), user);
+  }
+
+  @Benchmark
+  public JwtService.VerifiedToken verify() {
+    return jwtService.verify(token);
+  }
+
+  @Benchmark
+  public boolean validateToken() {
+    return jwtService.validateToken(token, user);
+  }
+}
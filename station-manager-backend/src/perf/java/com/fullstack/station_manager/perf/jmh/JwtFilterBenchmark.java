@@ -0,0 +1,79 @@
+package com.fullstack.station_manager.perf.jmh;
+
+import com.fullstack.station_manager.entity.Users;
+import com.fullstack.station_manager.service.JwtAuthenticationCache;
+import com.fullstack.station_manager.service.JwtService;
+import com.fullstack.station_manager.service.UsersService;
+import com.fullstack.station_manager.utility.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * The full {@link JwtUtil} filter on an authenticated {@code GET /api/stations}. With
+ * {@code cached=false} both caches hold nothing, which is the cost of a token's first request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtFilterBenchmark {
+
+  @Param({"true", "false"})
+  public boolean cached;
+
+  private JwtUtil filter;
+  private MockHttpServletRequest request;
+
+  @Setup
+  public void setUp() {
+    var user = Users.builder().username("benchmark").password("unused").build();
+    var jwtService = new JwtService();
+    var usersService =
+        new UsersService(null) {
+          @Override
+          public UserDetails loadUserByUsername(String username) {
+            return user;
+          }
+        };
+    long cacheSize = cached ? 1_000 : 0;
+    var cache =
+        new JwtAuthenticationCache(
+            jwtService,
+            usersService,
+            new SimpleMeterRegistry(),
+            cacheSize,
+            cacheSize,
+            Duration.ofMinutes(1));
+
+    filter = new JwtUtil(cache, new SimpleMeterRegistry());
+    request = new MockHttpServletRequest("GET", "/api/stations");
+    request.addHeader("Authorization", "Bearer " + jwtService.generateToken(user));
+  }
+
+  @Benchmark
+  public Object doFilter() throws ServletException, IOException {
+    var chain = new MockFilterChain();
+
+    try {
+      filter.doFilter(request, new MockHttpServletResponse(), chain);
+      return SecurityContextHolder.getContext().getAuthentication();
+    } finally {
+      SecurityContextHolder.clearContext();
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.fullstack.station_manager.perf.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.station_manager.dto.external.ExternalStationResponse;
+import com.fullstack.station_manager.entity.StopTimes;
+import com.fullstack.station_manager.perf.FeedFixtures;
+import com.fullstack.station_manager.service.StationsMapper;
+import com.fullstack.station_manager.utility.StringDictionary;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Mapping of already deserialized feed objects into entities, without any JSON work. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StationsMapperBenchmark {
+
+  @Param({"SMALL", "FINCH", "LARGE"})
+  public FeedFixtures.Size size;
+
+  private final StationsMapper mapper = new StationsMapper();
+
+  private List<ExternalStationResponse.Stop> stops;
+  private List<ExternalStationResponse.StopTime> stopTimes;
+
+  @Setup
+  public void setUp() throws IOException {
+    var feed = new ObjectMapper().readValue(FeedFixtures.feed(size), ExternalStationResponse.class);
+
+    stops = feed.getStops();
+    stopTimes = stops.getFirst().getRoutes().getFirst().getStopTimes();
+  }
+
+  @Benchmark
+  public void mapStopToStation(Blackhole blackhole) {
+    var strings = new StringDictionary();
+    for (var stop : stops) {
+      blackhole.consume(mapper.mapStopToStation(stop, strings));
+    }
+  }
+
+  @Benchmark
+  public StopTimes mapStopTime() {
+    var builder = StopTimes.builder();
+    var strings = new StringDictionary();
+    for (var stopTime : stopTimes) {
+      mapper.mapStopTime(builder, stopTime, strings);
+    }
+
+    return builder.build();
+  }
+}
@@ -0,0 +1,60 @@
+package com.fullstack.station_manager.perf.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.station_manager.dto.response.SuccessResponse;
+import com.fullstack.station_manager.perf.FeedFixtures;
+import com.fullstack.station_manager.perf.PayloadSizeReport;
+import com.fullstack.station_manager.service.StationsSnapshotService;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Serialization of the {@code GET /api/stations} body in each negotiable format, the work a
+ * snapshot rebuild does once per format. {@code serializeGzip} adds the gzip variant on top.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StationsPayloadBenchmark {
+
+  @Param({"SMALL", "FINCH", "LARGE"})
+  public FeedFixtures.Size size;
+
+  @Param({"JSON", "CBOR", "SMILE"})
+  public StationsSnapshotService.Format format;
+
+  private ObjectMapper objectMapper;
+  private SuccessResponse response;
+
+  @Setup
+  public void setUp() throws IOException {
+    objectMapper = PayloadSizeReport.mapper(format);
+    response = PayloadSizeReport.response(size);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(response);
+  }
+
+  @Benchmark
+  public byte[] serializeGzip() throws IOException {
+    var buffer = new ByteArrayOutputStream();
+    try (var gzip = new GZIPOutputStream(buffer)) {
+      objectMapper.writeValue(gzip, response);
+    }
+
+    return buffer.toByteArray();
+  }
+}
@@ -0,0 +1,377 @@
+package com.fullstack.station_manager.perf.load;
+
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimesBucket;
+import com.fullstack.station_manager.entity.StopTimesObservation;
+import com.fullstack.station_manager.repository.ReactiveStationsRepository;
+import com.fullstack.station_manager.repository.StationsRepository;
+import com.fullstack.station_manager.utility.SearchWords;
+import com.fullstack.station_manager.utility.StopTimesBuckets;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import org.bson.Document;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import reactor.core.publisher.Flux;
+
+/**
+ * In-memory stations and stop time bucket collections behind the seams the application writes
+ * and reads through: {@link StationsRepository}, {@link ReactiveStationsRepository} and the
+ * {@link MongoTemplate} operations of {@code StationsSynchronizer} and {@code
+ * StationsHistoryService}. Stations are kept without their stop times, as in Mongo; history
+ * observations are only counted. Only the calls the application makes are implemented; anything
+ * else fails loudly so a harness run never silently measures a no-op.
+ */
+final class InMemoryStationsStore {
+
+  private static final String STATION_URI = "station_uri";
+  private static final String SERVICE_DAY = "service_day";
+  private static final String ROUTE = "route";
+
+  // Sorted by station_uri, like the keyset pagination in the real repository
+  private final ConcurrentSkipListMap<String, Stations> stations = new ConcurrentSkipListMap<>();
+  // Keyed by station_uri, service_day and route, so the buckets of a station are one range
+  private final ConcurrentSkipListMap<String, StopTimesBucket> buckets =
+      new ConcurrentSkipListMap<>();
+  private final AtomicLong observations = new AtomicLong();
+  private final SimulatedLatency latency;
+
+  InMemoryStationsStore(SimulatedLatency latency) {
+    this.latency = latency;
+  }
+
+  StationsRepository repository() {
+    return Proxies.of(StationsRepository.class, this::repositoryCall);
+  }
+
+  ReactiveStationsRepository reactiveRepository() {
+    return Proxies.of(ReactiveStationsRepository.class, this::reactiveRepositoryCall);
+  }
+
+  MongoTemplate mongoTemplate() {
+    return new MongoTemplate(Proxies.of(MongoDatabaseFactory.class, this::factoryCall)) {
+      @Override
+      public BulkOperations bulkOps(BulkOperations.BulkMode mode, Class<?> entityClass) {
+        return entityClass == StopTimesBucket.class
+            ? new BucketBulk().operations()
+            : new Bulk().operations();
+      }
+
+      // Departure history is only counted; the harness never queries it
+      @Override
+      public <T> Collection<T> insert(Collection<? extends T> batch, Class<?> entityClass) {
+        if (entityClass != StopTimesObservation.class) {
+          throw new UnsupportedOperationException("insert of " + entityClass.getSimpleName());
+        }
+
+        latency.roundTrip();
+        observations.addAndGet(batch.size());
+
+        return List.copyOf(batch);
+      }
+
+      @Override
+      public boolean collectionExists(String collectionName) {
+        return true;
+      }
+
+      @Override
+      public Document executeCommand(Document command) {
+        return new Document("ok", 1.0);
+      }
+    };
+  }
+
+  int size() {
+    return stations.size();
+  }
+
+  private Object repositoryCall(Method method, Object[] args) {
+    latency.roundTrip();
+
+    return switch (method.getName()) {
+      case "findAll", "findAllFingerprints" -> List.copyOf(stations.values());
+      case "count" -> (long) stations.size();
+      case "search" -> query(method, args);
+      case "countMatching" -> count(args);
+      case "stream" -> query(method, args).stream();
+      case "findBucketFingerprints" -> List.copyOf(buckets.values());
+      case "loadStopTimes" -> loadStopTimes(stationList(args[0]));
+      default -> throw Proxies.unsupported(method);
+    };
+  }
+
+  private Object reactiveRepositoryCall(Method method, Object[] args) {
+    return switch (method.getName()) {
+      case "search", "stream" ->
+          latency.delay(Flux.defer(() -> Flux.fromIterable(query(method, args))));
+      case "countMatching" ->
+          latency.delay(Flux.defer(() -> Flux.just(count(args)))).single();
+      default -> throw Proxies.unsupported(method);
+    };
+  }
+
+  // search(name, agencies, fields, afterUri, skip, limit) or stream(name, agencies, fields, ...)
+  private List<Stations> query(Method method, Object[] args) {
+    var name = (String) args[0];
+    var agencies = (Collection<?>) args[1];
+    var fields = (Collection<?>) args[2];
+    var matching =
+        method.getName().equals("search")
+            ? search(name, agencies, (String) args[3], (long) args[4], (int) args[5])
+            : stations.values().stream().filter(matches(name, agencies)).toList();
+
+    var projected = matching.stream().map(station -> project(station, fields)).toList();
+    var includesRoutes = fields == null || fields.isEmpty() || fields.contains("stationRoutes");
+
+    return includesRoutes ? loadStopTimes(projected) : projected;
+  }
+
+  private List<Stations> loadStopTimes(List<Stations> stations) {
+    var stationBuckets = new ArrayList<StopTimesBucket>();
+    for (var station : stations) {
+      var uri = station.getStationUri();
+      stationBuckets.addAll(buckets.subMap(uri + '\0', uri + '\1').values());
+    }
+
+    return StopTimesBuckets.join(stations, stationBuckets);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Stations> stationList(Object list) {
+    return (List<Stations>) list;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<String> words(Object list) {
+    return (List<String>) list;
+  }
+
+  private long count(Object[] args) {
+    return stations.values().stream()
+        .filter(matches((String) args[0], (Collection<?>) args[1]))
+        .count();
+  }
+
+  private List<Stations> search(
+      String name, Collection<?> agencies, String afterUri, long skip, int limit) {
+    var candidates = afterUri != null ? stations.tailMap(afterUri, false) : stations;
+
+    return candidates.values().stream()
+        .filter(matches(name, agencies))
+        .skip(skip)
+        .limit(limit)
+        .toList();
+  }
+
+  // Field projection as the real repository applies it; unknown fields were rejected upstream
+  private static Stations project(Stations station, Collection<?> fields) {
+    if (fields == null || fields.isEmpty()) {
+      return station;
+    }
+
+    return Stations.builder()
+        .stationUri(station.getStationUri())
+        .stationAgency(fields.contains("stationAgency") ? station.getStationAgency() : null)
+        .stationName(fields.contains("stationName") ? station.getStationName() : null)
+        .stationRoutes(fields.contains("stationRoutes") ? station.getStationRoutes() : null)
+        .build();
+  }
+
+  // Word-prefix match on station_name_words, as the real query runs it
+  private static Predicate<Stations> matches(String name, Collection<?> agencies) {
+    var queryWords = SearchWords.words(name);
+
+    return station -> {
+      var nameWords = station.getStationNameWords();
+      var nameMatches =
+          queryWords.isEmpty()
+              || (nameWords != null
+                  && queryWords.stream()
+                      .allMatch(word -> nameWords.stream().anyMatch(w -> w.startsWith(word))));
+      var agencyMatches =
+          agencies == null || agencies.isEmpty() || agencies.contains(station.getStationAgency());
+
+      return nameMatches && agencyMatches;
+    };
+  }
+
+  private Object factoryCall(Method method, Object[] args) {
+    if (method.getReturnType() == PersistenceExceptionTranslator.class) {
+      return new MongoExceptionTranslator();
+    }
+
+    throw Proxies.unsupported(method);
+  }
+
+  /** Collects operations and applies them on {@code execute()}, as a bulk write would. */
+  private final class Bulk {
+
+    private final List<Runnable> pending = new ArrayList<>();
+    private BulkOperations self;
+
+    BulkOperations operations() {
+      self = Proxies.of(BulkOperations.class, this::call);
+      return self;
+    }
+
+    private Object call(Method method, Object[] args) {
+      switch (method.getName()) {
+        case "insert" -> {
+          var station = lean((Stations) args[0]);
+          pending.add(() -> stations.put(station.getStationUri(), station));
+        }
+        case "replaceOne" -> {
+          var uri = uri((Query) args[0]);
+          var station = lean((Stations) args[1]);
+          pending.add(() -> stations.replace(uri, station));
+        }
+        case "updateOne" -> {
+          var uri = uri((Query) args[0]);
+          var set = ((UpdateDefinition) args[1]).getUpdateObject().get("$set", Document.class);
+          pending.add(() -> stations.computeIfPresent(uri, (key, station) -> patch(station, set)));
+        }
+        case "remove" -> {
+          var criteria = ((Query) args[0]).getQueryObject().get(STATION_URI, Document.class);
+          var uris = (Collection<?>) criteria.get("$in");
+          pending.add(() -> uris.forEach(stations::remove));
+        }
+        case "execute" -> {
+          latency.roundTrip();
+          pending.forEach(Runnable::run);
+          pending.clear();
+          return null;
+        }
+        default -> throw Proxies.unsupported(method);
+      }
+
+      return self;
+    }
+
+    private static String uri(Query query) {
+      return (String) query.getQueryObject().get(STATION_URI);
+    }
+  }
+
+  /** Bulk operations on the stop time buckets, applied on {@code execute()}. */
+  private final class BucketBulk {
+
+    private final List<Runnable> pending = new ArrayList<>();
+    private BulkOperations self;
+
+    BulkOperations operations() {
+      self = Proxies.of(BulkOperations.class, this::call);
+      return self;
+    }
+
+    private Object call(Method method, Object[] args) {
+      switch (method.getName()) {
+        case "insert", "replaceOne" -> {
+          var bucket = (StopTimesBucket) args[args.length == 1 ? 0 : 1];
+          pending.add(() -> buckets.put(key(bucket), bucket));
+        }
+        case "remove" -> {
+          var query = ((Query) args[0]).getQueryObject();
+          if (query.get(STATION_URI) instanceof Document criteria) {
+            var uris = (Collection<?>) criteria.get("$in");
+            pending.add(
+                () -> uris.forEach(uri -> buckets.subMap(uri + "\0", uri + "\1").clear()));
+          } else {
+            var key =
+                key(query.getString(STATION_URI), query.getString(SERVICE_DAY), query.get(ROUTE));
+            pending.add(() -> buckets.remove(key));
+          }
+        }
+        case "execute" -> {
+          latency.roundTrip();
+          pending.forEach(Runnable::run);
+          pending.clear();
+          return null;
+        }
+        default -> throw Proxies.unsupported(method);
+      }
+
+      return self;
+    }
+
+    private static String key(StopTimesBucket bucket) {
+      return key(bucket.getStationUri(), bucket.getServiceDay(), bucket.getRoute());
+    }
+
+    private static String key(String stationUri, String serviceDay, Object route) {
+      return stationUri + '\0' + serviceDay + '\0' + route;
+    }
+  }
+
+  // What Mongo keeps of a station: the stop times are transient and live in the buckets
+  private static Stations lean(Stations station) {
+    var routes = station.getStationRoutes();
+    var leanRoutes =
+        routes != null ? routes.stream().map(InMemoryStationsStore::lean).toList() : null;
+
+    return Stations.builder()
+        .stationUri(station.getStationUri())
+        .stationAgency(station.getStationAgency())
+        .stationName(station.getStationName())
+        .stationNameWords(station.getStationNameWords())
+        .stationHash(station.getStationHash())
+        .routeHashes(station.getRouteHashes())
+        .stationRoutes(leanRoutes)
+        .build();
+  }
+
+  private static StationRoute lean(StationRoute route) {
+    return StationRoute.builder()
+        .routeGroupId(route.getRouteGroupId())
+        .uri(route.getUri())
+        .name(route.getName())
+        .stopTimesCount(route.getStopTimesCount())
+        .build();
+  }
+
+  // Applies the $set paths StationsSynchronizer writes to a copy, never to a shared instance
+  private static Stations patch(Stations station, Document set) {
+    var routes = new ArrayList<>(station.getStationRoutes());
+    var routeHashes = new ArrayList<>(station.getRouteHashes());
+    var copy =
+        Stations.builder()
+            .stationUri(station.getStationUri())
+            .stationAgency(station.getStationAgency())
+            .stationName(station.getStationName())
+            .stationNameWords(station.getStationNameWords())
+            .stationHash(station.getStationHash())
+            .stationRoutes(routes)
+            .routeHashes(routeHashes)
+            .build();
+
+    for (Map.Entry<String, Object> entry : set.entrySet()) {
+      var path = entry.getKey().split("\\.");
+      switch (path[0]) {
+        case "station_agency" -> copy.setStationAgency((String) entry.getValue());
+        case "station_name" -> copy.setStationName((String) entry.getValue());
+        case "station_name_words" -> copy.setStationNameWords(words(entry.getValue()));
+        case "station_hash" -> copy.setStationHash((String) entry.getValue());
+        case "station_routes" ->
+            routes.set(Integer.parseInt(path[1]), lean((StationRoute) entry.getValue()));
+        case "route_hashes" ->
+            routeHashes.set(Integer.parseInt(path[1]), (String) entry.getValue());
+        default ->
+            throw new UnsupportedOperationException("Unsupported $set path " + entry.getKey());
+      }
+    }
+
+    return copy;
+  }
+}
@@ -0,0 +1,93 @@
+package com.fullstack.station_manager.perf.load;
+
+import com.fullstack.station_manager.entity.Users;
+import com.fullstack.station_manager.repository.UsersRepository;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+/**
+ * In-memory {@code tb_users}, reachable through {@link UsersRepository} and through the two
+ * statements {@code RefreshTokenStore} issues via {@link JdbcTemplate}.
+ */
+final class InMemoryUsersStore {
+
+  private final Map<String, Users> users = new ConcurrentHashMap<>();
+  private final AtomicLong ids = new AtomicLong();
+  private final AtomicLong tokenBatches = new AtomicLong();
+  private final SimulatedLatency latency;
+
+  InMemoryUsersStore(SimulatedLatency latency) {
+    this.latency = latency;
+  }
+
+  UsersRepository repository() {
+    return Proxies.of(UsersRepository.class, this::repositoryCall);
+  }
+
+  JdbcTemplate jdbcTemplate() {
+    return new JdbcTemplate() {
+      @Override
+      public void afterPropertiesSet() {
+        // No DataSource behind this template
+      }
+
+      @Override
+      public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+        latency.roundTrip();
+        tokenBatches.incrementAndGet();
+        batchArgs.forEach(row -> updateToken((String) row[1], (String) row[0]));
+        return new int[batchArgs.size()];
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public <T> T query(String sql, ResultSetExtractor<T> extractor, Object... args) {
+        latency.roundTrip();
+        var user = users.get((String) args[0]);
+        return (T) (user != null ? user.getToken() : null);
+      }
+    };
+  }
+
+  long tokenBatches() {
+    return tokenBatches.get();
+  }
+
+  private Object repositoryCall(Method method, Object[] args) {
+    latency.roundTrip();
+
+    return switch (method.getName()) {
+      case "findByUsername" -> users.get((String) args[0]);
+      case "save" -> save((Users) args[0]);
+      case "count" -> (long) users.size();
+      default -> throw Proxies.unsupported(method);
+    };
+  }
+
+  private Users save(Users user) {
+    if (user.getId() == null) {
+      user.setId(ids.incrementAndGet());
+    }
+
+    users.put(user.getUsername(), user);
+    return user;
+  }
+
+  private void updateToken(String username, String token) {
+    users.computeIfPresent(
+        username,
+        (key, user) ->
+            Users.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .username(user.getUsername())
+                .password(user.getPassword())
+                .token(token)
+                .build());
+  }
+}
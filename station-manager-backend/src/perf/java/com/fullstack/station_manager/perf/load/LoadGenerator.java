@@ -0,0 +1,175 @@
+package com.fullstack.station_manager.perf.load;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Open-model load generator: requests are started on a fixed schedule at the target rate, each on
+ * its own virtual thread, whether or not earlier ones have finished. Latency is measured from the
+ * scheduled start, so a stalled server shows up as latency instead of as a lower request rate
+ * (no coordinated omission). Requests that would exceed {@code maxInFlight} are dropped and
+ * counted.
+ */
+final class LoadGenerator {
+
+  private final HttpClient client;
+  private final List<Operation> operations;
+  private final int totalWeight;
+
+  LoadGenerator(HttpClient client, List<Operation> operations) {
+    this.client = client;
+    this.operations = operations;
+    this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+  }
+
+  Result run(double rate, Duration warmup, Duration duration, int maxInFlight) {
+    var stats = new TreeMap<String, OperationStats>();
+    operations.forEach(operation -> stats.put(operation.name(), new OperationStats()));
+
+    var inFlight = new Semaphore(maxInFlight);
+    var dropped = new AtomicLong();
+    long interval = (long) (1_000_000_000L / rate);
+    long start = System.nanoTime();
+    long measureFrom = start + warmup.toNanos();
+    long end = measureFrom + duration.toNanos();
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (long i = 0; ; i++) {
+        long scheduled = start + i * interval;
+        if (scheduled >= end) {
+          break;
+        }
+
+        long wait = scheduled - System.nanoTime();
+        if (wait > 0) {
+          LockSupport.parkNanos(wait);
+        }
+
+        var operation = pick();
+        boolean measured = scheduled >= measureFrom;
+
+        if (!inFlight.tryAcquire()) {
+          if (measured) {
+            dropped.incrementAndGet();
+          }
+          continue;
+        }
+
+        executor.submit(
+            () -> {
+              try {
+                int status = send(operation.request().get());
+                if (measured) {
+                  stats.get(operation.name()).record(System.nanoTime() - scheduled, status);
+                }
+              } finally {
+                inFlight.release();
+              }
+            });
+      }
+    }
+
+    return new Result(stats, dropped.get(), duration);
+  }
+
+  private Operation pick() {
+    int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+
+    for (var operation : operations) {
+      ticket -= operation.weight();
+      if (ticket < 0) {
+        return operation;
+      }
+    }
+
+    return operations.getLast();
+  }
+
+  private int send(HttpRequest request) {
+    try {
+      return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    } catch (IOException e) {
+      return -1;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return -1;
+    }
+  }
+
+  record Operation(String name, int weight, Supplier<HttpRequest> request) {}
+
+  static final class OperationStats {
+
+    private final Histogram latencies = new ConcurrentHistogram(3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    void record(long latencyNanos, int status) {
+      latencies.recordValue(latencyNanos);
+      statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    Histogram latencies() {
+      return latencies;
+    }
+
+    Map<Integer, Long> statuses() {
+      var counts = new TreeMap<Integer, Long>();
+      statuses.forEach((status, count) -> counts.put(status, count.sum()));
+      return counts;
+    }
+  }
+
+  record Result(Map<String, OperationStats> operations, long dropped, Duration duration) {
+
+    List<Map<String, Object>> summary() {
+      var rows = new ArrayList<Map<String, Object>>();
+      operations.forEach((name, stats) -> rows.add(row(name, stats.latencies(), stats.statuses())));
+
+      var all = new Histogram(3);
+      var statuses = new TreeMap<Integer, Long>();
+      for (var stats : operations.values()) {
+        all.add(stats.latencies());
+        stats.statuses().forEach((status, count) -> statuses.merge(status, count, Long::sum));
+      }
+      rows.add(row("total", all, statuses));
+
+      return rows;
+    }
+
+    private Map<String, Object> row(String name, Histogram latencies, Map<Integer, Long> statuses) {
+      var row = new LinkedHashMap<String, Object>();
+      row.put("operation", name);
+      row.put("requests", latencies.getTotalCount());
+      row.put("throughput", latencies.getTotalCount() / (duration.toMillis() / 1000.0));
+      row.put("p50Millis", millis(latencies.getValueAtPercentile(50)));
+      row.put("p90Millis", millis(latencies.getValueAtPercentile(90)));
+      row.put("p99Millis", millis(latencies.getValueAtPercentile(99)));
+      row.put("p999Millis", millis(latencies.getValueAtPercentile(99.9)));
+      row.put("maxMillis", millis(latencies.getMaxValue()));
+      row.put("statuses", statuses);
+      return row;
+    }
+
+    private static double millis(long nanos) {
+      return Math.round(nanos / 10_000.0) / 100.0;
+    }
+  }
+}
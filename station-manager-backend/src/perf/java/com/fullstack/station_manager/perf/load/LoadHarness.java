@@ -0,0 +1,330 @@
+package com.fullstack.station_manager.perf.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fullstack.station_manager.StationManagerApplication;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Runs the real application against local stand-ins and drives it with mixed traffic: a stub
+ * feed server instead of myttc.ca, and in-memory stores instead of Mongo and Postgres. Nothing
+ * leaves the machine. Latency histograms and throughput per operation are printed and written as
+ * JSON, with the peak thread count, peak heap and resident set size of the process.
+ *
+ * <pre>
+ * ./mvnw -Pperf test-compile exec:exec@load -Dload.args="--rate=300 --duration=60s"
+ * </pre>
+ *
+ * Options, with defaults: {@code --rate=100} requests/s, {@code --warmup=10s},
+ * {@code --duration=30s}, {@code --mix=login:5,stations:90,save:5} (also {@code export} and
+ * {@code search}), {@code --max-in-flight=2000}, {@code --stops=14 --routes=6 --stop-times=120}
+ * per feed, {@code --feed-variants=2}, {@code --feed-delay=0ms},
+ * {@code --virtual-threads=false}, {@code --reactive=false} (the reactive search and export
+ * path), {@code --store-latency=0ms --store-connections=100} per store call,
+ * {@code --output=target/load-result.json}.
+ *
+ * <p>Comparing thread models under blocking I/O: 80 searches/s that each wait 3 s for the store
+ * keep 240 requests in flight, more than Tomcat's 200 platform threads. Run once with
+ * {@code --virtual-threads=false}, once with {@code true} and once with {@code --reactive=true}:
+ *
+ * <pre>
+ * --mix=search:100 --rate=80 --store-latency=3s --store-connections=1000 --virtual-threads=true
+ * </pre>
+ */
+public final class LoadHarness {
+
+  private static final String USERNAME = "load-user";
+  private static final String PASSWORD = "load-password";
+
+  private LoadHarness() {}
+
+  public static void main(String[] args) throws Exception {
+    var options = options(args);
+
+    try (var feed =
+        new StubFeedServer(
+            integer(options, "stops", 14),
+            integer(options, "routes", 6),
+            integer(options, "stop-times", 120),
+            integer(options, "feed-variants", 2),
+            duration(options, "feed-delay", "0ms"))) {
+      System.out.printf("Stub feed: %s (%,d bytes)%n", feed.uri(), feed.feedBytes());
+
+      try (var context = start(feed.uri(), options)) {
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        var base = URI.create("http://localhost:" + port);
+        var client =
+            HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        var token = prime(client, base);
+        var generator = new LoadGenerator(client, operations(options, base, token));
+        resetPeaks();
+        var result =
+            generator.run(
+                Double.parseDouble(options.getOrDefault("rate", "100")),
+                duration(options, "warmup", "10s"),
+                duration(options, "duration", "30s"),
+                integer(options, "max-in-flight", 2000));
+
+        report(result, feed, context.getBean(InMemoryUsersStore.class), options);
+      }
+    }
+  }
+
+  private static ConfigurableApplicationContext start(URI feed, Map<String, String> options) {
+    return new SpringApplicationBuilder(
+            StationManagerApplication.class, LoadTestConfiguration.class)
+        .run(
+            // Command-line arguments, so they win over application.properties
+            "--server.port=0",
+            "--station.uri=" + feed,
+            "--spring.threads.virtual.enabled=" + options.getOrDefault("virtual-threads", "false"),
+            "--station.reactive.enabled=" + options.getOrDefault("reactive", "false"),
+            "--load.store-latency=" + options.getOrDefault("store-latency", "0ms"),
+            "--load.store-connections=" + options.getOrDefault("store-connections", "100"),
+            // Saves are part of the traffic mix; a background refresh would skew it
+            "--station.refresh.enabled=false",
+            "--spring.main.banner-mode=off",
+            "--logging.level.com.fullstack.station_manager=WARN",
+            "--spring.autoconfigure.exclude="
+                + String.join(
+                    ",",
+                    "org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration",
+                    "org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration",
+                    "org.springframework.boot.autoconfigure.data.mongo"
+                        + ".MongoReactiveDataAutoConfiguration",
+                    "org.springframework.boot.autoconfigure.data.mongo"
+                        + ".MongoReactiveRepositoriesAutoConfiguration",
+                    "org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration",
+                    "org.springframework.boot.autoconfigure.data.mongo"
+                        + ".MongoRepositoriesAutoConfiguration",
+                    "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration",
+                    "org.springframework.boot.autoconfigure.jdbc"
+                        + ".DataSourceTransactionManagerAutoConfiguration",
+                    "org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration",
+                    "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+                    "org.springframework.boot.autoconfigure.data.jpa"
+                        + ".JpaRepositoriesAutoConfiguration",
+                    "org.springframework.boot.actuate.autoconfigure.data.mongo"
+                        + ".MongoHealthContributorAutoConfiguration",
+                    "org.springframework.boot.actuate.autoconfigure.data.mongo"
+                        + ".MongoReactiveHealthContributorAutoConfiguration"));
+  }
+
+  // Registers the load user, logs in once and loads the feed so reads have data from the start
+  private static String prime(HttpClient client, URI base)
+      throws IOException, InterruptedException {
+    var credentials =
+        "{\"name\":\"Load\",\"username\":\"%s\",\"password\":\"%s\"}"
+            .formatted(USERNAME, PASSWORD);
+    send(client, post(base.resolve("/api/authentication/register"), credentials, null));
+
+    var login = send(client, post(base.resolve("/api/authentication/login"), credentials, null));
+    var token = new ObjectMapper().readTree(login).path("data").path("token").asText();
+    send(client, post(base.resolve("/api/stations/save"), "", token));
+
+    return token;
+  }
+
+  private static List<LoadGenerator.Operation> operations(
+      Map<String, String> options, URI base, String token) {
+    var credentials = "{\"username\":\"%s\",\"password\":\"%s\"}".formatted(USERNAME, PASSWORD);
+    var login = base.resolve("/api/authentication/login");
+    var requests = new HashMap<String, Supplier<HttpRequest>>();
+    requests.put("login", () -> post(login, credentials, null));
+    requests.put(
+        "stations",
+        () ->
+            HttpRequest.newBuilder(base.resolve("/api/stations"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build());
+    requests.put("save", () -> post(base.resolve("/api/stations/save"), "", token));
+    requests.put(
+        "search",
+        () ->
+            HttpRequest.newBuilder(base.resolve("/api/stations?q=stop&size=20&fields=stationName"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build());
+    requests.put(
+        "export",
+        () ->
+            HttpRequest.newBuilder(base.resolve("/api/stations/export"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build());
+
+    var operations = new ArrayList<LoadGenerator.Operation>();
+    for (var part : options.getOrDefault("mix", "login:5,stations:90,save:5").split(",")) {
+      var nameAndWeight = part.split(":");
+      var request = requests.get(nameAndWeight[0].trim());
+      if (request == null) {
+        throw new IllegalArgumentException("Unknown operation in --mix: " + nameAndWeight[0]);
+      }
+
+      int weight = Integer.parseInt(nameAndWeight[1].trim());
+      if (weight > 0) {
+        operations.add(new LoadGenerator.Operation(nameAndWeight[0].trim(), weight, request));
+      }
+    }
+
+    return operations;
+  }
+
+  private static HttpRequest post(URI uri, String body, String token) {
+    var builder =
+        HttpRequest.newBuilder(uri)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+
+    if (token != null) {
+      builder.header("Authorization", "Bearer " + token);
+    }
+
+    return builder.build();
+  }
+
+  private static String send(HttpClient client, HttpRequest request)
+      throws IOException, InterruptedException {
+    var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() >= 400) {
+      throw new IllegalStateException(
+          request.uri().getPath() + " returned " + response.statusCode() + ": " + response.body());
+    }
+
+    return response.body();
+  }
+
+  private static void report(
+      LoadGenerator.Result result,
+      StubFeedServer feed,
+      InMemoryUsersStore users,
+      Map<String, String> options)
+      throws IOException {
+    var rows = result.summary();
+
+    System.out.printf(
+        "%n%-10s %9s %10s %9s %9s %9s %9s %9s  %s%n",
+        "operation", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms",
+        "statuses");
+    for (var row : rows) {
+      System.out.printf(
+          "%-10s %9d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+          row.get("operation"),
+          row.get("requests"),
+          row.get("throughput"),
+          row.get("p50Millis"),
+          row.get("p90Millis"),
+          row.get("p99Millis"),
+          row.get("p999Millis"),
+          row.get("maxMillis"),
+          row.get("statuses"));
+    }
+    System.out.printf(
+        "dropped: %d, feed requests: %d, refresh-token batches: %d%n",
+        result.dropped(), feed.requests(), users.tokenBatches());
+
+    var memory = memory();
+    System.out.printf(
+        "peak threads: %d, peak heap: %.1f MB, peak RSS: %.1f MB%n",
+        memory.get("peakThreads"),
+        (long) memory.get("peakHeapBytes") / 1048576.0,
+        (long) memory.get("peakRssBytes") / 1048576.0);
+
+    var report = new LinkedHashMap<String, Object>();
+    report.put("options", options);
+    report.put("dropped", result.dropped());
+    report.put("operations", rows);
+    report.put("memory", memory);
+
+    var output = Path.of(options.getOrDefault("output", "target/load-result.json"));
+    Files.createDirectories(output.toAbsolutePath().getParent());
+    new ObjectMapper()
+        .enable(SerializationFeature.INDENT_OUTPUT)
+        .writeValue(output.toFile(), report);
+    System.out.println("Results written to " + output.toAbsolutePath());
+  }
+
+  private static void resetPeaks() {
+    System.gc();
+    ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+  }
+
+  // Process-wide, so the load generator is included; it is the same in both thread models.
+  // Virtual thread stacks live on the heap, platform thread stacks count towards RSS only.
+  private static Map<String, Object> memory() throws IOException {
+    long peakHeap =
+        ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .mapToLong(pool -> pool.getPeakUsage().getUsed())
+            .sum();
+
+    // VmHWM is the peak resident set size; only available on Linux
+    long peakRss = -1;
+    var status = Path.of("/proc/self/status");
+    if (Files.exists(status)) {
+      for (var line : Files.readAllLines(status)) {
+        if (line.startsWith("VmHWM:")) {
+          peakRss = Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+        }
+      }
+    }
+
+    var memory = new LinkedHashMap<String, Object>();
+    memory.put("peakThreads", ManagementFactory.getThreadMXBean().getPeakThreadCount());
+    memory.put("peakHeapBytes", peakHeap);
+    memory.put("peakRssBytes", peakRss);
+
+    return memory;
+  }
+
+  private static Map<String, String> options(String[] args) {
+    var options = new LinkedHashMap<String, String>();
+
+    for (var arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException("Expected --name=value, got " + arg);
+      }
+
+      options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+    }
+
+    return options;
+  }
+
+  private static int integer(Map<String, String> options, String name, int defaultValue) {
+    return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+  }
+
+  private static Duration duration(Map<String, String> options, String name, String defaultValue) {
+    return DurationStyle.detectAndParse(
+        options.getOrDefault(name, defaultValue));
+  }
+}
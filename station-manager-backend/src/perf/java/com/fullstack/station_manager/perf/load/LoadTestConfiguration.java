@@ -0,0 +1,60 @@
+package com.fullstack.station_manager.perf.load;
+
+import com.fullstack.station_manager.repository.ReactiveStationsRepository;
+import com.fullstack.station_manager.repository.StationsRepository;
+import com.fullstack.station_manager.repository.UsersRepository;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Replaces Mongo and Postgres with in-memory stores. {@link LoadHarness} excludes the Mongo,
+ * reactive Mongo, JPA and DataSource auto-configuration, so these are the only persistence beans
+ * in the context. Each store simulates its own connection pool with {@code load.store-latency}
+ * per call and {@code load.store-connections} connections.
+ */
+@Configuration(proxyBeanMethods = false)
+class LoadTestConfiguration {
+
+  @Bean
+  InMemoryStationsStore inMemoryStationsStore(
+      @Value("${load.store-latency:0ms}") Duration latency,
+      @Value("${load.store-connections:100}") int connections) {
+    return new InMemoryStationsStore(new SimulatedLatency(latency, connections));
+  }
+
+  @Bean
+  InMemoryUsersStore inMemoryUsersStore(
+      @Value("${load.store-latency:0ms}") Duration latency,
+      @Value("${load.store-connections:100}") int connections) {
+    return new InMemoryUsersStore(new SimulatedLatency(latency, connections));
+  }
+
+  @Bean
+  StationsRepository stationsRepository(InMemoryStationsStore store) {
+    return store.repository();
+  }
+
+  @Bean
+  ReactiveStationsRepository reactiveStationsRepository(InMemoryStationsStore store) {
+    return store.reactiveRepository();
+  }
+
+  @Bean
+  MongoTemplate mongoTemplate(InMemoryStationsStore store) {
+    return store.mongoTemplate();
+  }
+
+  @Bean
+  UsersRepository usersRepository(InMemoryUsersStore store) {
+    return store.repository();
+  }
+
+  @Bean
+  JdbcTemplate jdbcTemplate(InMemoryUsersStore store) {
+    return store.jdbcTemplate();
+  }
+}
@@ -0,0 +1,39 @@
+package com.fullstack.station_manager.perf.load;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/** Interface stand-ins that implement only the calls the application makes. */
+final class Proxies {
+
+  private Proxies() {}
+
+  @SuppressWarnings("unchecked")
+  static <T> T of(Class<T> type, Handler handler) {
+    return (T)
+        Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] {type},
+            (proxy, method, args) ->
+                switch (method.getName()) {
+                  case "toString" -> "InMemory" + type.getSimpleName();
+                  case "hashCode" -> System.identityHashCode(proxy);
+                  case "equals" -> proxy == args[0];
+                  default -> handler.call(method, args != null ? args : new Object[0]);
+                });
+  }
+
+  static UnsupportedOperationException unsupported(Method method) {
+    return new UnsupportedOperationException(
+        method.getDeclaringClass().getSimpleName()
+            + "."
+            + method.getName()
+            + " is not available in the load harness");
+  }
+
+  @FunctionalInterface
+  interface Handler {
+
+    Object call(Method method, Object[] args);
+  }
+}
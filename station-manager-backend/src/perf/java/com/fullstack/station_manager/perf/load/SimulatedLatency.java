@@ -0,0 +1,41 @@
+package com.fullstack.station_manager.perf.load;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import reactor.core.publisher.Flux;
+
+/**
+ * Stand-in for a database round trip behind a connection pool: every store call holds one of
+ * {@code connections} permits for {@code latency}. Callers beyond the pool size wait for a
+ * permit, as they would for a pooled Mongo or JDBC connection. Reactive calls are delayed on a
+ * timer instead and hold no thread or permit while they wait.
+ */
+final class SimulatedLatency {
+
+  private final Duration latency;
+  private final Semaphore connections;
+
+  SimulatedLatency(Duration latency, int connections) {
+    this.latency = latency;
+    this.connections = new Semaphore(connections, true);
+  }
+
+  void roundTrip() {
+    if (latency.isZero()) {
+      return;
+    }
+
+    connections.acquireUninterruptibly();
+    try {
+      Thread.sleep(latency);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      connections.release();
+    }
+  }
+
+  <T> Flux<T> delay(Flux<T> result) {
+    return latency.isZero() ? result : result.delaySubscription(latency);
+  }
+}
@@ -0,0 +1,84 @@
+package com.fullstack.station_manager.perf.load;
+
+import com.fullstack.station_manager.perf.FeedFixtures;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for {@code https://myttc.ca/finch_station.json}. Serves pre-generated fixture
+ * feeds from loopback, rotating through {@code variants} different feeds so repeated refreshes
+ * see changed data, after an optional delay that simulates a slow upstream.
+ */
+public final class StubFeedServer implements AutoCloseable {
+
+  static final String PATH = "/finch_station.json";
+
+  private final HttpServer server;
+  // Platform threads: HttpServer writes bodies inside synchronized blocks, which would pin a
+  // virtual thread to its carrier while a large feed waits for the client to read
+  private final ExecutorService executor = Executors.newCachedThreadPool(StubFeedServer::thread);
+  private final byte[][] feeds;
+  private final Duration delay;
+  private final AtomicLong requests = new AtomicLong();
+
+  public StubFeedServer(
+      int stops, int routesPerStop, int stopTimesPerRoute, int variants, Duration delay)
+      throws IOException {
+    this.feeds = new byte[Math.max(1, variants)][];
+    for (int i = 0; i < feeds.length; i++) {
+      feeds[i] = FeedFixtures.feed(stops, routesPerStop, stopTimesPerRoute, 42 + i);
+    }
+
+    this.delay = delay;
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    this.server.setExecutor(executor);
+    this.server.createContext(
+        PATH,
+        exchange -> {
+          try (exchange) {
+            var body = feeds[(int) (requests.getAndIncrement() % feeds.length)];
+            if (!delay.isZero()) {
+              Thread.sleep(delay);
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    this.server.start();
+  }
+
+  private static Thread thread(Runnable runnable) {
+    var thread = new Thread(runnable, "stub-feed");
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  public URI uri() {
+    return URI.create("http://localhost:" + server.getAddress().getPort() + PATH);
+  }
+
+  public int feedBytes() {
+    return feeds[0].length;
+  }
+
+  public long requests() {
+    return requests.get();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.close();
+  }
+}
@@ -0,0 +1,47 @@
+package com.fullstack.station_manager;
+
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimes;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/** Stations and routes with stop times, shared by the unit tests. */
+public final class StationsFixtures {
+
+  public static final ZoneId ZONE = ZoneId.of("America/Toronto");
+
+  // 2023-11-14 17:13 in Toronto; DAY later is the next service day
+  public static final long MORNING = 1_700_000_000L;
+  public static final long DAY = 86_400L;
+
+  private StationsFixtures() {}
+
+  /** A station named after {@code uri}; its route list is mutable. */
+  public static Stations station(String uri, StationRoute... routes) {
+    return Stations.builder()
+        .stationUri(uri)
+        .stationAgency("Toronto Transit Commission")
+        .stationName(uri + " station")
+        .stationRoutes(new ArrayList<>(Arrays.asList(routes)))
+        .build();
+  }
+
+  /** A route whose group is the leading route number of {@code uri}, departing at each time. */
+  public static StationRoute route(String uri, long... departures) {
+    var builder = StopTimes.builder();
+    for (var departure : departures) {
+      builder.add(1, "at " + departure, departure, uri + " towards Finch");
+    }
+
+    var stopTimes = builder.build();
+    return StationRoute.builder()
+        .routeGroupId(uri.substring(0, 2))
+        .uri(uri)
+        .name(uri)
+        .stopTimesCount(stopTimes.size())
+        .stopTimes(stopTimes)
+        .build();
+  }
+}
@@ -0,0 +1,44 @@
+package com.fullstack.station_manager.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.mock.env.MockEnvironment;
+
+class ReactiveMongoFilterTest {
+
+  private static final String[] CANDIDATES = {
+    MongoAutoConfiguration.class.getName(),
+    MongoReactiveAutoConfiguration.class.getName(),
+    null,
+    MongoDataAutoConfiguration.class.getName(),
+    MongoReactiveDataAutoConfiguration.class.getName(),
+    MongoReactiveRepositoriesAutoConfiguration.class.getName()
+  };
+
+  @Test
+  void skipsReactiveMongoByDefault() {
+    assertThat(filter(new MockEnvironment()).match(CANDIDATES, null))
+        .containsExactly(true, false, true, true, false, false);
+  }
+
+  @Test
+  void keepsReactiveMongoWhenReactiveIsEnabled() {
+    var environment = new MockEnvironment().withProperty("station.reactive.enabled", "true");
+
+    assertThat(filter(environment).match(CANDIDATES, null))
+        .containsExactly(true, true, true, true, true, true);
+  }
+
+  private static ReactiveMongoFilter filter(MockEnvironment environment) {
+    var filter = new ReactiveMongoFilter();
+    filter.setEnvironment(environment);
+
+    return filter;
+  }
+}
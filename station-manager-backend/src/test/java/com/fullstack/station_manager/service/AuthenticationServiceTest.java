@@ -0,0 +1,139 @@
+package com.fullstack.station_manager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fullstack.station_manager.dto.request.LoginRequest;
+import com.fullstack.station_manager.dto.response.JwtResponse;
+import com.fullstack.station_manager.entity.Users;
+import com.fullstack.station_manager.repository.UsersRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+class AuthenticationServiceTest {
+
+  private final PasswordVerificationService passwordVerificationService =
+      mock(PasswordVerificationService.class);
+  private final JwtService jwtService = mock(JwtService.class);
+  private final UsersRepository usersRepository = mock(UsersRepository.class);
+  private final RefreshTokenStore refreshTokenStore = mock(RefreshTokenStore.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private AuthenticationService authenticationService;
+
+  @BeforeEach
+  void setUp() {
+    authenticationService =
+        new AuthenticationService(
+            mock(PasswordEncoder.class),
+            passwordVerificationService,
+            jwtService,
+            usersRepository,
+            refreshTokenStore,
+            mock(JwtAuthenticationCache.class),
+            meterRegistry);
+    when(jwtService.generateToken(any())).thenReturn("access");
+    when(jwtService.generateRefreshToken(any(), any())).thenReturn("refresh");
+  }
+
+  @Test
+  void validCredentialsIssueAndStoreTokens() {
+    user(account -> {});
+    when(passwordVerificationService.matches("secret", "hash")).thenReturn(true);
+
+    var response = (JwtResponse) authenticationService.loginUser(login("secret")).getData();
+
+    assertThat(response.getToken()).isEqualTo("access");
+    assertThat(response.getRefreshToken()).isEqualTo("refresh");
+    verify(refreshTokenStore).save("alice", "refresh");
+    assertThat(meterRegistry.timer("auth.login", "outcome", "success").count()).isEqualTo(1);
+  }
+
+  @Test
+  void disabledAccountIsRejectedWithoutVerifyingThePassword() {
+    user(account -> doReturn(false).when(account).isEnabled());
+
+    assertRejected("Authentication failed");
+    verify(passwordVerificationService, never()).matches(anyString(), anyString());
+  }
+
+  @Test
+  void lockedAccountIsRejectedWithoutVerifyingThePassword() {
+    user(account -> doReturn(false).when(account).isAccountNonLocked());
+
+    assertRejected("Authentication failed");
+    verify(passwordVerificationService, never()).matches(anyString(), anyString());
+  }
+
+  @Test
+  void expiredAccountIsRejectedWithoutVerifyingThePassword() {
+    user(account -> doReturn(false).when(account).isAccountNonExpired());
+
+    assertRejected("Authentication failed");
+    verify(passwordVerificationService, never()).matches(anyString(), anyString());
+  }
+
+  @Test
+  void expiredCredentialsAreRejectedAfterVerification() {
+    user(account -> doReturn(false).when(account).isCredentialsNonExpired());
+    when(passwordVerificationService.matches("secret", "hash")).thenReturn(true);
+
+    assertRejected("Credentials expired");
+    verify(passwordVerificationService).matches("secret", "hash");
+  }
+
+  @Test
+  void wrongPasswordIsRejected() {
+    user(account -> {});
+
+    assertRejected("Wrong password");
+    assertThat(meterRegistry.timer("auth.login", "outcome", "bad_credentials").count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void unknownUserIsRejected() {
+    assertThatThrownBy(() -> authenticationService.loginUser(login("secret")))
+        .isInstanceOf(UsernameNotFoundException.class);
+    verify(passwordVerificationService, never()).matches(anyString(), anyString());
+  }
+
+  private void assertRejected(String reason) {
+    assertThatThrownBy(() -> authenticationService.loginUser(login("secret")))
+        .isInstanceOfSatisfying(
+            ResponseStatusException.class,
+            e -> {
+              assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+              assertThat(e.getReason()).isEqualTo(reason);
+            });
+    verify(refreshTokenStore, never()).save(anyString(), anyString());
+  }
+
+  private void user(Consumer<Users> status) {
+    var account = spy(Users.builder().username("alice").password("hash").build());
+    status.accept(account);
+    when(usersRepository.findByUsername("alice")).thenReturn(account);
+  }
+
+  private static LoginRequest login(String password) {
+    var request = new LoginRequest();
+    request.setUsername("alice");
+    request.setPassword(password);
+
+    return request;
+  }
+}
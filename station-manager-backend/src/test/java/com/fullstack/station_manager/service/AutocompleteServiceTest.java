@@ -0,0 +1,150 @@
+package com.fullstack.station_manager.service;
+
+import static com.fullstack.station_manager.StationsFixtures.route;
+import static com.fullstack.station_manager.StationsFixtures.station;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fullstack.station_manager.dto.response.AutocompleteResponse;
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.Stations;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+class AutocompleteServiceTest {
+
+  private final StationsSnapshotService snapshotService = mock(StationsSnapshotService.class);
+  private AutocompleteService autocompleteService;
+
+  @BeforeEach
+  void setUp() {
+    publish(
+        snapshot(
+            1,
+            named(
+                "finch",
+                "Finch Station",
+                routeNamed("39_finch_east", "Finch East"),
+                routeNamed("97_yonge", "Yonge")),
+            named(
+                "finch_west",
+                "Finch West Station",
+                routeNamed("39_finch_east", "Finch East"),
+                routeNamed("60_steeles_west", "Steeles West")),
+            named("finchley", "Finchley"),
+            named("sheppard_yonge", "Sheppard-Yonge Station"),
+            named("downsview", "Downsview Park")));
+    autocompleteService = new AutocompleteService(snapshotService);
+  }
+
+  @Test
+  void ranksNamesStartingWithTheQueryByLength() {
+    assertThat(texts("finch", 10))
+        .containsExactly("Finchley", "Finch Station", "Finch East", "Finch West Station");
+  }
+
+  @Test
+  void ranksWholeNameMatchesAboveWordMatches() {
+    var suggestions = suggest("yonge", 10);
+
+    assertThat(suggestions)
+        .extracting(AutocompleteResponse::getText)
+        .containsExactly("Yonge", "Sheppard-Yonge Station");
+    assertThat(suggestions.getFirst().getType()).isEqualTo("route");
+    assertThat(suggestions.getFirst().getRouteUri()).isEqualTo("97_yonge");
+    assertThat(suggestions.getFirst().getScore()).isGreaterThan(suggestions.getLast().getScore());
+  }
+
+  @Test
+  void toleratesTyposWithinTheEditBudget() {
+    // One transposition in a five-letter word, two in a nine-letter word
+    assertThat(texts("fnich", 10)).contains("Finch Station", "Finchley");
+    assertThat(texts("donwsveiw", 10)).containsExactly("Downsview Park");
+
+    // Words shorter than four letters are not corrected, and three edits are too many
+    assertThat(texts("fni", 10)).isEmpty();
+    assertThat(texts("dnwosevwi", 10)).isEmpty();
+  }
+
+  @Test
+  void earlierQueryWordsMustStartWordsOfTheName() {
+    assertThat(texts("finch st", 10)).containsExactly("Finch Station", "Finch West Station");
+    assertThat(texts("west fin", 10)).containsExactly("Finch West Station");
+
+    // "ch" is inside "finch" but starts no word
+    assertThat(texts("ch fin", 10)).isEmpty();
+  }
+
+  @Test
+  void routeNamesServedByManyStationsAreSuggestedOnce() {
+    var suggestions = suggest("finch e", 10);
+
+    assertThat(suggestions).extracting(AutocompleteResponse::getText).containsExactly("Finch East");
+    assertThat(suggestions.getFirst().getType()).isEqualTo("route");
+  }
+
+  @Test
+  void limitKeepsTheBestSuggestions() {
+    assertThat(texts("finch", 2)).containsExactly("Finchley", "Finch Station");
+    assertThat(texts("finch", 0)).containsExactly("Finchley");
+  }
+
+  @Test
+  void blankQueryIsRejected() {
+    assertThatThrownBy(() -> autocompleteService.autocomplete("  ", null))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("Query must not be empty");
+  }
+
+  @Test
+  void rebuildsWhenASnapshotIsPublished() {
+    var first = snapshotService.current();
+    assertThat(texts("down", 10)).containsExactly("Downsview Park");
+
+    var second = snapshot(2, named("don_mills", "Don Mills"));
+    publish(second);
+    autocompleteService.onSnapshotPublished(new StationsSnapshotService.Published(first, second));
+
+    assertThat(texts("do", 10)).containsExactly("Don Mills");
+    assertThat(texts("downsview", 10)).isEmpty();
+  }
+
+  private List<String> texts(String query, int limit) {
+    return suggest(query, limit).stream().map(AutocompleteResponse::getText).toList();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<AutocompleteResponse> suggest(String query, int limit) {
+    return (List<AutocompleteResponse>)
+        autocompleteService.autocomplete(query, limit).getData();
+  }
+
+  private void publish(StationsSnapshotService.Snapshot snapshot) {
+    when(snapshotService.current()).thenReturn(snapshot);
+  }
+
+  private static StationsSnapshotService.Snapshot snapshot(long version, Stations... stations) {
+    return new StationsSnapshotService.Snapshot(
+        version, List.of(stations), "hash-" + version, Map.of(), Instant.now());
+  }
+
+  private static Stations named(String uri, String name, StationRoute... routes) {
+    var station = station(uri, routes);
+    station.setStationName(name);
+
+    return station;
+  }
+
+  private static StationRoute routeNamed(String uri, String name) {
+    var route = route(uri);
+    route.setName(name);
+
+    return route;
+  }
+}
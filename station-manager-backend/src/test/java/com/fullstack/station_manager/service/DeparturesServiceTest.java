@@ -0,0 +1,111 @@
+package com.fullstack.station_manager.service;
+
+import static com.fullstack.station_manager.StationsFixtures.MORNING;
+import static com.fullstack.station_manager.StationsFixtures.route;
+import static com.fullstack.station_manager.StationsFixtures.station;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fullstack.station_manager.dto.response.DepartureResponse;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+class DeparturesServiceTest {
+
+  private DeparturesService departuresService;
+
+  @BeforeEach
+  void setUp() {
+    var station =
+        station(
+            "finch",
+            route("30_finch_east", MORNING + 600, MORNING, MORNING + 1_200),
+            route("31_finch_west"),
+            route("32_yonge", MORNING + 300, MORNING + 900),
+            route("30_finch_east", MORNING + 1_500));
+    station.setStationHash("finch-1");
+    var snapshotService = mock(StationsSnapshotService.class);
+    when(snapshotService.current())
+        .thenReturn(
+            new StationsSnapshotService.Snapshot(
+                1, List.of(station), "hash", Map.of(), Instant.now()));
+
+    departuresService = new DeparturesService(snapshotService);
+  }
+
+  @Test
+  void beforeTheFirstDepartureReturnsAllRoutesMergedInOrder() {
+    var departures = next(MORNING - 1, 10, null);
+
+    assertThat(departures)
+        .extracting(DepartureResponse::getDepartureTimestamp)
+        .containsExactly(
+            MORNING,
+            MORNING + 300,
+            MORNING + 600,
+            MORNING + 900,
+            MORNING + 1_200,
+            MORNING + 1_500);
+    assertThat(departures)
+        .extracting(DepartureResponse::getRouteUri)
+        .containsExactly(
+            "30_finch_east",
+            "32_yonge",
+            "30_finch_east",
+            "32_yonge",
+            "30_finch_east",
+            "30_finch_east");
+  }
+
+  @Test
+  void afterIsInclusiveAndLimitIsApplied() {
+    assertThat(next(MORNING + 600, 2, null))
+        .extracting(DepartureResponse::getDepartureTimestamp)
+        .containsExactly(MORNING + 600, MORNING + 900);
+  }
+
+  @Test
+  void afterTheLastDepartureReturnsNothing() {
+    assertThat(next(MORNING + 1_501, 10, null)).isEmpty();
+    assertThat(next(MORNING + 1_501, 10, "30_finch_east")).isEmpty();
+  }
+
+  @Test
+  void routeFilterMergesRoutesSharingTheUri() {
+    var departures = next(MORNING + 1, 10, "30_finch_east");
+
+    assertThat(departures)
+        .extracting(DepartureResponse::getDepartureTimestamp)
+        .containsExactly(MORNING + 600, MORNING + 1_200, MORNING + 1_500);
+    assertThat(departures)
+        .extracting(DepartureResponse::getDepartureTime)
+        .containsExactly(
+            "at " + (MORNING + 600), "at " + (MORNING + 1_200), "at " + (MORNING + 1_500));
+  }
+
+  @Test
+  void routeFilterWithoutDeparturesOrUnknownRouteReturnsNothing() {
+    assertThat(next(MORNING - 1, 10, "31_finch_west")).isEmpty();
+    assertThat(next(MORNING - 1, 10, "99_unknown")).isEmpty();
+  }
+
+  @Test
+  void unknownStationIsNotFound() {
+    assertThatThrownBy(() -> departuresService.nextDepartures("nowhere", MORNING, 10, null))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("Station not found");
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<DepartureResponse> next(long after, int limit, String route) {
+    return (List<DepartureResponse>)
+        departuresService.nextDepartures("finch", after, limit, route).getData();
+  }
+
+}
@@ -0,0 +1,137 @@
+package com.fullstack.station_manager.service;
+
+import static com.fullstack.station_manager.StationsFixtures.ZONE;
+import static com.fullstack.station_manager.StationsFixtures.route;
+import static com.fullstack.station_manager.StationsFixtures.station;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fullstack.station_manager.dto.response.RouteStatsResponse;
+import com.fullstack.station_manager.entity.Stations;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class HeadwayStatsServiceTest {
+
+  private static final long DAY_ONE =
+      LocalDate.of(2023, 11, 14).atStartOfDay(ZONE).toEpochSecond();
+  private static final long DAY_TWO = DAY_ONE + 86_400L;
+  private static final long HOUR = 3_600L;
+  private static final long MINUTE = 60L;
+
+  @Test
+  void mergesRoutesSharingAUriAndExcludesTheOvernightGap() {
+    var station =
+        station(
+            "finch",
+            route("30_finch_east", DAY_ONE + 6 * HOUR, DAY_ONE + 6 * HOUR + 30 * MINUTE),
+            route("32_yonge", DAY_ONE + 7 * HOUR),
+            route(
+                "30_finch_east",
+                DAY_ONE + 6 * HOUR + 10 * MINUTE,
+                DAY_TWO + 6 * HOUR,
+                DAY_TWO + 6 * HOUR + 15 * MINUTE));
+    station.setStationHash("finch-1");
+
+    var routes = stats(station, null);
+
+    assertThat(routes)
+        .extracting(RouteStatsResponse::getRouteUri)
+        .containsExactly("30_finch_east", "32_yonge");
+
+    // Headways of 10 and 20 minutes on day one and 15 on day two; the overnight gap is not one
+    var finchEast = routes.getFirst();
+    assertThat(finchEast.getDepartures()).isEqualTo(5);
+    assertThat(finchEast.getServiceDays()).isEqualTo(2);
+    assertThat(finchEast.getFirstDeparture()).isEqualTo(DAY_ONE + 6 * HOUR);
+    assertThat(finchEast.getLastDeparture()).isEqualTo(DAY_TWO + 6 * HOUR + 15 * MINUTE);
+    assertThat(finchEast.getMeanHeadwayMinutes()).isCloseTo(15.0, within(1e-9));
+    assertThat(finchEast.getMaxHeadwayMinutes()).isCloseTo(20.0, within(1e-9));
+    // 5 departures over 30 + 15 minutes of service
+    assertThat(finchEast.getDeparturesPerHour()).isCloseTo(5 / 0.75, within(1e-9));
+
+    var yonge = routes.getLast();
+    assertThat(yonge.getDepartures()).isEqualTo(1);
+    assertThat(yonge.getMeanHeadwayMinutes()).isNull();
+    assertThat(yonge.getDeparturesPerHour()).isNull();
+
+    assertThat(stats(station, "32_yonge")).containsExactly(yonge);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void reusesTheStatsOfUnchangedStationsAcrossSnapshots() {
+    var snapshotService = mock(StationsSnapshotService.class);
+    var service = new HeadwayStatsService(snapshotService, ZONE);
+
+    // More stations than one task computes, so the rebuild of v1 forks
+    var first = new ArrayList<Stations>();
+    for (int i = 0; i < 10; i++) {
+      first.add(hashed("station-" + i, "v1", DAY_ONE + 6 * HOUR));
+    }
+
+    var second = new ArrayList<>(first);
+    second.set(5, hashed("station-5", "v2", DAY_ONE + 6 * HOUR, DAY_ONE + 7 * HOUR));
+
+    var v1 = snapshot(1, first);
+    var v2 = snapshot(2, second);
+    service.onSnapshotPublished(new StationsSnapshotService.Published(null, v1));
+    var before = indexed(service);
+    service.onSnapshotPublished(new StationsSnapshotService.Published(v1, v2));
+    var after = indexed(service);
+
+    assertThat(before).hasSize(10).doesNotContainValue(null);
+    assertThat(after).hasSize(10);
+    for (int i = 0; i < 10; i++) {
+      var uri = "station-" + i;
+      if (i == 5) {
+        assertThat(after.get(uri)).isNotSameAs(before.get(uri));
+      } else {
+        assertThat(after.get(uri)).isSameAs(before.get(uri));
+      }
+    }
+
+    when(snapshotService.current()).thenReturn(v2);
+    var routes = (List<RouteStatsResponse>) service.stats("station-5", null).getData();
+    assertThat(routes).singleElement().extracting(RouteStatsResponse::getDepartures).isEqualTo(2);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<RouteStatsResponse> stats(Stations station, String route) {
+    var snapshotService = mock(StationsSnapshotService.class);
+    when(snapshotService.current())
+        .thenReturn(
+            new StationsSnapshotService.Snapshot(
+                1, List.of(station), "hash", Map.of(), Instant.now()));
+
+    return (List<RouteStatsResponse>)
+        new HeadwayStatsService(snapshotService, ZONE).stats("finch", route).getData();
+  }
+
+  private static Stations hashed(String uri, String hash, long... departures) {
+    var station = station(uri, route("30_finch_east", departures));
+    station.setStationHash(hash);
+
+    return station;
+  }
+
+  private static StationsSnapshotService.Snapshot snapshot(long version, List<Stations> stations) {
+    return new StationsSnapshotService.Snapshot(
+        version, List.copyOf(stations), "hash", Map.of(), Instant.now());
+  }
+
+  // The stats per station URI of the current index
+  private static Map<String, ?> indexed(HeadwayStatsService service) {
+    var index = (AtomicReference<?>) ReflectionTestUtils.getField(service, "index");
+
+    return ReflectionTestUtils.invokeMethod(index.get(), "stations");
+  }
+}
@@ -0,0 +1,87 @@
+package com.fullstack.station_manager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.jsonwebtoken.MalformedJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+
+class JwtAuthenticationCacheTest {
+
+  private final JwtService jwtService = mock(JwtService.class);
+  private final UsersService usersService = mock(UsersService.class);
+
+  @Test
+  void verifiesATokenOnceUntilItExpires() {
+    var cache = cache(Duration.ofMinutes(1));
+    var verified = new JwtService.VerifiedToken("alice", Instant.now().plusSeconds(3_600), false);
+    when(jwtService.verify("token")).thenReturn(verified);
+
+    assertThat(cache.verify("token")).isSameAs(verified);
+    assertThat(cache.verify("token")).isSameAs(verified);
+
+    verify(jwtService).verify("token");
+  }
+
+  @Test
+  void dropsACachedTokenAtItsExpiry() throws InterruptedException {
+    var cache = cache(Duration.ofMinutes(1));
+    var expiresAt = Instant.now().plusMillis(500);
+    when(jwtService.verify("token"))
+        .thenReturn(new JwtService.VerifiedToken("alice", expiresAt, false));
+
+    cache.verify("token");
+    cache.verify("token");
+    verify(jwtService).verify("token");
+
+    Thread.sleep(Duration.between(Instant.now(), expiresAt).plusMillis(50));
+
+    cache.verify("token");
+    verify(jwtService, times(2)).verify("token");
+  }
+
+  @Test
+  void neitherKeepsExpiredNorInvalidTokens() {
+    var cache = cache(Duration.ofMinutes(1));
+    when(jwtService.verify("expired"))
+        .thenReturn(new JwtService.VerifiedToken("alice", Instant.now().minusSeconds(1), false));
+    when(jwtService.verify("forged")).thenThrow(new MalformedJwtException("bad signature"));
+
+    cache.verify("expired");
+    cache.verify("expired");
+    assertThatThrownBy(() -> cache.verify("forged")).isInstanceOf(MalformedJwtException.class);
+    assertThatThrownBy(() -> cache.verify("forged")).isInstanceOf(MalformedJwtException.class);
+
+    verify(jwtService, times(2)).verify("expired");
+    verify(jwtService, times(2)).verify("forged");
+  }
+
+  @Test
+  void reloadsAUserOnceTheTtlEvictedIt() throws InterruptedException {
+    var cache = cache(Duration.ofMillis(200));
+    var before = User.withUsername("alice").password("old").build();
+    var after = User.withUsername("alice").password("new").build();
+    when(usersService.loadUserByUsername("alice")).thenReturn(before, after);
+
+    assertThat(cache.loadUser("alice")).isSameAs(before);
+    assertThat(cache.loadUser("alice")).isSameAs(before);
+
+    Thread.sleep(300);
+
+    assertThat(cache.loadUser("alice")).isSameAs(after);
+    verify(usersService, times(2)).loadUserByUsername("alice");
+  }
+
+  private JwtAuthenticationCache cache(Duration userCacheTtl) {
+    return new JwtAuthenticationCache(
+        jwtService, usersService, new SimpleMeterRegistry(), 100, 100, userCacheTtl);
+  }
+}
@@ -0,0 +1,116 @@
+package com.fullstack.station_manager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+class PasswordVerificationServiceTest {
+
+  private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private PasswordVerificationService verificationService;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    verificationService.shutdown();
+  }
+
+  @Test
+  void returnsTheEncoderResult() {
+    verificationService = service(Duration.ofSeconds(5));
+    when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+
+    assertThat(verificationService.matches("secret", "hash")).isTrue();
+    assertThat(verificationService.matches("guess", "hash")).isFalse();
+  }
+
+  @Test
+  void missingPasswordsDoNotReachTheEncoder() {
+    verificationService = service(Duration.ofSeconds(5));
+
+    assertThat(verificationService.matches(null, "hash")).isFalse();
+    assertThat(verificationService.matches("secret", null)).isFalse();
+    verifyNoInteractions(passwordEncoder);
+  }
+
+  @Test
+  void saturatedPoolFailsFastWithTooManyRequests() throws Exception {
+    verificationService = service(Duration.ofSeconds(30));
+    blockVerifications();
+
+    // One check runs on the single thread and one waits in the single queue slot
+    var running = CompletableFuture.runAsync(() -> verificationService.matches("a", "hash"));
+    started.await();
+    var queued = CompletableFuture.runAsync(() -> verificationService.matches("b", "hash"));
+    var executor =
+        (ThreadPoolExecutor) ReflectionTestUtils.getField(verificationService, "executor");
+    while (executor.getQueue().isEmpty()) {
+      Thread.sleep(5);
+    }
+
+    assertThatThrownBy(() -> verificationService.matches("c", "hash"))
+        .isInstanceOfSatisfying(
+            ResponseStatusException.class,
+            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+
+    release.countDown();
+    running.get(5, TimeUnit.SECONDS);
+    queued.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void slowVerificationFailsWithServiceUnavailableAndIsCancelled() throws Exception {
+    verificationService = service(Duration.ofMillis(100));
+    var interrupted = new CountDownLatch(1);
+    when(passwordEncoder.matches(any(), any()))
+        .thenAnswer(
+            invocation -> {
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                interrupted.countDown();
+              }
+              return true;
+            });
+
+    assertThatThrownBy(() -> verificationService.matches("secret", "hash"))
+        .isInstanceOfSatisfying(
+            ResponseStatusException.class,
+            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private PasswordVerificationService service(Duration timeout) {
+    return new PasswordVerificationService(
+        passwordEncoder, new SimpleMeterRegistry(), 1, 1, timeout);
+  }
+
+  // Every check blocks until release, after signalling that one started
+  private void blockVerifications() {
+    when(passwordEncoder.matches(any(), any()))
+        .thenAnswer(
+            invocation -> {
+              started.countDown();
+              release.await();
+              return true;
+            });
+  }
+}
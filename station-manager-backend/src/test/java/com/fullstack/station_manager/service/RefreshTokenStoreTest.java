@@ -0,0 +1,189 @@
+package com.fullstack.station_manager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+class RefreshTokenStoreTest {
+
+  private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private RefreshTokenStore store;
+
+  @BeforeEach
+  void setUp() {
+    store = new RefreshTokenStore(jdbcTemplate, meterRegistry, 2);
+  }
+
+  @Test
+  void flushWritesPendingTokensInBatchesAndClearsThem() {
+    store.save("alice", "a1");
+    store.save("bob", "b1");
+    store.save("carol", "c1");
+
+    store.flush();
+
+    var rows = writtenRows(2);
+    assertThat(rows).hasSize(3);
+    assertThat(rows)
+        .extracting(row -> row[1] + "=" + row[0])
+        .containsExactlyInAnyOrder("alice=a1", "bob=b1", "carol=c1");
+    assertThat(pendingTokens()).isZero();
+
+    store.flush();
+    verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+  }
+
+  @Test
+  void rotationsBetweenFlushesCollapseIntoOneUpdate() {
+    store.save("alice", "a1");
+    store.save("alice", "a2");
+
+    store.flush();
+
+    assertThat(writtenRows(1)).extracting(row -> row[0]).containsExactly("a2");
+  }
+
+  @Test
+  void failedBatchStaysPendingAndIsRetried() {
+    doThrow(new DataAccessResourceFailureException("down"))
+        .doReturn(new int[1])
+        .when(jdbcTemplate)
+        .batchUpdate(anyString(), anyList());
+    store.save("alice", "a1");
+
+    store.flush();
+    assertThat(pendingTokens()).isEqualTo(1);
+
+    store.flush();
+    assertThat(pendingTokens()).isZero();
+    verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+  }
+
+  @Test
+  void tokenRotatedDuringAFlushIsWrittenByTheNextOne() {
+    store.save("alice", "a1");
+    doAnswer(
+            invocation -> {
+              store.save("alice", "a2");
+              return new int[1];
+            })
+        .doReturn(new int[1])
+        .when(jdbcTemplate)
+        .batchUpdate(anyString(), anyList());
+
+    store.flush();
+    assertThat(pendingTokens()).isEqualTo(1);
+
+    store.flush();
+    assertThat(writtenRows(2)).extracting(row -> row[0]).containsExactly("a1", "a2");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void rotatesThePendingTokenAndRejectsItsReuse() {
+    store.save("alice", "a1");
+
+    assertThat(store.rotate("alice", "a1", "a2")).isTrue();
+    assertThat(store.rotate("alice", "a1", "a3")).isFalse();
+    assertThat(store.rotate("alice", "a2", "a3")).isTrue();
+    verify(jdbcTemplate, never()).query(anyString(), any(ResultSetExtractor.class), any());
+  }
+
+  @Test
+  void rotatesTheStoredTokenWhenNothingIsPending() {
+    stored("alice", "a1");
+
+    assertThat(store.rotate("alice", "stale", "a2")).isFalse();
+    assertThat(store.rotate("alice", "a1", "a2")).isTrue();
+
+    store.flush();
+    assertThat(writtenRows(1)).extracting(row -> row[0]).containsExactly("a2");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void loginDuringRotationMakesThePresentedTokenStale() {
+    // A login stores a new token while the rotation reads the stored one, so the swap fails and
+    // the re-read sees that the presented token is no longer current
+    when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class), eq("alice")))
+        .thenAnswer(
+            invocation -> {
+              store.save("alice", "login");
+              return "a1";
+            });
+
+    assertThat(store.rotate("alice", "a1", "a2")).isFalse();
+
+    store.flush();
+    assertThat(writtenRows(1)).extracting(row -> row[0]).containsExactly("login");
+  }
+
+  @Test
+  void concurrentRefreshesWithTheSameTokenCannotBothSucceed() throws Exception {
+    store.save("alice", "a1");
+    var ready = new CountDownLatch(1);
+    var attempts = new ArrayList<Callable<Boolean>>();
+    for (int i = 0; i < 8; i++) {
+      var replacement = "a2-" + i;
+      attempts.add(
+          () -> {
+            ready.await();
+            return store.rotate("alice", "a1", replacement);
+          });
+    }
+
+    try (var executor = Executors.newFixedThreadPool(8)) {
+      var results = attempts.stream().map(executor::submit).toList();
+      ready.countDown();
+
+      int succeeded = 0;
+      for (var result : results) {
+        succeeded += result.get() ? 1 : 0;
+      }
+      assertThat(succeeded).isEqualTo(1);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Object[]> writtenRows(int batches) {
+    var captor = ArgumentCaptor.forClass(List.class);
+    verify(jdbcTemplate, times(batches)).batchUpdate(anyString(), captor.capture());
+
+    var rows = new ArrayList<Object[]>();
+    captor.getAllValues().forEach(batch -> rows.addAll((List<Object[]>) batch));
+    return rows;
+  }
+
+  private double pendingTokens() {
+    return meterRegistry.get("auth.refresh_tokens.pending").gauge().value();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void stored(String username, String token) {
+    when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class), eq(username)))
+        .thenReturn(token);
+  }
+}
@@ -0,0 +1,303 @@
+package com.fullstack.station_manager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+class StationFeedClientTest {
+
+  private static final String BODY = "{\"stops\":[]}";
+
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private SimpleMeterRegistry meterRegistry;
+  private StationFeedClient client;
+
+  private final AtomicInteger requests = new AtomicInteger();
+  private volatile String acceptEncoding;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    serverExecutor = Executors.newCachedThreadPool();
+    server.setExecutor(serverExecutor);
+    server.start();
+
+    meterRegistry = new SimpleMeterRegistry();
+    client = client(Duration.ofMillis(500), List.of(), 3, 2, Duration.ofMinutes(1));
+  }
+
+  @AfterEach
+  void stopServer() {
+    client.shutdown();
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  @Test
+  void decodesGzipResponses() throws Exception {
+    var uri =
+        serve(
+            "/gzip",
+            exchange -> {
+              acceptEncoding = exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+              exchange.getResponseHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+              respond(exchange, 200, gzip(BODY));
+            });
+
+    var result =
+        client.execute(
+            uri,
+            headers -> {},
+            response -> {
+              assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING))
+                  .isFalse();
+              return new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+            });
+
+    assertThat(result).isEqualTo(BODY);
+    assertThat(acceptEncoding).isEqualTo("gzip");
+  }
+
+  @Test
+  void passesRequestHeadersAndNotModifiedResponses() throws Exception {
+    var uri =
+        serve(
+            "/conditional",
+            exchange -> {
+              var match = exchange.getRequestHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+              respond(exchange, "\"v1\"".equals(match) ? 304 : 200, new byte[0]);
+            });
+
+    var status =
+        client.execute(
+            uri, headers -> headers.setIfNoneMatch("\"v1\""), response -> response.getStatusCode());
+
+    assertThat(status.value()).isEqualTo(304);
+  }
+
+  @Test
+  void retriesServerErrorsUntilTheFeedRecovers() throws Exception {
+    var uri =
+        serve(
+            "/flaky",
+            exchange -> {
+              if (requests.incrementAndGet() < 3) {
+                respond(exchange, 503, new byte[0]);
+              } else {
+                respond(exchange, 200, BODY.getBytes(StandardCharsets.UTF_8));
+              }
+            });
+
+    var result = client.execute(uri, headers -> {}, response -> response.getBody().readAllBytes());
+
+    assertThat(new String(result, StandardCharsets.UTF_8)).isEqualTo(BODY);
+    assertThat(requests).hasValue(3);
+    assertThat(meterRegistry.get("stations.feed.retries").tag("feed", uri).counter().count())
+        .isEqualTo(2);
+  }
+
+  @Test
+  void doesNotRetryClientErrors() throws Exception {
+    var uri =
+        serve(
+            "/missing",
+            exchange -> {
+              requests.incrementAndGet();
+              respond(exchange, 404, new byte[0]);
+            });
+
+    assertThatThrownBy(() -> client.execute(uri, headers -> {}, response -> null))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("HTTP 404");
+    assertThat(requests).hasValue(1);
+  }
+
+  @Test
+  void timesOutSlowHeaders() throws Exception {
+    var uri =
+        serve(
+            "/slow-headers",
+            exchange -> {
+              requests.incrementAndGet();
+              sleep(Duration.ofSeconds(2));
+              respond(exchange, 200, new byte[0]);
+            });
+
+    assertThatThrownBy(() -> client.execute(uri, headers -> {}, response -> null))
+        .isInstanceOf(HttpTimeoutException.class);
+    assertThat(requests).hasValue(3);
+  }
+
+  @Test
+  void timesOutSlowBodies() throws Exception {
+    var uri =
+        serve(
+            "/slow-body",
+            exchange -> {
+              exchange.sendResponseHeaders(200, 0);
+              exchange.getResponseBody().write('{');
+              exchange.getResponseBody().flush();
+              sleep(Duration.ofSeconds(2));
+              exchange.close();
+            });
+
+    long started = System.nanoTime();
+    assertThatThrownBy(
+            () -> client.execute(uri, headers -> {}, response -> response.getBody().readAllBytes()))
+        .isInstanceOf(HttpTimeoutException.class);
+    assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+  }
+
+  @Test
+  void allowsBodiesThatKeepArrivingPastTheTimeout() throws Exception {
+    var uri =
+        serve(
+            "/trickle",
+            exchange -> {
+              exchange.sendResponseHeaders(200, 0);
+              for (int i = 0; i < 8; i++) {
+                exchange.getResponseBody().write('x');
+                exchange.getResponseBody().flush();
+                sleep(Duration.ofMillis(150));
+              }
+            });
+
+    var result = client.execute(uri, headers -> {}, response -> response.getBody().readAllBytes());
+
+    assertThat(result).hasSize(8);
+  }
+
+  @Test
+  void appliesPerFeedTimeouts() throws Exception {
+    var uri =
+        serve(
+            "/patient",
+            exchange -> {
+              sleep(Duration.ofMillis(800));
+              respond(exchange, 200, BODY.getBytes(StandardCharsets.UTF_8));
+            });
+    client.shutdown();
+    client = client(Duration.ofMillis(500), List.of(uri + "=3s"), 1, 2, Duration.ofMinutes(1));
+
+    var result = client.execute(uri, headers -> {}, response -> response.getBody().readAllBytes());
+
+    assertThat(new String(result, StandardCharsets.UTF_8)).isEqualTo(BODY);
+  }
+
+  @Test
+  void opensTheCircuitAfterRepeatedFailuresAndClosesItAfterATrial() throws Exception {
+    var healthy = new AtomicInteger();
+    var uri =
+        serve(
+            "/failing",
+            exchange -> {
+              requests.incrementAndGet();
+              respond(exchange, healthy.get() == 1 ? 200 : 500, new byte[0]);
+            });
+    client.shutdown();
+    client = client(Duration.ofMillis(500), List.of(), 1, 2, Duration.ofMillis(300));
+
+    for (int i = 0; i < 2; i++) {
+      assertThatThrownBy(() -> client.execute(uri, headers -> {}, response -> null))
+          .hasMessageContaining("HTTP 500");
+    }
+
+    assertThatThrownBy(() -> client.execute(uri, headers -> {}, response -> null))
+        .isInstanceOf(StationFeedClient.FeedUnavailableException.class);
+    assertThat(requests).hasValue(2);
+    assertThat(circuitState(uri)).isEqualTo(2);
+    assertThat(
+            meterRegistry.get("stations.feed.circuit.rejected").tag("feed", uri).counter().count())
+        .isEqualTo(1);
+
+    healthy.set(1);
+    sleep(Duration.ofMillis(400));
+    client.execute(uri, headers -> {}, response -> null);
+
+    assertThat(requests).hasValue(3);
+    assertThat(circuitState(uri)).isZero();
+  }
+
+  private StationFeedClient client(
+      Duration timeout,
+      List<String> feedTimeouts,
+      int maxAttempts,
+      int failureThreshold,
+      Duration openDuration) {
+    return new StationFeedClient(
+        meterRegistry,
+        Duration.ofSeconds(1),
+        timeout,
+        feedTimeouts,
+        maxAttempts,
+        Duration.ofMillis(10),
+        Duration.ofMillis(50),
+        failureThreshold,
+        openDuration);
+  }
+
+  private double circuitState(String uri) {
+    return meterRegistry.get("stations.feed.circuit.state").tag("feed", uri).gauge().value();
+  }
+
+  private String serve(String path, Handler handler) {
+    server.createContext(
+        path,
+        exchange -> {
+          try (exchange) {
+            handler.handle(exchange);
+          }
+        });
+
+    return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+  }
+
+  private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+    exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+    if (body.length > 0) {
+      exchange.getResponseBody().write(body);
+    }
+  }
+
+  private static byte[] gzip(String body) throws IOException {
+    var buffer = new ByteArrayOutputStream();
+    try (var gzip = new GZIPOutputStream(buffer)) {
+      gzip.write(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    return buffer.toByteArray();
+  }
+
+  private static void sleep(Duration duration) {
+    try {
+      Thread.sleep(duration);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private interface Handler {
+
+    void handle(HttpExchange exchange) throws IOException;
+  }
+}
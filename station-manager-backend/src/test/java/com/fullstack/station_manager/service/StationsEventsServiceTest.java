@@ -0,0 +1,250 @@
+package com.fullstack.station_manager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.Stations;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class StationsEventsServiceTest {
+
+  private static final Pattern EVENT = Pattern.compile("event:(\\w+)\nid:([^\n]+)\n");
+  private static final int HISTORY = 3;
+  private static final int MAX_PENDING = 2;
+
+  private final StationsSnapshotService snapshotService = mock(StationsSnapshotService.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private StationsEventsService eventsService;
+  private StationsSnapshotService.Snapshot current;
+
+  @BeforeEach
+  void setUp() {
+    eventsService =
+        new StationsEventsService(
+            snapshotService,
+            new ObjectMapper(),
+            meterRegistry,
+            Duration.ofMinutes(1),
+            100,
+            HISTORY,
+            MAX_PENDING);
+    current = snapshot(1);
+    when(snapshotService.current()).thenAnswer(invocation -> current);
+  }
+
+  @AfterEach
+  void tearDown() {
+    eventsService.shutdown();
+  }
+
+  @Test
+  void newSubscriberStartsWithReady() {
+    var emitter = eventsService.subscribe(null);
+
+    assertThat(events(emitter, 1)).containsExactly("ready " + token(1));
+  }
+
+  @Test
+  void resumingFromARetainedVersionReplaysOnlyLaterDeltas() {
+    publishUpTo(5);
+
+    var emitter = eventsService.subscribe(token(3));
+
+    assertThat(events(emitter, 2)).containsExactly("delta " + token(4), "delta " + token(5));
+  }
+
+  @Test
+  void resumingFromTheLatestVersionReplaysNothingButReceivesNewDeltas() {
+    publishUpTo(3);
+
+    var emitter = eventsService.subscribe(token(3));
+    publishUpTo(4);
+
+    assertThat(events(emitter, 1)).containsExactly("delta " + token(4));
+  }
+
+  @Test
+  void evictedVersionForcesAReset() {
+    publishUpTo(6);
+
+    // History holds the deltas to v4, v5 and v6, so v3 is the oldest resumable version. Its
+    // replay is longer than MAX_PENDING, which only bounds live events
+    var evicted = eventsService.subscribe(token(2));
+    var retained = eventsService.subscribe(token(3));
+
+    assertThat(events(evicted, 1)).containsExactly("reset " + token(6));
+    assertThat(events(retained, 3))
+        .containsExactly("delta " + token(4), "delta " + token(5), "delta " + token(6));
+  }
+
+  @Test
+  void tokenFromAnotherEpochOrMalformedForcesAReset() {
+    publishUpTo(2);
+
+    var otherEpoch = eventsService.subscribe("0." + 2);
+    var malformed = eventsService.subscribe("not-a-token");
+
+    assertThat(events(otherEpoch, 1)).containsExactly("reset " + token(2));
+    assertThat(events(malformed, 1)).containsExactly("reset " + token(2));
+  }
+
+  @Test
+  void fullQueueDropsOnlyThatSubscriberWithoutBlockingThePublisher() throws Exception {
+    var slow = eventsService.subscribe(null);
+    var healthy = eventsService.subscribe(null);
+    events(healthy, 1);
+
+    var release = new CountDownLatch(1);
+    var holder = stall(slow, release);
+
+    // The slow subscriber's ready event is stuck, v2 fills its queue and v3 overflows it. The
+    // healthy one drains each delta before the next is published
+    for (long version = 2; version <= 4; version++) {
+      long next = version;
+      assertTimeoutPreemptively(Duration.ofSeconds(5), () -> publishUpTo(next));
+      assertThat(events(healthy, (int) version)).hasSize((int) version);
+    }
+
+    assertThat(meterRegistry.counter("stations.events.dropped").count()).isEqualTo(1);
+    assertThat(meterRegistry.get("stations.events.subscribers").gauge().value()).isEqualTo(1);
+    assertThat(events(healthy, 4))
+        .containsExactly(
+            "ready " + token(1), "delta " + token(2), "delta " + token(3), "delta " + token(4));
+
+    release.countDown();
+    holder.join();
+  }
+
+  @Test
+  void replayedDeltasStopCountingOnceSent() throws Exception {
+    publishUpTo(6);
+    var resumed = eventsService.subscribe(token(3));
+    assertThat(events(resumed, 3)).hasSize(3);
+
+    // With the replay drained, the usual live backlog limit applies: v7 is stuck, v8 fills the
+    // queue and v9 overflows it
+    var release = new CountDownLatch(1);
+    var holder = stall(resumed, release);
+    assertTimeoutPreemptively(Duration.ofSeconds(5), () -> publishUpTo(9));
+
+    assertThat(meterRegistry.counter("stations.events.dropped").count()).isEqualTo(1);
+    assertThat(meterRegistry.get("stations.events.subscribers").gauge().value()).isZero();
+
+    release.countDown();
+    holder.join();
+  }
+
+  private void publishUpTo(long version) {
+    while (current.version() < version) {
+      var previous = current;
+      current = snapshot(previous.version() + 1);
+      eventsService.onSnapshotPublished(new StationsSnapshotService.Published(previous, current));
+    }
+  }
+
+  private String token(long version) {
+    return eventsService.token(snapshot(version));
+  }
+
+  // Another thread holds the emitter's write lock, like a send stuck on a slow client
+  private static Thread stall(SseEmitter emitter, CountDownLatch release)
+      throws InterruptedException {
+    var writeLock = (Lock) ReflectionTestUtils.getField(emitter, "writeLock");
+    var locked = new CountDownLatch(1);
+    var holder =
+        Thread.ofPlatform()
+            .start(
+                () -> {
+                  writeLock.lock();
+                  try {
+                    locked.countDown();
+                    release.await();
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  } finally {
+                    writeLock.unlock();
+                  }
+                });
+    locked.await();
+
+    return holder;
+  }
+
+  // Events the emitter buffered before a response was attached, as "<name> <id>"
+  private static List<String> events(SseEmitter emitter, int expected) {
+    var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    List<String> events;
+
+    do {
+      events = sent(emitter);
+    } while (events.size() < expected && System.nanoTime() < deadline && pause());
+
+    return events;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<String> sent(SseEmitter emitter) {
+    var writeLock = (Lock) ReflectionTestUtils.getField(emitter, "writeLock");
+    var text = new StringBuilder();
+
+    writeLock.lock();
+    try {
+      var sent =
+          (Set<ResponseBodyEmitter.DataWithMediaType>)
+              ReflectionTestUtils.getField(emitter, "earlySendAttempts");
+      sent.forEach(data -> text.append(data.getData()));
+    } finally {
+      writeLock.unlock();
+    }
+
+    var events = new ArrayList<String>();
+    var matcher = EVENT.matcher(text);
+    while (matcher.find()) {
+      events.add(matcher.group(1) + " " + matcher.group(2));
+    }
+
+    return events;
+  }
+
+  private static boolean pause() {
+    try {
+      Thread.sleep(10);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  // Every version renames the one station, so each publication yields a delta
+  private static StationsSnapshotService.Snapshot snapshot(long version) {
+    var station =
+        Stations.builder()
+            .stationUri("finch")
+            .stationName("Finch v" + version)
+            .stationRoutes(List.<StationRoute>of())
+            .build();
+
+    return new StationsSnapshotService.Snapshot(
+        version, List.of(station), "hash-" + version, Map.of(), Instant.now());
+  }
+}
@@ -0,0 +1,290 @@
+package com.fullstack.station_manager.service;
+
+import static com.fullstack.station_manager.StationsFixtures.ZONE;
+import static com.fullstack.station_manager.StationsFixtures.route;
+import static com.fullstack.station_manager.StationsFixtures.station;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fullstack.station_manager.dto.response.ScheduleHistoryResponse;
+import com.fullstack.station_manager.dto.response.ScheduleTrendResponse;
+import com.fullstack.station_manager.entity.StopTimesObservation;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.web.server.ResponseStatusException;
+
+class StationsHistoryServiceTest {
+
+  private static final String COLLECTION = "stop_times_history";
+  private static final long DAY_ONE =
+      LocalDate.of(2023, 11, 14).atStartOfDay(ZONE).toEpochSecond();
+  private static final long HOUR = 3_600L;
+
+  private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+  private final IndexOperations indexOps = mock(IndexOperations.class);
+  private final StationsHistoryService service =
+      new StationsHistoryService(mongoTemplate, true, Duration.ofDays(30), ZONE);
+
+  @Test
+  void createsTheCollectionWithAStationAndDayIndex() {
+    when(mongoTemplate.indexOps(COLLECTION)).thenReturn(indexOps);
+
+    service.createCollection();
+
+    verify(mongoTemplate).createCollection(eq(COLLECTION), any(CollectionOptions.class));
+    assertThat(createdIndex().getIndexKeys())
+        .isEqualTo(new Document("meta.station", 1).append("day", 1));
+  }
+
+  @Test
+  void appliesRetentionAndTheIndexToAnExistingCollection() {
+    when(mongoTemplate.collectionExists(COLLECTION)).thenReturn(true);
+    when(mongoTemplate.indexOps(COLLECTION)).thenReturn(indexOps);
+
+    service.createCollection();
+
+    verify(mongoTemplate)
+        .executeCommand(
+            new Document("collMod", COLLECTION).append("expireAfterSeconds", 2_592_000L));
+    verify(mongoTemplate, never()).createCollection(anyString(), any(CollectionOptions.class));
+    assertThat(createdIndex().getIndexKeys())
+        .isEqualTo(new Document("meta.station", 1).append("day", 1));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void recordsOneObservationPerRouteAndServiceDay() {
+    var observedAt = Instant.ofEpochSecond(DAY_ONE);
+    var station =
+        station(
+            "finch",
+            route("30_finch_east", DAY_ONE + 6 * HOUR, DAY_ONE + 7 * HOUR),
+            route("30_finch_east", DAY_ONE + 5 * HOUR, DAY_ONE + 30 * HOUR),
+            route("32_yonge"));
+
+    service.record(observedAt, List.of(station));
+
+    var captor = ArgumentCaptor.forClass(List.class);
+    verify(mongoTemplate).insert(captor.capture(), eq(StopTimesObservation.class));
+    var observations = (List<StopTimesObservation>) captor.getValue();
+
+    assertThat(observations)
+        .extracting(
+            StopTimesObservation::getServiceDay,
+            StopTimesObservation::getDepartures,
+            StopTimesObservation::getFirstDeparture,
+            StopTimesObservation::getLastDeparture)
+        .containsExactly(
+            tuple("2023-11-14", 3, 5 * 3_600, 7 * 3_600),
+            tuple("2023-11-15", 1, 6 * 3_600, 6 * 3_600));
+    assertThat(observations)
+        .allSatisfy(
+            observation -> {
+              assertThat(observation.getObservedAt()).isEqualTo(observedAt);
+              assertThat(observation.getMeta())
+                  .isEqualTo(new StopTimesObservation.Meta("finch", "30_finch_east"));
+            });
+  }
+
+  @Test
+  void historyMatchesTheStationDaysAndRoute() {
+    var observed = Date.from(Instant.ofEpochSecond(DAY_ONE));
+    returns(
+        new Document("_id", new Document("route", "30_finch_east").append("day", "2023-11-14"))
+            .append("n", 12)
+            .append("first", 5 * 3_600)
+            .append("last", 25 * 3_600 + 30)
+            .append("observations", 4)
+            .append("versions", 2)
+            .append("firstObserved", observed)
+            .append("lastObserved", observed));
+
+    var response =
+        service.history(
+            "finch", "30_finch_east", LocalDate.of(2023, 11, 14), LocalDate.of(2023, 11, 20));
+
+    var pipeline = pipeline();
+    assertThat(pipeline.get(0))
+        .isEqualTo(
+            new Document(
+                "$match",
+                new Document("meta.station", "finch")
+                    .append(
+                        "day", new Document("$gte", "2023-11-14").append("$lte", "2023-11-20"))
+                    .append("meta.route", "30_finch_east")));
+    assertThat(pipeline)
+        .extracting(stage -> stage.keySet().iterator().next())
+        .containsExactly("$match", "$sort", "$group", "$addFields", "$sort");
+
+    var items = (List<?>) response.getData();
+    assertThat(items)
+        .singleElement()
+        .isEqualTo(
+            ScheduleHistoryResponse.builder()
+                .route("30_finch_east")
+                .serviceDay("2023-11-14")
+                .departures(12)
+                .firstDeparture("05:00:00")
+                .lastDeparture("25:00:30")
+                .observations(4)
+                .versions(2)
+                .firstObserved(observed.toInstant())
+                .lastObserved(observed.toInstant())
+                .build());
+  }
+
+  @Test
+  void historyDefaultsToTheLastWeekOfAllRoutes() {
+    returns();
+    var today = LocalDate.now(ZONE);
+
+    service.history("finch", null, null, null);
+
+    assertThat(pipeline().get(0))
+        .isEqualTo(
+            new Document(
+                "$match",
+                new Document("meta.station", "finch")
+                    .append(
+                        "day",
+                        new Document("$gte", today.minusDays(6).toString())
+                            .append("$lte", today.toString()))));
+  }
+
+  @Test
+  void trendsTruncateServiceDaysToTheUnit() {
+    returns(
+        new Document(
+                "_id",
+                new Document("route", "30_finch_east")
+                    .append("period", Date.from(Instant.parse("2023-11-13T00:00:00Z"))))
+            .append("serviceDays", 5)
+            .append("departures", 10.5)
+            .append("minDepartures", 1)
+            .append("maxDepartures", 20)
+            .append("first", 5 * 3_600)
+            .append("last", 23 * 3_600)
+            .append("headway", null));
+
+    var response =
+        service.trends(
+            "finch", null, LocalDate.of(2023, 11, 1), LocalDate.of(2023, 11, 30), "week");
+
+    var pipeline = pipeline();
+    assertThat(pipeline)
+        .extracting(stage -> stage.keySet().iterator().next())
+        .containsExactly("$match", "$sort", "$group", "$group", "$sort");
+    var period =
+        pipeline
+            .get(3)
+            .get("$group", Document.class)
+            .get("_id", Document.class)
+            .get("period", Document.class)
+            .get("$dateTrunc", Document.class);
+    assertThat(period.getString("unit")).isEqualTo("week");
+    assertThat(period.getString("startOfWeek")).isEqualTo("monday");
+
+    var items = (List<?>) response.getData();
+    assertThat(items)
+        .singleElement()
+        .isEqualTo(
+            ScheduleTrendResponse.builder()
+                .route("30_finch_east")
+                .period("2023-11-13")
+                .serviceDays(5)
+                .departures(10.5)
+                .minDepartures(1)
+                .maxDepartures(20)
+                .firstDeparture("05:00:00")
+                .lastDeparture("23:00:00")
+                .headwayMinutes(null)
+                .build());
+  }
+
+  @Test
+  void trendsDefaultToDays() {
+    returns();
+
+    service.trends("finch", null, null, null, null);
+
+    assertThat(
+            pipeline()
+                .get(3)
+                .get("$group", Document.class)
+                .get("_id", Document.class)
+                .get("period", Document.class)
+                .get("$dateTrunc", Document.class)
+                .getString("unit"))
+        .isEqualTo("day");
+  }
+
+  @Test
+  void rejectsAnUnknownUnit() {
+    assertThatThrownBy(() -> service.trends("finch", null, null, null, "year"))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("Unit must be one of day, week or month");
+    verify(mongoTemplate, never())
+        .aggregate(any(Aggregation.class), anyString(), eq(Document.class));
+  }
+
+  @Test
+  void rejectsAFromAfterTo() {
+    assertThatThrownBy(
+            () ->
+                service.history(
+                    "finch", null, LocalDate.of(2023, 11, 15), LocalDate.of(2023, 11, 14)))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("From must not be after to");
+  }
+
+  @Test
+  void rejectsARangeLongerThanAYear() {
+    returns();
+    var to = LocalDate.of(2023, 11, 14);
+
+    assertThat((List<?>) service.history("finch", null, to.minusDays(365), to).getData())
+        .isEmpty();
+    assertThatThrownBy(() -> service.trends("finch", null, to.minusDays(366), to, "month"))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("Range must not exceed 366 days");
+  }
+
+  private void returns(Document... results) {
+    when(mongoTemplate.aggregate(any(Aggregation.class), eq(COLLECTION), eq(Document.class)))
+        .thenReturn(new AggregationResults<>(List.of(results), new Document()));
+  }
+
+  private List<Document> pipeline() {
+    var captor = ArgumentCaptor.forClass(Aggregation.class);
+    verify(mongoTemplate).aggregate(captor.capture(), eq(COLLECTION), eq(Document.class));
+
+    return captor.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+  }
+
+  private IndexDefinition createdIndex() {
+    var captor = ArgumentCaptor.forClass(IndexDefinition.class);
+    verify(indexOps).createIndex(captor.capture());
+
+    return captor.getValue();
+  }
+}
@@ -0,0 +1,266 @@
+package com.fullstack.station_manager.service;
+
+import static com.fullstack.station_manager.StationsFixtures.DAY;
+import static com.fullstack.station_manager.StationsFixtures.MORNING;
+import static com.fullstack.station_manager.StationsFixtures.ZONE;
+import static com.fullstack.station_manager.StationsFixtures.route;
+import static com.fullstack.station_manager.StationsFixtures.station;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimes;
+import com.fullstack.station_manager.entity.StopTimesBucket;
+import com.fullstack.station_manager.repository.StationsRepository;
+import com.fullstack.station_manager.utility.StopTimesBuckets;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class StationsSynchronizerTest {
+
+  private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+  private final StationsRepository stationsRepository = mock(StationsRepository.class);
+  private final BulkOperations stationBulk = mock(BulkOperations.class);
+  private final BulkOperations bucketBulk = mock(BulkOperations.class);
+
+  private StationsSynchronizer synchronizer;
+
+  @BeforeEach
+  void setUp() {
+    when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Stations.class)))
+        .thenReturn(stationBulk);
+    when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(StopTimesBucket.class)))
+        .thenReturn(bucketBulk);
+
+    synchronizer = new StationsSynchronizer(mongoTemplate, stationsRepository);
+    ReflectionTestUtils.setField(synchronizer, "serviceZone", ZONE);
+    stored();
+  }
+
+  @Test
+  void unchangedFeedWritesNothing() {
+    stored(finch(), yonge());
+
+    var session = synchronizer.begin();
+    session.apply(List.of(finch(), yonge()));
+    var stats = session.finish(true);
+
+    assertThat(stats.getUnchanged()).isEqualTo(2);
+    assertThat(stats.getTouched()).isZero();
+    assertThat(stats.getBucketsWritten()).isZero();
+    assertThat(stats.getBulkWrites()).isZero();
+    verify(stationBulk, never()).execute();
+    verify(bucketBulk, never()).execute();
+  }
+
+  @Test
+  void newStationIsInsertedWithItsBuckets() {
+    var session = synchronizer.begin();
+    session.apply(List.of(finch()));
+    var stats = session.finish(true);
+
+    assertThat(stats.getInserted()).isEqualTo(1);
+    assertThat(stats.getBucketsWritten()).isEqualTo(3);
+    verify(stationBulk).insert(any(Object.class));
+    verify(bucketBulk, times(3)).insert(any(Object.class));
+  }
+
+  @Test
+  void singleRouteChangePatchesOnlyThatSlot() {
+    stored(finch());
+
+    var changed =
+        station(
+            "finch",
+            route("30_finch_east", MORNING, MORNING + 600),
+            route("31_finch_west", MORNING + 300, MORNING + 1_500, MORNING + DAY));
+
+    var session = synchronizer.begin();
+    session.apply(List.of(changed));
+    var stats = session.finish(true);
+
+    assertThat(stats.getPatched()).isEqualTo(1);
+    assertThat(stats.getRoutesPatched()).isEqualTo(1);
+    assertThat(stats.getReplaced()).isZero();
+
+    var update = ArgumentCaptor.forClass(Update.class);
+    verify(stationBulk).updateOne(any(Query.class), update.capture());
+    var set = (Document) update.getValue().getUpdateObject().get("$set");
+    assertThat(set).containsKeys("station_routes.1", "route_hashes.1", "station_hash");
+    assertThat(set).doesNotContainKeys("station_routes.0", "route_hashes.0");
+    verify(stationBulk, never())
+        .replaceOne(any(Query.class), any(), any(FindAndReplaceOptions.class));
+
+    // Only the bucket of the changed route and day is rewritten
+    assertThat(stats.getBucketsWritten()).isEqualTo(1);
+    verify(bucketBulk).replaceOne(any(Query.class), any(), any(FindAndReplaceOptions.class));
+    verify(bucketBulk, never()).insert(any(Object.class));
+  }
+
+  @Test
+  void routeCountChangeFallsBackToReplace() {
+    stored(finch());
+
+    var changed =
+        station(
+            "finch",
+            route("30_finch_east", MORNING, MORNING + 600),
+            route("31_finch_west", MORNING + 300, MORNING + 900, MORNING + DAY),
+            route("32_yonge", MORNING + 120));
+
+    var session = synchronizer.begin();
+    session.apply(List.of(changed));
+    var stats = session.finish(true);
+
+    assertThat(stats.getReplaced()).isEqualTo(1);
+    assertThat(stats.getPatched()).isZero();
+    verify(stationBulk)
+        .replaceOne(any(Query.class), eq(changed), any(FindAndReplaceOptions.class));
+    verify(stationBulk, never()).updateOne(any(Query.class), any(Update.class));
+
+    // The new route slot gets a new bucket; the others are unchanged
+    assertThat(stats.getBucketsWritten()).isEqualTo(1);
+    verify(bucketBulk).insert(any(Object.class));
+  }
+
+  @Test
+  void staleBucketsAreRemoved() {
+    stored(finch());
+
+    // Route 31 loses its departure on the next service day
+    var changed =
+        station(
+            "finch",
+            route("30_finch_east", MORNING, MORNING + 600),
+            route("31_finch_west", MORNING + 300, MORNING + 900));
+
+    var session = synchronizer.begin();
+    session.apply(List.of(changed));
+    var stats = session.finish(true);
+
+    assertThat(stats.getPatched()).isEqualTo(1);
+    assertThat(stats.getBucketsRemoved()).isEqualTo(1);
+    assertThat(stats.getBucketsWritten()).isZero();
+    verify(bucketBulk).remove(any(Query.class));
+  }
+
+  @Test
+  void embeddedStopTimesAreMovedToBuckets() {
+    // Same content hash, but stored before buckets existed: no bucket fingerprints
+    var existing = finch();
+    StationsSynchronizer.fingerprint(existing);
+    when(stationsRepository.findAllFingerprints()).thenReturn(List.of(existing));
+    when(stationsRepository.findBucketFingerprints()).thenReturn(List.of());
+
+    var session = synchronizer.begin();
+    session.apply(List.of(finch()));
+    var stats = session.finish(true);
+
+    assertThat(stats.getUnchanged()).isZero();
+    assertThat(stats.getReplaced()).isEqualTo(1);
+    assertThat(stats.getPatched()).isZero();
+    assertThat(stats.getBucketsWritten()).isEqualTo(3);
+    verify(stationBulk).replaceOne(any(Query.class), any(), any(FindAndReplaceOptions.class));
+    verify(bucketBulk, times(3)).insert(any(Object.class));
+  }
+
+  @Test
+  void staleStationsAreRemovedWithTheirBuckets() {
+    stored(finch(), yonge());
+
+    var session = synchronizer.begin();
+    session.apply(List.of(finch()));
+    var stats = session.finish(true);
+
+    assertThat(stats.getRemoved()).isEqualTo(1);
+    assertThat(stats.getBucketsRemoved()).isEqualTo(1);
+
+    var removed = ArgumentCaptor.forClass(Query.class);
+    verify(stationBulk).remove(removed.capture());
+    assertThat(removed.getValue().getQueryObject().toJson()).contains("yonge");
+    verify(bucketBulk).remove(any(Query.class));
+  }
+
+  @Test
+  void failedFeedKeepsItsStations() {
+    stored(finch(), yonge());
+
+    var session = synchronizer.begin();
+    session.apply(List.of(finch()));
+    var stats = session.finish(false);
+
+    assertThat(stats.getRemoved()).isZero();
+    assertThat(stats.getBucketsRemoved()).isZero();
+    verify(stationBulk, never()).remove(any(Query.class));
+    verify(bucketBulk, never()).remove(any(Query.class));
+  }
+
+  @Test
+  void retainedStationsOfNotModifiedFeedsAreNotStale() {
+    stored(finch(), yonge());
+
+    var session = synchronizer.begin();
+    session.retain(List.of("yonge"));
+    session.apply(List.of(finch()));
+    var stats = session.finish(true);
+
+    assertThat(stats.getUnchanged()).isEqualTo(2);
+    assertThat(stats.getRemoved()).isZero();
+    verify(stationBulk, never()).remove(any(Query.class));
+  }
+
+  @Test
+  void duplicateStationsKeepTheFirstOccurrence() {
+    var session = synchronizer.begin();
+    session.apply(List.of(finch(), station("finch", route("99_other", MORNING))));
+    var stats = session.finish(true);
+
+    assertThat(stats.getInserted()).isEqualTo(1);
+    verify(stationBulk, times(1)).insert(any(Object.class));
+  }
+
+  // Two routes; 31_finch_west also runs on the next service day, so three buckets
+  private static Stations finch() {
+    return station(
+        "finch",
+        route("30_finch_east", MORNING, MORNING + 600),
+        route("31_finch_west", MORNING + 300, MORNING + 900, MORNING + DAY));
+  }
+
+  private static Stations yonge() {
+    return station("yonge", route("32_yonge", MORNING + 60, MORNING + 660));
+  }
+
+  private void stored(Stations... stations) {
+    var fingerprints = new ArrayList<Stations>();
+    var buckets = new ArrayList<StopTimesBucket>();
+
+    for (var station : stations) {
+      StationsSynchronizer.fingerprint(station);
+      fingerprints.add(station);
+      buckets.addAll(StopTimesBuckets.split(station, ZONE));
+    }
+
+    when(stationsRepository.findAllFingerprints()).thenReturn(fingerprints);
+    when(stationsRepository.findBucketFingerprints()).thenReturn(buckets);
+  }
+
+
+}
@@ -0,0 +1,73 @@
+package com.fullstack.station_manager.utility;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fullstack.station_manager.service.JwtAuthenticationCache;
+import com.fullstack.station_manager.service.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+class JwtUtilTest {
+
+  private final JwtAuthenticationCache cache = mock(JwtAuthenticationCache.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final JwtUtil filter = new JwtUtil(cache, meterRegistry);
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void authenticatesAnAccessToken() throws Exception {
+    var user = User.withUsername("alice").password("secret").build();
+    when(cache.verify("access"))
+        .thenReturn(new JwtService.VerifiedToken("alice", Instant.now().plusSeconds(60), false));
+    when(cache.loadUser("alice")).thenReturn(user);
+
+    var chain = filter("access");
+
+    assertThat(chain.getRequest()).isNotNull();
+    assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+        .isSameAs(user);
+    assertThat(filtered("authenticated")).isEqualTo(1);
+  }
+
+  @Test
+  void rejectsARefreshToken() throws Exception {
+    when(cache.verify("refresh"))
+        .thenReturn(new JwtService.VerifiedToken("alice", Instant.now().plusSeconds(60), true));
+    when(cache.loadUser("alice"))
+        .thenReturn(User.withUsername("alice").password("secret").build());
+
+    var chain = filter("refresh");
+
+    assertThat(chain.getRequest()).isNotNull();
+    assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    assertThat(filtered("rejected")).isEqualTo(1);
+    assertThat(filtered("authenticated")).isZero();
+  }
+
+  private MockFilterChain filter(String token) throws Exception {
+    var request = new MockHttpServletRequest("GET", "/api/stations");
+    request.addHeader("Authorization", "Bearer " + token);
+    var chain = new MockFilterChain();
+
+    filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+    return chain;
+  }
+
+  private long filtered(String result) {
+    return meterRegistry.get("security.jwt.filter").tag("result", result).timer().count();
+  }
+}
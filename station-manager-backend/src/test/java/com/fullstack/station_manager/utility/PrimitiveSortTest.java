@@ -0,0 +1,96 @@
+package com.fullstack.station_manager.utility;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class PrimitiveSortTest {
+
+  @Test
+  void sortsRandomInputLikeTheReference() {
+    var random = new Random(42);
+
+    for (int length : new int[] {0, 1, 2, 23, 24, 25, 100, 5_000}) {
+      var keys = random.longs(length, -1_000_000, 1_000_000).toArray();
+      assertSortedLikeReference(keys);
+    }
+  }
+
+  @Test
+  void sortsDuplicateKeysByValue() {
+    var random = new Random(7);
+    var keys = random.longs(2_000, 0, 5).toArray();
+
+    assertSortedLikeReference(keys);
+  }
+
+  @Test
+  void leavesSortedInputUntouched() {
+    var keys = IntStream.range(0, 1_000).asLongStream().toArray();
+    var values = IntStream.range(0, 1_000).toArray();
+
+    PrimitiveSort.sortByKey(keys, values);
+
+    assertThat(keys).isEqualTo(IntStream.range(0, 1_000).asLongStream().toArray());
+    assertThat(values).isEqualTo(IntStream.range(0, 1_000).toArray());
+  }
+
+  @Test
+  void sortsReverseInput() {
+    var keys = IntStream.range(0, 1_000).mapToLong(i -> 1_000 - i).toArray();
+
+    assertSortedLikeReference(keys);
+  }
+
+  @Test
+  void rejectsColumnsOfDifferentLengths() {
+    assertThatThrownBy(() -> PrimitiveSort.sortByKey(new long[2], new int[3]))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void lowerBoundMatchesALinearScan() {
+    var keys = new long[] {-5, 1, 1, 1, 4, 9, 9, 12};
+
+    for (long target = -7; target <= 14; target++) {
+      assertThat(PrimitiveSort.lowerBound(keys, target))
+          .as("target %d", target)
+          .isEqualTo(linearLowerBound(keys, target));
+    }
+    assertThat(PrimitiveSort.lowerBound(new long[0], 3)).isZero();
+  }
+
+  // The values start as the original positions, so the pairs can be checked against the input
+  private static void assertSortedLikeReference(long[] input) {
+    var keys = input.clone();
+    var values = IntStream.range(0, keys.length).toArray();
+
+    PrimitiveSort.sortByKey(keys, values);
+
+    var expected =
+        IntStream.range(0, input.length)
+            .boxed()
+            .sorted(Comparator.<Integer>comparingLong(i -> input[i]).thenComparing(i -> i))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    var expectedKeys = input.clone();
+    Arrays.sort(expectedKeys);
+
+    assertThat(keys).isEqualTo(expectedKeys);
+    assertThat(values).isEqualTo(expected);
+  }
+
+  private static int linearLowerBound(long[] keys, long target) {
+    int i = 0;
+    while (i < keys.length && keys[i] < target) {
+      i++;
+    }
+
+    return i;
+  }
+}
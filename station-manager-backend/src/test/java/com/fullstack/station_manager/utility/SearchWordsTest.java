@@ -0,0 +1,25 @@
+package com.fullstack.station_manager.utility;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SearchWordsTest {
+
+  @Test
+  void foldsCaseAccentsAndPunctuation() {
+    assertThat(SearchWords.normalize("  Côte-des-Neiges / FINCH  Station "))
+        .isEqualTo("cote des neiges finch station");
+  }
+
+  @Test
+  void wordsAreDistinctAndInOrder() {
+    assertThat(SearchWords.words("Finch West - Finch")).containsExactly("finch", "west");
+  }
+
+  @Test
+  void blankHasNoWords() {
+    assertThat(SearchWords.words(null)).isEmpty();
+    assertThat(SearchWords.words(" -- ")).isEmpty();
+  }
+}
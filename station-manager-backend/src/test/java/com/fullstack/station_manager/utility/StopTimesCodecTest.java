@@ -0,0 +1,150 @@
+package com.fullstack.station_manager.utility;
+
+import static com.fullstack.station_manager.StationsFixtures.DAY;
+import static com.fullstack.station_manager.StationsFixtures.MORNING;
+import static com.fullstack.station_manager.StationsFixtures.ZONE;
+import static com.fullstack.station_manager.StationsFixtures.route;
+import static com.fullstack.station_manager.StationsFixtures.station;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fullstack.station_manager.entity.StationRoute;
+import com.fullstack.station_manager.entity.Stations;
+import com.fullstack.station_manager.entity.StopTimes;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.Test;
+
+class StopTimesCodecTest {
+
+  @Test
+  void emptyRouteRoundTrips() {
+    var decoded = roundTrip(StopTimes.EMPTY);
+
+    assertThat(decoded.size()).isZero();
+    assertThat(decoded).isEqualTo(StopTimes.EMPTY);
+  }
+
+  @Test
+  void singleDepartureRoundTrips() {
+    var stopTimes = StopTimes.builder().add(3, "5:41a", MORNING, "30 Finch East").build();
+
+    var decoded = roundTrip(stopTimes);
+
+    assertThat(decoded).isEqualTo(stopTimes);
+    assertThat(decoded.serviceId(0)).isEqualTo(3);
+    assertThat(decoded.departureTime(0)).isEqualTo("5:41a");
+    assertThat(decoded.departureTimestamp(0)).isEqualTo(MORNING);
+    assertThat(decoded.shape(0)).isEqualTo("30 Finch East");
+  }
+
+  @Test
+  void extremeTimestampsAndServiceIdsRoundTrip() {
+    var stopTimes =
+        StopTimes.builder()
+            .add(0, "a", 0, "s")
+            .add(-1, "b", -1, "s")
+            .add(Integer.MAX_VALUE, "c", Long.MAX_VALUE, "s")
+            .add(Integer.MIN_VALUE, "d", Long.MIN_VALUE, "s")
+            .add(42, "e", MORNING, "s")
+            .add(7, "f", -MORNING, "s")
+            .build();
+
+    assertThat(roundTrip(stopTimes)).isEqualTo(stopTimes);
+  }
+
+  @Test
+  void dictionaryCodesBeyondOneVarIntByteRoundTrip() {
+    var builder = StopTimes.builder();
+    for (int i = 0; i < 20_000; i++) {
+      builder.add(i % 3, "time " + i, MORNING + i * 60L, "shape " + (i % 300));
+    }
+    var stopTimes = builder.build();
+
+    assertThat(stopTimes.getDictionary().length).isGreaterThan(16_384);
+
+    var decoded = roundTrip(stopTimes);
+
+    assertThat(decoded).isEqualTo(stopTimes);
+    assertThat(decoded.departureTime(19_999)).isEqualTo("time 19999");
+    assertThat(decoded.shape(19_999)).isEqualTo("shape 199");
+  }
+
+  @Test
+  void splitAndJoinAreSymmetricAcrossServiceDays() {
+    var station =
+        station(
+            "finch",
+            route("30_finch_east", MORNING, MORNING + 600, MORNING + DAY, MORNING + 2 * DAY),
+            route("31_finch_west"),
+            route("30_finch_east", MORNING + 300, MORNING + DAY + 300));
+
+    var buckets = StopTimesBuckets.split(station, ZONE);
+
+    assertThat(buckets).hasSize(5);
+    assertThat(buckets).extracting(bucket -> bucket.getRoute()).containsOnly(0, 2);
+    assertThat(buckets)
+        .extracting(bucket -> bucket.getServiceDay())
+        .containsOnly("2023-11-14", "2023-11-15", "2023-11-16");
+
+    // Round-trip every bucket through BSON, as the repository would
+    for (var bucket : buckets) {
+      bucket.setStopTimes(roundTrip(bucket.getStopTimes()));
+    }
+
+    var joined = StopTimesBuckets.join(List.of(lean(station)), buckets).getFirst();
+
+    for (int route = 0; route < station.getStationRoutes().size(); route++) {
+      assertThat(joined.getStationRoutes().get(route).getStopTimes())
+          .isEqualTo(station.getStationRoutes().get(route).getStopTimes());
+    }
+  }
+
+  @Test
+  void joinIgnoresBucketsOfOtherStationsAndMissingSlots() {
+    var finch = station("finch", route("30_finch_east", MORNING));
+    var other = station("yonge", route("32_yonge", MORNING), route("33_yonge", MORNING + 60));
+    var buckets = new ArrayList<>(StopTimesBuckets.split(finch, ZONE));
+    buckets.addAll(StopTimesBuckets.split(other, ZONE));
+
+    var joined = StopTimesBuckets.join(List.of(lean(finch)), buckets);
+
+    assertThat(joined).hasSize(1);
+    assertThat(joined.getFirst().getStationRoutes()).hasSize(1);
+    assertThat(joined.getFirst().getStationRoutes().getFirst().getStopTimes())
+        .isEqualTo(finch.getStationRoutes().getFirst().getStopTimes());
+  }
+
+  // Encoded to a Document, written to BSON bytes and decoded again
+  private static StopTimes roundTrip(StopTimes stopTimes) {
+    var codec = new DocumentCodec();
+    var bytes = new RawBsonDocument(StopTimesCodec.encode(stopTimes), codec);
+    Document document = bytes.decode(codec);
+
+    return StopTimesCodec.decode(document);
+  }
+
+
+  private static Stations lean(Stations station) {
+    var routes =
+        station.getStationRoutes().stream()
+            .map(
+                route ->
+                    StationRoute.builder()
+                        .routeGroupId(route.getRouteGroupId())
+                        .uri(route.getUri())
+                        .name(route.getName())
+                        .stopTimesCount(route.getStopTimesCount())
+                        .build())
+            .toList();
+
+    return Stations.builder()
+        .stationUri(station.getStationUri())
+        .stationName(station.getStationName())
+        .stationRoutes(routes)
+        .build();
+  }
+
+}